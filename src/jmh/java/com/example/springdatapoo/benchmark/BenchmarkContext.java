@@ -0,0 +1,201 @@
+package com.example.springdatapoo.benchmark;
+
+import com.example.springdatapoo.SpringDataPooSeedelApplication;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Money;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.service.EntityCountService;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Aplicação iniciada com o perfil "benchmark" (H2 em memória, modo MySQL) para os benchmarks
+ * Também cria a massa de dados inicial, em transações de até CHUNK_SIZE registros,
+ * gravada diretamente pelo EntityManager para não medir o custo da própria carga.
+ */
+final class BenchmarkContext implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private final ConfigurableApplicationContext context;
+    private final TransactionTemplate transactionTemplate;
+    private final Random random = new Random(42);
+
+    /**
+     * Massa de dados criada
+     *
+     * @param products os Produtos criados, desanexados
+     * @param clients  os Clientes criados, desanexados
+     * @param orderIds os IDs dos Pedidos criados
+     */
+    record Seed(List<Product> products, List<Client> clients, List<Long> orderIds) {
+    }
+
+    /**
+     * Construtor da classe BenchmarkContext
+     *
+     * @param context o contexto da aplicação
+     */
+    private BenchmarkContext(ConfigurableApplicationContext context) {
+        this.context = context;
+        this.transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+    }
+
+    /**
+     * Inicia a aplicação com o perfil de benchmark
+     *
+     * @param args argumentos de linha de comando, como --propriedade=valor, que prevalecem sobre os arquivos de configuração
+     * @return o contexto iniciado
+     */
+    static BenchmarkContext start(String... args) {
+        return new BenchmarkContext(new SpringApplicationBuilder(SpringDataPooSeedelApplication.class)
+                .profiles("benchmark")
+                .logStartupInfo(false)
+                .run(args));
+    }
+
+    /**
+     * Retorna um bean da aplicação
+     *
+     * @param type a classe do bean
+     * @param <T>  o tipo do bean
+     * @return o bean
+     */
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * Cria Produtos, Clientes e Pedidos com itens aleatórios, porém reproduzíveis
+     *
+     * @param products      o número de Produtos
+     * @param clients       o número de Clientes
+     * @param orders        o número de Pedidos
+     * @param itemsPerOrder o número de itens de cada Pedido
+     * @return a massa de dados criada
+     */
+    Seed seed(int products, int clients, int orders, int itemsPerOrder) {
+        EntityManager entityManager = bean(EntityManager.class);
+        List<Product> productList = new ArrayList<>(products);
+        for (int start = 0; start < products; start += CHUNK_SIZE) {
+            int end = Math.min(products, start + CHUNK_SIZE);
+            int first = start;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < end; i++) {
+                    Product product = new Product();
+                    product.setName("Product " + i);
+                    product.setDescription("Benchmark product number " + i);
+                    product.setPrice(Money.ofCents(100 + random.nextInt(100_000)));
+                    product.setWeight(1 + random.nextInt(1000) / 100.0);
+                    entityManager.persist(product);
+                    productList.add(product);
+                }
+            });
+        }
+
+        List<Client> clientList = new ArrayList<>(clients);
+        for (int start = 0; start < clients; start += CHUNK_SIZE) {
+            int end = Math.min(clients, start + CHUNK_SIZE);
+            int first = start;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < end; i++) {
+                    Client client = new Client();
+                    client.setName("Client " + i);
+                    client.setEmail("client" + i + "@benchmark.test");
+                    client.setAddress("Street " + i);
+                    client.setCep(String.format("%08d", i));
+                    entityManager.persist(client);
+                    clientList.add(client);
+                }
+            });
+        }
+
+        List<Long> orderIds = new ArrayList<>(orders);
+        int ordersPerChunk = Math.max(1, CHUNK_SIZE / Math.max(1, itemsPerOrder));
+        for (int start = 0; start < orders; start += ordersPerChunk) {
+            int end = Math.min(orders, start + ordersPerChunk);
+            int first = start;
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = first; i < end; i++) {
+                    Order order = newOrder(clientList, productList, itemsPerOrder);
+                    order.setCreatedAt(LocalDateTime.now().minusDays(random.nextInt(365)));
+                    entityManager.persist(order);
+                    order.getOrderItemList().forEach(entityManager::persist);
+                    orderIds.add(order.getId());
+                }
+            });
+        }
+        bean(EntityCountService.class).reconcile();
+        return new Seed(productList, clientList, orderIds);
+    }
+
+    /**
+     * Monta um Pedido novo, ainda não persistido, com itens de Produtos sorteados
+     *
+     * @param clients  os Clientes disponíveis
+     * @param products os Produtos disponíveis
+     * @param items    o número de itens
+     * @return o Pedido com os itens e o preço total calculado
+     */
+    Order newOrder(List<Client> clients, List<Product> products, int items) {
+        Order order = new Order();
+        order.setClient(clients.get(random.nextInt(clients.size())));
+        order.setDeliveryDays(1 + random.nextInt(30));
+        for (int j = 0; j < items; j++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            Product product = products.get(random.nextInt(products.size()));
+            item.setProduct(product);
+            item.setUnitPrice(product.getPrice());
+            item.setQuantity(1 + random.nextInt(10));
+            order.getOrderItemList().add(item);
+        }
+        order.recalculateTotalPrice();
+        return order;
+    }
+
+    /**
+     * Monta os itens como o formulário de Pedidos os envia: apenas o ID do Produto e a quantidade
+     *
+     * @param products os Produtos disponíveis
+     * @param items    o número de itens
+     * @return os itens do formulário
+     */
+    List<OrderItem> formItems(List<Product> products, int items) {
+        List<OrderItem> formItems = new ArrayList<>(items);
+        for (int j = 0; j < items; j++) {
+            Product product = new Product();
+            product.setId(products.get(random.nextInt(products.size())).getId());
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(1 + random.nextInt(10));
+            formItems.add(item);
+        }
+        return formItems;
+    }
+
+    /**
+     * Sorteia um número entre zero, inclusive, e o limite, exclusive
+     *
+     * @param bound o limite
+     * @return o número sorteado
+     */
+    int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.springdatapoo.benchmark;
+
+import com.example.springdatapoo.journal.MutationJournal;
+import com.example.springdatapoo.journal.MutationRecord;
+import com.example.springdatapoo.journal.MutationType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark de escrita no journal de alterações, sem banco de dados
+ * Mede registros por segundo acrescentados sem esperar o disco
+ * e com cada escritor esperando a gravação em disco do seu registro (group commit).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MutationJournalBenchmark {
+
+    private static final MutationRecord.OrderState ORDER = new MutationRecord.OrderState(3, 5, 12_990,
+            System.currentTimeMillis(), List.of(new MutationRecord.Item(1, 10, 2, 1500), new MutationRecord.Item(2, 11, 1, 990)));
+
+    private Path directory;
+    private MutationJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal-benchmark");
+        journal = new MutationJournal(true, true, directory, 64 << 20, Duration.ofMillis(1), 8);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public long append() {
+        return journal.append(MutationType.ORDER_SAVED, 5, ORDER);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public long appendDurable() {
+        long sequence = journal.append(MutationType.ORDER_SAVED, 5, ORDER);
+        journal.awaitDurable(sequence);
+        return sequence;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.springdatapoo.benchmark;
+
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark da gravação em lote dos itens de um Pedido grande
+ * O resultado é expresso em itens gravados por segundo.
+ * O parâmetro batchSize compara a gravação sem lotes (1, um INSERT por item) com a configurada na aplicação (50).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderBatchInsertBenchmark {
+
+    private static final int ITEMS = 1000;
+
+    @Param({"1", "50"})
+    private int batchSize;
+
+    private BenchmarkContext context;
+    private BenchmarkContext.Seed seed;
+    private OrderService orderService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize);
+        seed = context.seed(1000, 10, 0, 0);
+        orderService = context.bean(OrderService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITEMS)
+    public Order saveOrderWithThousandItems() {
+        Client client = new Client();
+        client.setId(seed.clients().get(0).getId());
+        Order order = new Order();
+        order.setClient(client);
+        order.setDeliveryDays(5);
+        return orderService.saveWithItems(order, context.formItems(seed.products(), ITEMS));
+    }
+}
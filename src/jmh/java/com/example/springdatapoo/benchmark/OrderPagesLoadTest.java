@@ -0,0 +1,119 @@
+package com.example.springdatapoo.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga das páginas de Pedidos contra uma aplicação já em execução
+ * Cada cliente simulado é uma thread virtual que repete requisições às páginas de Pedidos, sem pausa,
+ * durante o tempo configurado; ao final são exibidos a vazão, as latências p50, p99 e máxima
+ * e o número de respostas com erro (incluindo 503 do limitador de acesso ao banco).
+ * Argumentos: [url base] [clientes simultâneos] [duração em segundos] [caminho...]
+ */
+public class OrderPagesLoadTest {
+
+    private static final List<String> DEFAULT_PATHS = List.of(
+            "/orders",
+            "/orders_page/2?sortField=id&sortDir=asc",
+            "/orders_page/1?sortField=totalPrice&sortDir=desc");
+
+    /**
+     * Executa o teste de carga
+     *
+     * @param args a URL base, o número de clientes, a duração em segundos e os caminhos requisitados
+     * @throws InterruptedException se o teste for interrompido
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 30);
+        List<String> paths = args.length > 3 ? List.of(args).subList(3, args.length) : DEFAULT_PATHS;
+
+        HttpClient httpClient = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        LatencyRecorder latencies = new LatencyRecorder();
+        LongAdder errors = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        long deadline = System.nanoTime() + duration.toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                int client = i;
+                executor.submit(() -> {
+                    start.await();
+                    for (int n = client; System.nanoTime() < deadline; n++) {
+                        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + paths.get(n % paths.size())))
+                                .timeout(Duration.ofSeconds(60))
+                                .build();
+                        long begin = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() >= 400) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                        latencies.record(System.nanoTime() - begin);
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        long[] sorted = latencies.toSortedArray();
+        System.out.printf("clients=%d duration=%ds requests=%d errors=%d%n",
+                clients, duration.toSeconds(), sorted.length, errors.sum());
+        System.out.printf("throughput=%.1f req/s p50=%.1f ms p99=%.1f ms max=%.1f ms%n",
+                sorted.length / (double) duration.toSeconds(),
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 1.0));
+    }
+
+    /**
+     * Calcula um percentil de latências ordenadas
+     *
+     * @param sorted as latências em nanossegundos, em ordem crescente
+     * @param p      o percentil, entre 0 e 1
+     * @return a latência do percentil em milissegundos
+     */
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    /**
+     * Registro de latências compartilhado pelos clientes, em um vetor que cresce sob demanda
+     */
+    private static final class LatencyRecorder {
+        private long[] values = new long[1 << 16];
+        private int size;
+
+        synchronized void record(long nanos) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            values[size++] = nanos;
+        }
+
+        synchronized long[] toSortedArray() {
+            long[] sorted = Arrays.copyOf(values, size);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+    }
+}
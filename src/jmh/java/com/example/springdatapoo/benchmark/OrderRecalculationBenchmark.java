@@ -0,0 +1,66 @@
+package com.example.springdatapoo.benchmark;
+
+import com.example.springdatapoo.model.Money;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+import com.example.springdatapoo.model.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark do cálculo do preço total de um Pedido, sem banco de dados
+ * Mede o custo da soma em centavos conforme o número de itens cresce.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class OrderRecalculationBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int lines;
+
+    private Order order;
+
+    /**
+     * Monta um Pedido com itens de 100 Produtos de preços aleatórios
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Product[] products = new Product[100];
+        for (int i = 0; i < products.length; i++) {
+            products[i] = new Product();
+            products[i].setId((long) i);
+            products[i].setPrice(Money.ofCents(100 + random.nextInt(100_000)));
+        }
+        order = new Order();
+        for (int i = 0; i < lines; i++) {
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(products[random.nextInt(products.length)]);
+            item.setQuantity(1 + random.nextInt(10));
+            order.getOrderItemList().add(item);
+        }
+    }
+
+    @Benchmark
+    public Money recalculateTotalPrice() {
+        order.recalculateTotalPrice();
+        return order.getTotalPrice();
+    }
+}
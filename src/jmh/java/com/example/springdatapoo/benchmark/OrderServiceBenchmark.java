@@ -0,0 +1,133 @@
+package com.example.springdatapoo.benchmark;
+
+import com.example.springdatapoo.dto.OrderSummary;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+import com.example.springdatapoo.service.OrderService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks do serviço de Pedidos sobre uma base com itemRows itens de Pedido
+ * Cobrem o fluxo de gravação do formulário (criação e edição), a exclusão e as listagens paginadas,
+ * que devem manter a latência estável conforme a tabela de itens cresce.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class OrderServiceBenchmark {
+
+    @Param({"10000", "100000"})
+    private int itemRows;
+
+    @Param("10")
+    private int itemsPerOrder;
+
+    @Param("1000")
+    private int products;
+
+    @Param("100")
+    private int clients;
+
+    private BenchmarkContext context;
+    private BenchmarkContext.Seed seed;
+    private OrderService orderService;
+    private Order editedOrder;
+    private List<OrderItem> editedItems;
+
+    /**
+     * Inicia a aplicação, cria a massa de dados e o Pedido usado no benchmark de edição
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        seed = context.seed(products, clients, itemRows / itemsPerOrder, itemsPerOrder);
+        orderService = context.bean(OrderService.class);
+
+        editedItems = context.formItems(seed.products(), itemsPerOrder);
+        Order saved = orderService.saveWithItems(newFormOrder(), editedItems);
+        editedOrder = new Order();
+        editedOrder.setId(saved.getId());
+        editedOrder.setClient(saved.getClient());
+        editedOrder.setDeliveryDays(saved.getDeliveryDays());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * Pedido criado a cada invocação para o benchmark de exclusão
+     */
+    @State(Scope.Thread)
+    public static class OrderToDelete {
+        private long id;
+
+        @Setup(Level.Invocation)
+        public void setUp(OrderServiceBenchmark benchmark) {
+            id = benchmark.orderService.saveWithItems(benchmark.newFormOrder(),
+                    benchmark.context.formItems(benchmark.seed.products(), benchmark.itemsPerOrder)).getId();
+        }
+    }
+
+    @Benchmark
+    public Order saveNewOrder() {
+        return orderService.saveWithItems(newFormOrder(), context.formItems(seed.products(), itemsPerOrder));
+    }
+
+    @Benchmark
+    public Order editOrderQuantity() {
+        OrderItem item = editedItems.get(0);
+        item.setQuantity(item.getQuantity() % 10 + 1);
+        return orderService.saveWithItems(editedOrder, editedItems);
+    }
+
+    @Benchmark
+    public void deleteOrder(OrderToDelete order) {
+        orderService.delete(order.id);
+    }
+
+    @Benchmark
+    public Page<Order> listAllOrders() {
+        return orderService.listAllOrders(1, "id", "asc");
+    }
+
+    @Benchmark
+    public Page<OrderSummary> listOrderSummariesByTotal() {
+        return orderService.listOrderSummaries(1, "totalPrice", "desc");
+    }
+
+    /**
+     * Monta um Pedido como o formulário o envia, com um Cliente identificado apenas pelo ID
+     *
+     * @return o Pedido ainda não persistido
+     */
+    private Order newFormOrder() {
+        Client client = new Client();
+        client.setId(seed.clients().get(context.nextInt(seed.clients().size())).getId());
+        Order order = new Order();
+        order.setClient(client);
+        order.setDeliveryDays(1 + context.nextInt(30));
+        return order;
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.springdatapoo.benchmark;
+
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.service.KeysetSlice;
+import com.example.springdatapoo.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks da listagem de Produtos
+ * Compara a primeira página, uma página profunda por OFFSET e a mesma posição por paginação por chave.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ProductServiceBenchmark {
+
+    @Param({"10000", "100000"})
+    private int products;
+
+    private BenchmarkContext context;
+    private ProductService productService;
+    private int deepPage;
+    private Long deepAfterId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        BenchmarkContext.Seed seed = context.seed(products, 1, 0, 0);
+        productService = context.bean(ProductService.class);
+        int pageSize = productService.listAll(1, "id", "asc").getSize();
+        int middle = products / 2;
+        deepPage = middle / pageSize + 1;
+        deepAfterId = seed.products().get((deepPage - 1) * pageSize - 1).getId();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<Product> listFirstPage() {
+        return productService.listAll(1, "id", "asc");
+    }
+
+    @Benchmark
+    public Page<Product> listDeepPage() {
+        return productService.listAll(deepPage, "id", "asc");
+    }
+
+    @Benchmark
+    public KeysetSlice<Product> listDeepPageByKey() {
+        return productService.listAfter("id", "asc", String.valueOf(deepAfterId), deepAfterId);
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.springdatapoo.benchmark;
+
+import com.example.springdatapoo.model.Order;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks do custo de uma listagem em transação de leitura e gravação e em transação somente leitura
+ * A mesma consulta de Pedidos com os seus Clientes é executada nas duas transações: na de leitura e gravação,
+ * o Hibernate guarda uma cópia de cada entidade e as compara na confirmação; na somente leitura, não.
+ * Para ver a alocação por operação, execute com o profiler de GC:
+ * -Djmh.args="ReadOnlyListingBenchmark -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ReadOnlyListingBenchmark {
+
+    @Param({"20", "500"})
+    private int rows;
+
+    private BenchmarkContext context;
+    private EntityManager entityManager;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start();
+        context.seed(1000, 1000, 10000, 5);
+        entityManager = context.bean(EntityManager.class);
+        PlatformTransactionManager transactionManager = context.bean(PlatformTransactionManager.class);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Order> listInReadWriteTransaction() {
+        return readWrite.execute(status -> listOrders());
+    }
+
+    @Benchmark
+    public List<Order> listInReadOnlyTransaction() {
+        return readOnly.execute(status -> listOrders());
+    }
+
+    private List<Order> listOrders() {
+        return entityManager.createQuery("select o from Order o left join fetch o.client order by o.id", Order.class)
+                .setMaxResults(rows)
+                .getResultList();
+    }
+}
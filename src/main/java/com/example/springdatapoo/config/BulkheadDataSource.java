@@ -0,0 +1,166 @@
+package com.example.springdatapoo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Limita o número de conexões simultâneas de um pool ao seu tamanho
+ * Com as requisições atendidas por threads virtuais, milhares de usuários podem ser atendidos ao mesmo tempo;
+ * as que excedem o pool aguardam uma permissão aqui, sem ocupar uma thread de plataforma,
+ * em vez de esperar por uma conexão dentro do Hikari.
+ * A permissão é obtida junto com a conexão e liberada quando ela é fechada, por isso vale para todo acesso
+ * ao banco pelo DataSource da aplicação: serviços transacionais, repositórios, TransactionTemplate e JdbcTemplate.
+ * Cada pool tem o seu próprio bulkhead, para que a espera por conexões do primário não consuma as da réplica.
+ * Uma thread que já tem uma conexão obtém as seguintes sem permissão, direto do pool: é o caso do gerador de IDs
+ * em tabela do Hibernate, que reserva cada bloco de IDs em uma transação isolada, e das transações REQUIRES_NEW.
+ * Por isso o bulkhead deve ter menos permissões que conexões no pool; as conexões que sobram atendem
+ * a essas conexões aninhadas, que não esperam por quem ocupa as permissões e não causam deadlock.
+ */
+public class BulkheadDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long timeoutNanos;
+    private final ThreadLocal<int[]> held = ThreadLocal.withInitial(() -> new int[1]);
+
+    /**
+     * Construtor da classe BulkheadDataSource
+     *
+     * @param target        o pool de conexões protegido
+     * @param name          o nome do pool, usado na tag das métricas
+     * @param permits       o número de permissões, menor que o tamanho do pool para sobrar conexões às conexões aninhadas
+     * @param timeout       o tempo máximo de espera por uma permissão
+     * @param meterRegistry o registro de métricas, onde são expostas as permissões livres e a fila
+     */
+    public BulkheadDataSource(DataSource target, String name, int permits, Duration timeout, MeterRegistry meterRegistry) {
+        super(target);
+        this.permits = new Semaphore(permits, true);
+        this.timeoutNanos = timeout.toNanos();
+        Gauge.builder("app.db.bulkhead.available", this.permits, Semaphore::availablePermits)
+                .description("Permissões livres para acessar o banco de dados")
+                .tag("pool", name)
+                .register(meterRegistry);
+        Gauge.builder("app.db.bulkhead.waiting", this.permits, Semaphore::getQueueLength)
+                .description("Threads aguardando uma permissão para acessar o banco de dados")
+                .tag("pool", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Obtém uma conexão do pool depois de obter uma permissão do bulkhead, ou sem permissão se a thread já tiver uma conexão
+     *
+     * @return a conexão, que devolve a permissão ao ser fechada
+     * @throws ResponseStatusException com status 503 se nenhuma permissão for liberada dentro do tempo máximo
+     * @throws SQLException            se o pool não fornecer uma conexão
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        int[] count = held.get();
+        boolean nested = count[0] > 0;
+        if (!nested) {
+            acquire();
+        }
+        try {
+            return guard(obtainTargetDataSource().getConnection(), count, nested);
+        } catch (SQLException | RuntimeException | Error e) {
+            if (!nested) {
+                permits.release();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Obtém uma conexão do pool, com outras credenciais, depois de obter uma permissão do bulkhead,
+     * ou sem permissão se a thread já tiver uma conexão
+     *
+     * @param username o usuário
+     * @param password a senha
+     * @return a conexão, que devolve a permissão ao ser fechada
+     * @throws ResponseStatusException com status 503 se nenhuma permissão for liberada dentro do tempo máximo
+     * @throws SQLException            se o pool não fornecer uma conexão
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        int[] count = held.get();
+        boolean nested = count[0] > 0;
+        if (!nested) {
+            acquire();
+        }
+        try {
+            return guard(obtainTargetDataSource().getConnection(username, password), count, nested);
+        } catch (SQLException | RuntimeException | Error e) {
+            if (!nested) {
+                permits.release();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Aguarda uma permissão do bulkhead
+     * O ResponseStatusException chega ao Spring MVC como causa das exceções de acesso a dados
+     * e é respondido com status 503.
+     *
+     * @throws ResponseStatusException com status 503 se nenhuma permissão for liberada dentro do tempo máximo
+     */
+    private void acquire() {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Database is busy, try again later");
+        }
+    }
+
+    /**
+     * Envolve uma conexão para que o seu fechamento devolva a permissão, uma única vez
+     *
+     * @param connection a conexão do pool
+     * @param count      o número de conexões abertas pela thread que obteve a conexão
+     * @param nested     true se a conexão foi obtida sem permissão
+     * @return a conexão envolvida
+     */
+    private Connection guard(Connection connection, int[] count, boolean nested) {
+        count[0]++;
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("equals".equals(method.getName()) && method.getParameterCount() == 1) {
+                        return proxy == args[0];
+                    }
+                    if ("hashCode".equals(method.getName()) && method.getParameterCount() == 0) {
+                        return System.identityHashCode(proxy);
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    } finally {
+                        if ("close".equals(method.getName()) && method.getParameterCount() == 0
+                                && released.compareAndSet(false, true)) {
+                            count[0]--;
+                            if (!nested) {
+                                permits.release();
+                            }
+                        }
+                    }
+                });
+    }
+}
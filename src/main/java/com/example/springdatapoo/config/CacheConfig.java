@@ -0,0 +1,26 @@
+package com.example.springdatapoo.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do cache em memória de Produtos e Clientes
+ * Os caches são criados pelo Spring Boot com Caffeine, conforme spring.cache.* em application.properties,
+ * com limite de tamanho, expiração por tempo e estatísticas de acerto expostas pelo Actuator.
+ * Os serviços de Produtos e Clientes guardam nos caches cópias desanexadas das entidades e devolvem sempre outra cópia,
+ * para que nenhuma instância guardada seja compartilhada entre requisições ou associada a uma sessão do Hibernate.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /**
+     * Cache de Produtos por ID
+     */
+    public static final String PRODUCTS = "products";
+
+    /**
+     * Cache de Clientes por ID
+     */
+    public static final String CLIENTS = "clients";
+}
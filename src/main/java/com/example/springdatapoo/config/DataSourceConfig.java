@@ -0,0 +1,129 @@
+package com.example.springdatapoo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Configuração dos DataSources do primário e da réplica de leitura
+ * O primário usa as propriedades spring.datasource.*; a réplica, opcional, usa app.datasource.replica.*,
+ * com um pool Hikari próprio dimensionado por app.datasource.replica.hikari.*.
+ * Com a réplica configurada, as transações somente leitura são direcionadas a ela pelo ReadWriteRoutingDataSource;
+ * sem ela, todas as conexões vão para o primário.
+ * As conexões da aplicação passam pelo BulkheadDataSource de cada pool, que limita as conexões simultâneas ao tamanho do pool,
+ * menos as app.db.bulkhead.reserved conexões reservadas às conexões aninhadas; o monitor de defasagem usa os pools diretamente.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Cria o pool de conexões do primário
+     *
+     * @param properties as propriedades spring.datasource.*
+     * @return o pool de conexões do primário
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Cria o pool de conexões da réplica de leitura
+     * O usuário, a senha e o driver são os do primário quando não informados.
+     *
+     * @param properties as propriedades spring.datasource.*, usadas como padrão
+     * @param url        a URL JDBC da réplica
+     * @param username   o usuário da réplica
+     * @param password   a senha da réplica
+     * @return o pool de conexões da réplica
+     */
+    @Bean
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    @ConditionalOnProperty("app.datasource.replica.url")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${app.datasource.replica.url}") String url,
+                                              @Value("${app.datasource.replica.username:#{null}}") String username,
+                                              @Value("${app.datasource.replica.password:#{null}}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .driverClassName(properties.determineDriverClassName())
+                .url(url)
+                .username(username == null ? properties.determineUsername() : username)
+                .password(password == null ? properties.determinePassword() : password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    /**
+     * Cria o monitor de defasagem da réplica de leitura
+     *
+     * @param primary       o pool de conexões do primário
+     * @param replica       o pool de conexões da réplica
+     * @param maxLag        a defasagem máxima aceita para ler da réplica
+     * @param meterRegistry o registro de métricas
+     * @return o monitor de defasagem
+     */
+    @Bean
+    @ConditionalOnProperty("app.datasource.replica.url")
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               @Qualifier("replicaDataSource") DataSource replica,
+                                               @Value("${app.datasource.replica.max-lag:PT5S}") Duration maxLag,
+                                               MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(primary, replica, maxLag, meterRegistry);
+    }
+
+    /**
+     * Cria o DataSource usado pela aplicação
+     * A conexão só é obtida no primeiro comando SQL, quando a transação já definiu se é somente leitura,
+     * e então é direcionada ao primário ou à réplica.
+     * Cada pool é envolvido por um bulkhead próprio, com uma permissão por conexão, exceto as reservadas
+     * às conexões aninhadas, como as do gerador de IDs em tabela do Hibernate.
+     *
+     * @param primary         o pool de conexões do primário
+     * @param replica         o pool de conexões da réplica, se configurada
+     * @param lagMonitor      o monitor de defasagem da réplica, se configurada
+     * @param bulkheadTimeout o tempo máximo de espera por uma permissão do bulkhead
+     * @param reserved        o número de conexões de cada pool reservadas às conexões aninhadas
+     * @param meterRegistry   o registro de métricas dos bulkheads
+     * @return o DataSource da aplicação
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") HikariDataSource primary,
+                                 @Qualifier("replicaDataSource") ObjectProvider<HikariDataSource> replica,
+                                 ObjectProvider<ReplicaLagMonitor> lagMonitor,
+                                 @Value("${app.db.bulkhead.timeout:PT10S}") Duration bulkheadTimeout,
+                                 @Value("${app.db.bulkhead.reserved:2}") int reserved,
+                                 MeterRegistry meterRegistry) {
+        DataSource primaryBulkhead = new BulkheadDataSource(primary, "primary",
+                Math.max(1, primary.getMaximumPoolSize() - reserved), bulkheadTimeout, meterRegistry);
+        HikariDataSource replicaDataSource = replica.getIfAvailable();
+        if (replicaDataSource == null) {
+            return primaryBulkhead;
+        }
+        DataSource replicaBulkhead = new BulkheadDataSource(replicaDataSource, "replica",
+                Math.max(1, replicaDataSource.getMaximumPoolSize() - reserved), bulkheadTimeout, meterRegistry);
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryBulkhead, replicaBulkhead,
+                lagMonitor.getObject());
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
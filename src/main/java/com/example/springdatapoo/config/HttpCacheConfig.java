@@ -0,0 +1,54 @@
+package com.example.springdatapoo.config;
+
+import com.example.springdatapoo.httpcache.PageCacheFilter;
+import com.example.springdatapoo.service.TableVersionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * Configuração das respostas condicionais e do cache de páginas renderizadas
+ */
+@Configuration
+public class HttpCacheConfig {
+
+    /**
+     * Registra o filtro de respostas condicionais e cache de páginas
+     * O filtro é executado antes da contagem de comandos SQL, para que as páginas servidas do cache não sejam medidas.
+     * Com uma réplica de leitura configurada, as páginas só são cacheadas depois de decorrida a defasagem tolerada.
+     *
+     * @param tableVersionService o serviço com as versões das tabelas
+     * @param meterRegistry       o registro de métricas, onde são expostas as estatísticas do cache de páginas
+     * @param maxSize             o tamanho máximo do cache de páginas, somando os corpos das respostas
+     * @param replicaUrl          a URL da réplica de leitura, vazia se não houver réplica
+     * @param replicaMaxLag       a defasagem tolerada da réplica de leitura
+     * @return o registro do filtro
+     */
+    @Bean
+    public FilterRegistrationBean<PageCacheFilter> pageCacheFilter(TableVersionService tableVersionService,
+                                                                   MeterRegistry meterRegistry,
+                                                                   @Value("${app.http-cache.max-size:16MB}") DataSize maxSize,
+                                                                   @Value("${app.datasource.replica.url:}") String replicaUrl,
+                                                                   @Value("${app.datasource.replica.max-lag:PT5S}") Duration replicaMaxLag) {
+        Cache<String, PageCacheFilter.CachedPage> pages = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String key, PageCacheFilter.CachedPage page) -> key.length() + page.body().length)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "pages");
+        long settleMillis = replicaUrl.isEmpty() ? 0 : replicaMaxLag.toMillis();
+        FilterRegistrationBean<PageCacheFilter> registration =
+                new FilterRegistrationBean<>(new PageCacheFilter(tableVersionService, pages, settleMillis));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
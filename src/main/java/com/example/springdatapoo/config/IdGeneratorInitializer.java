@@ -0,0 +1,66 @@
+package com.example.springdatapoo.config;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Inicializador da tabela id_generator
+ * As entidades geram seus IDs em blocos a partir da tabela id_generator.
+ * Em bancos que já possuem dados gerados por auto incremento, esta classe garante,
+ * na inicialização, que o próximo bloco de cada entidade comece acima do maior ID existente.
+ * O ajuste é feito logo depois de criados todos os beans, depois que o EntityManagerFactory já atualizou o esquema
+ * e antes de o servidor web começar a aceitar requisições e de a reprodução do journal gravar qualquer registro.
+ * O Hibernate reserva cada bloco de IDs em uma transação isolada, com uma segunda conexão;
+ * o BulkheadDataSource a fornece sem permissão, de uma das conexões reservadas por app.db.bulkhead.reserved.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+public class IdGeneratorInitializer implements SmartInitializingSingleton {
+
+    /**
+     * Tabelas cujos IDs são gerados pela tabela id_generator
+     * O nome da tabela também é o valor da coluna entity
+     */
+    private static final List<String> TABLES = List.of("client", "product", "table_order", "order_item");
+
+    /**
+     * Tamanho do bloco de IDs configurado nas entidades
+     */
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Construtor da classe IdGeneratorInitializer
+     *
+     * @param jdbcTemplate o template JDBC para acesso ao banco de dados
+     */
+    public IdGeneratorInitializer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Ajusta a tabela id_generator antes de o servidor web começar a aceitar requisições
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        adjust();
+    }
+
+    /**
+     * Ajusta o valor de cada entidade na tabela id_generator
+     * para um valor acima do maior ID já existente
+     */
+    public void adjust() {
+        for (String table : TABLES) {
+            Long maxId = jdbcTemplate.queryForObject("select coalesce(max(id), 0) from " + table, Long.class);
+            long nextValue = maxId + ALLOCATION_SIZE + 1;
+            jdbcTemplate.update("insert into id_generator (entity, next_val) values (?, ?) "
+                    + "on duplicate key update next_val = greatest(next_val, values(next_val))", table, nextValue);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.springdatapoo.config;
+
+import com.example.springdatapoo.metrics.ServiceTimingAspect;
+import com.example.springdatapoo.metrics.SqlCountFilter;
+import com.example.springdatapoo.metrics.SqlStatementCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Configuração das métricas da aplicação expostas pelo Actuator
+ * As requisições (http.server.requests), os repositórios (spring.data.repository.invocations),
+ * o pool de conexões (hikaricp.*) e as estatísticas do Hibernate (hibernate.*) são medidos pelo Spring Boot;
+ * esta classe acrescenta o tempo dos serviços e a contagem de comandos SQL por requisição.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Aspecto que mede o tempo dos métodos dos serviços
+     *
+     * @param meterRegistry o registro de métricas
+     * @return o aspecto
+     */
+    @Bean
+    public ServiceTimingAspect serviceTimingAspect(MeterRegistry meterRegistry) {
+        return new ServiceTimingAspect(meterRegistry);
+    }
+
+    /**
+     * Registra no Hibernate o contador de comandos SQL
+     *
+     * @return o customizador das propriedades do Hibernate
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer() {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatementCounter());
+    }
+
+    /**
+     * Filtro que mede os comandos SQL de cada requisição
+     *
+     * @param meterRegistry o registro de métricas
+     * @param warnThreshold o número de comandos a partir do qual a requisição é sinalizada
+     * @return o registro do filtro
+     */
+    @Bean
+    public FilterRegistrationBean<SqlCountFilter> sqlCountFilter(MeterRegistry meterRegistry,
+                                                                 @Value("${app.metrics.sql-warn-threshold:20}") int warnThreshold) {
+        FilterRegistrationBean<SqlCountFilter> registration =
+                new FilterRegistrationBean<>(new SqlCountFilter(meterRegistry, warnThreshold));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
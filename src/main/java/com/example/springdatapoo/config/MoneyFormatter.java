@@ -0,0 +1,52 @@
+package com.example.springdatapoo.config;
+
+import com.example.springdatapoo.model.Money;
+import org.springframework.format.Formatter;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.Locale;
+
+/**
+ * Formatador de valores monetários para formulários e views
+ * Exibe e lê valores no formato "#,##0.00", com os separadores da localidade da requisição,
+ * o mesmo formato usado antes por @NumberFormat nos preços.
+ * Registrado automaticamente pelo Spring Boot no serviço de conversão do Spring MVC.
+ */
+@Component
+public class MoneyFormatter implements Formatter<Money> {
+
+    private static final String PATTERN = "#,##0.00";
+
+    @Override
+    public String print(Money money, Locale locale) {
+        return format(locale).format(money.toBigDecimal());
+    }
+
+    @Override
+    public Money parse(String text, Locale locale) throws ParseException {
+        DecimalFormat format = format(locale);
+        format.setParseBigDecimal(true);
+        ParsePosition position = new ParsePosition(0);
+        String trimmed = text.trim();
+        Number number = format.parse(trimmed, position);
+        if (number == null || position.getIndex() != trimmed.length()) {
+            throw new ParseException("Invalid amount: " + text, position.getErrorIndex());
+        }
+        return Money.of((BigDecimal) number);
+    }
+
+    /**
+     * Cria o formato numérico para uma localidade; DecimalFormat não é thread-safe
+     *
+     * @param locale a localidade
+     * @return o formato
+     */
+    private static DecimalFormat format(Locale locale) {
+        return new DecimalFormat(PATTERN, DecimalFormatSymbols.getInstance(locale));
+    }
+}
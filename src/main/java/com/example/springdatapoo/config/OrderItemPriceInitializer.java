@@ -0,0 +1,53 @@
+package com.example.springdatapoo.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inicializador da coluna order_item.unit_price
+ * Os itens gravados antes da existência da coluna não têm o preço unitário com que foram adicionados;
+ * esta classe preenche, na inicialização, o preço desses itens com o preço atual do Produto,
+ * antes de os agregados de vendas serem carregados e de o servidor web começar a aceitar requisições.
+ * A partir daí, o preço de cada item é fixado quando ele é adicionado ao Pedido.
+ */
+@Component
+public class OrderItemPriceInitializer implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemPriceInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Construtor da classe OrderItemPriceInitializer
+     *
+     * @param jdbcTemplate         o template JDBC para acesso ao banco de dados
+     * @param entityManagerFactory a fábrica de EntityManagers, recebida para que o esquema seja criado antes do preenchimento
+     */
+    public OrderItemPriceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Preenche o preço dos itens antigos antes de o servidor web começar a aceitar requisições
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        fill();
+    }
+
+    /**
+     * Preenche o preço unitário dos itens sem preço com o preço atual do Produto
+     */
+    public void fill() {
+        int filled = jdbcTemplate.update("update order_item set unit_price = "
+                + "(select p.price from product p where p.id = order_item.product_id) "
+                + "where unit_price is null and product_id is not null");
+        if (filled > 0) {
+            log.info("Filled the unit price of {} order items with the current product price", filled);
+        }
+    }
+}
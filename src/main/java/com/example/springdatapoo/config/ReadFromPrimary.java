@@ -0,0 +1,18 @@
+package com.example.springdatapoo.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Indica que as transações somente leitura do método devem ler do primário, e não da réplica de leitura
+ * Usada nas consultas que precisam ver as gravações recém-confirmadas, como as que abrem os formulários de edição
+ * (cuja versão é conferida na gravação) e as que alimentam os caches.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ReadFromPrimary {
+}
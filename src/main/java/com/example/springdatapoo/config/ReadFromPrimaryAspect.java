@@ -0,0 +1,34 @@
+package com.example.springdatapoo.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Direciona ao primário as conexões obtidas durante os métodos anotados com ReadFromPrimary
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class ReadFromPrimaryAspect {
+
+    /**
+     * Executa o método com as leituras direcionadas ao primário
+     *
+     * @param joinPoint a chamada interceptada
+     * @return o retorno da chamada
+     * @throws Throwable a exceção lançada pela chamada, repassada sem alteração
+     */
+    @Around("@annotation(com.example.springdatapoo.config.ReadFromPrimary)")
+    public Object readFromPrimary(ProceedingJoinPoint joinPoint) throws Throwable {
+        boolean previous = ReadWriteRoutingDataSource.setReadFromPrimary(true);
+        try {
+            return joinPoint.proceed();
+        } finally {
+            ReadWriteRoutingDataSource.setReadFromPrimary(previous);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.springdatapoo.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+
+/**
+ * DataSource que direciona as conexões de transações somente leitura para a réplica de leitura
+ * As demais conexões, e as de leitura enquanto a réplica estiver indisponível ou atrasada, vão para o primário.
+ * Se a réplica recusar uma conexão, a leitura é atendida pelo primário e a réplica é marcada como indisponível
+ * até a próxima verificação do monitor.
+ * Os métodos anotados com ReadFromPrimary leem sempre do primário.
+ * Deve ser envolvido por um LazyConnectionDataSourceProxy, para que a conexão só seja obtida
+ * depois que a transação marcou se é somente leitura.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    /**
+     * Destinos das conexões
+     */
+    public enum Route { PRIMARY, REPLICA }
+
+    private static final ThreadLocal<Boolean> READ_FROM_PRIMARY = ThreadLocal.withInitial(() -> false);
+
+    private final DataSource primary;
+    private final ReplicaLagMonitor lagMonitor;
+
+    /**
+     * Construtor da classe ReadWriteRoutingDataSource
+     *
+     * @param primary    o DataSource do banco primário, que recebe as gravações
+     * @param replica    o DataSource da réplica de leitura
+     * @param lagMonitor o monitor que indica se a réplica pode atender leituras
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor) {
+        this.primary = primary;
+        this.lagMonitor = lagMonitor;
+        setTargetDataSources(Map.of(Route.PRIMARY, primary, Route.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    /**
+     * Define se as leituras da thread corrente devem ir para o primário
+     *
+     * @param readFromPrimary true para ler do primário mesmo em transações somente leitura
+     * @return o valor anterior, a ser restaurado ao final
+     */
+    static boolean setReadFromPrimary(boolean readFromPrimary) {
+        boolean previous = READ_FROM_PRIMARY.get();
+        READ_FROM_PRIMARY.set(readFromPrimary);
+        return previous;
+    }
+
+    /**
+     * Escolhe o destino da conexão pela transação corrente
+     *
+     * @return REPLICA em transações somente leitura com a réplica disponível, PRIMARY nos demais casos
+     */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && !READ_FROM_PRIMARY.get()
+                && lagMonitor.isAvailable()) {
+            return Route.REPLICA;
+        }
+        return Route.PRIMARY;
+    }
+
+    /**
+     * Obtém uma conexão do destino escolhido, recorrendo ao primário se a réplica falhar
+     *
+     * @return a conexão
+     * @throws SQLException se o primário não fornecer uma conexão
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        Object route = determineCurrentLookupKey();
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            if (route != Route.REPLICA) {
+                throw e;
+            }
+            lagMonitor.markUnavailable(e);
+            return primary.getConnection();
+        }
+    }
+}
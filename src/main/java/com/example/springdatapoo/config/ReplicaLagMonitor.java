@@ -0,0 +1,111 @@
+package com.example.springdatapoo.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Monitor da defasagem da réplica de leitura
+ * A cada verificação grava a hora atual na tabela replica_heartbeat do primário e lê da réplica
+ * a última hora replicada; a diferença é a defasagem, com a resolução do intervalo de verificação.
+ * A réplica só atende leituras enquanto a defasagem estiver dentro do limite configurado;
+ * até a primeira verificação, ou se ela falhar, as leituras vão para o primário.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMillis;
+    private volatile boolean available;
+    private volatile long lagMillis = -1;
+    private boolean heartbeatTableCreated;
+
+    /**
+     * Construtor da classe ReplicaLagMonitor
+     *
+     * @param primary       o DataSource do banco primário
+     * @param replica       o DataSource da réplica de leitura
+     * @param maxLag        a defasagem máxima aceita para ler da réplica
+     * @param meterRegistry o registro de métricas, onde são expostas a defasagem e a disponibilidade da réplica
+     */
+    public ReplicaLagMonitor(DataSource primary, DataSource replica, Duration maxLag, MeterRegistry meterRegistry) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMillis = maxLag.toMillis();
+        Gauge.builder("app.db.replica.lag", this, monitor -> monitor.lagMillis < 0 ? Double.NaN : monitor.lagMillis / 1000.0)
+                .description("Defasagem da réplica de leitura, em segundos")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("app.db.replica.available", this, monitor -> monitor.available ? 1 : 0)
+                .description("Se a réplica de leitura está atendendo as transações somente leitura")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Indica se as transações somente leitura podem ser atendidas pela réplica
+     *
+     * @return true se a última verificação encontrou a réplica dentro do limite de defasagem
+     */
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * Marca a réplica como indisponível até a próxima verificação
+     *
+     * @param cause a falha ao obter uma conexão da réplica
+     */
+    public void markUnavailable(Exception cause) {
+        if (available) {
+            available = false;
+            log.warn("Read replica failed, reading from the primary: {}", cause.getMessage());
+        }
+    }
+
+    /**
+     * Grava o heartbeat no primário e mede a defasagem da réplica
+     */
+    @Scheduled(fixedDelayString = "${app.datasource.replica.lag-check-interval:PT1S}")
+    public synchronized void check() {
+        try {
+            if (!heartbeatTableCreated) {
+                primary.execute("create table if not exists replica_heartbeat "
+                        + "(id int not null primary key, beat_at bigint not null)");
+                heartbeatTableCreated = true;
+            }
+            primary.update("insert into replica_heartbeat (id, beat_at) values (1, ?) "
+                    + "on duplicate key update beat_at = values(beat_at)", System.currentTimeMillis());
+        } catch (DataAccessException e) {
+            log.warn("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+
+        boolean wasAvailable = available;
+        try {
+            List<Long> beats = replica.queryForList("select beat_at from replica_heartbeat where id = 1", Long.class);
+            lagMillis = beats.isEmpty() ? -1 : Math.max(0, System.currentTimeMillis() - beats.get(0));
+            available = lagMillis >= 0 && lagMillis <= maxLagMillis;
+        } catch (DataAccessException e) {
+            lagMillis = -1;
+            available = false;
+            if (wasAvailable) {
+                log.warn("Read replica is unreachable, reading from the primary: {}", e.getMessage());
+            }
+            return;
+        }
+        if (wasAvailable && !available) {
+            log.warn("Read replica is {} ms behind the primary, reading from the primary", lagMillis);
+        } else if (!wasAvailable && available) {
+            log.info("Read replica is {} ms behind the primary, reading from the replica", lagMillis);
+        }
+    }
+}
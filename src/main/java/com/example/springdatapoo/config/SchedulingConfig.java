@@ -0,0 +1,12 @@
+package com.example.springdatapoo.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuração que habilita as tarefas agendadas (@Scheduled) da aplicação
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,157 @@
+package com.example.springdatapoo.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thymeleaf.ThymeleafProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aquece a renderização das páginas quando a aplicação termina de iniciar
+ * Com o cache de templates habilitado, todos os templates são analisados e guardados no cache,
+ * e as páginas configuradas são requisitadas uma vez, carregando as classes, os planos de consulta
+ * e as expressões usadas na renderização.
+ * O aquecimento é feito antes de a aplicação se declarar pronta para receber tráfego,
+ * para que os primeiros usuários depois de uma implantação não paguem esse custo.
+ */
+@Component
+public class TemplateWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateWarmup.class);
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(30);
+
+    private final ITemplateEngine templateEngine;
+    private final ThymeleafProperties thymeleafProperties;
+    private final ResourcePatternResolver resourceResolver;
+    private final boolean enabled;
+    private final List<String> paths;
+
+    /**
+     * Construtor da classe TemplateWarmup
+     *
+     * @param templateEngine      o mecanismo de templates
+     * @param thymeleafProperties as propriedades spring.thymeleaf.*, com a localização dos templates
+     * @param resourceResolver    o localizador dos arquivos de template
+     * @param enabled             se o aquecimento está habilitado
+     * @param paths               as páginas requisitadas no aquecimento
+     */
+    public TemplateWarmup(ITemplateEngine templateEngine,
+                          ThymeleafProperties thymeleafProperties,
+                          ResourcePatternResolver resourceResolver,
+                          @Value("${app.templates.warmup:false}") boolean enabled,
+                          @Value("${app.templates.warmup-paths:}") List<String> paths) {
+        this.templateEngine = templateEngine;
+        this.thymeleafProperties = thymeleafProperties;
+        this.resourceResolver = resourceResolver;
+        this.enabled = enabled;
+        this.paths = paths;
+    }
+
+    /**
+     * Analisa todos os templates e requisita as páginas configuradas
+     *
+     * @param event o evento de aplicação pronta, com o contexto do servidor web
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp(ApplicationReadyEvent event) {
+        if (!enabled || !thymeleafProperties.isCache()) {
+            return;
+        }
+        long start = System.nanoTime();
+        int templates = parseTemplates();
+        int pages = event.getApplicationContext() instanceof WebServerApplicationContext context
+                ? requestPages(context.getWebServer().getPort())
+                : 0;
+        log.info("Warmed up {} templates and {} pages in {} ms",
+                templates, pages, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Analisa todos os templates, guardando-os no cache do mecanismo de templates
+     * Cada template é processado com um contexto vazio: o processamento pode falhar nas expressões
+     * que dependem do modelo, mas o template já foi analisado e guardado no cache antes disso.
+     *
+     * @return o número de templates analisados
+     */
+    private int parseTemplates() {
+        String prefix = thymeleafProperties.getPrefix();
+        String suffix = thymeleafProperties.getSuffix();
+        String location = prefix.replaceFirst("^classpath\\*?:/?", "");
+        Resource[] resources;
+        try {
+            resources = resourceResolver.getResources(prefix + "**/*" + suffix);
+        } catch (IOException e) {
+            log.warn("Could not list the templates in {}: {}", prefix, e.getMessage());
+            return 0;
+        }
+        int parsed = 0;
+        for (Resource resource : resources) {
+            String url;
+            try {
+                url = resource.getURL().toString();
+            } catch (IOException e) {
+                continue;
+            }
+            String name = url.substring(url.lastIndexOf(location) + location.length(), url.length() - suffix.length());
+            try {
+                templateEngine.process(name, new Context(Locale.getDefault()), Writer.nullWriter());
+            } catch (RuntimeException e) {
+                log.debug("Template {} was parsed but not rendered without a model: {}", name, e.getMessage());
+            }
+            parsed++;
+        }
+        return parsed;
+    }
+
+    /**
+     * Requisita cada página configurada uma vez
+     *
+     * @param port a porta do servidor web
+     * @return o número de páginas respondidas com sucesso
+     */
+    private int requestPages(int port) {
+        if (paths.isEmpty()) {
+            return 0;
+        }
+        HttpClient client = HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build();
+        int warmed = 0;
+        for (String path : paths) {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(REQUEST_TIMEOUT)
+                    .GET()
+                    .build();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    warmed++;
+                } else {
+                    log.warn("Warm-up request to {} returned {}", path, response.statusCode());
+                }
+            } catch (IOException e) {
+                log.warn("Warm-up request to {} failed: {}", path, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return warmed;
+            }
+        }
+        return warmed;
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.springdatapoo.controller;
 
 import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.service.KeysetSlice;
 import com.example.springdatapoo.service.ClientService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
@@ -12,6 +13,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import java.util.List;
@@ -42,7 +44,7 @@ public class ClientController {
      */
     @RequestMapping("/clients")
     public String viewClients(Model model) {
-        return viewClientsPage(model, 1, "id", "asc");
+        return viewClientsPage(model, 1, "id", "asc", null, null);
     }
 
     /**
@@ -52,17 +54,30 @@ public class ClientController {
      * @param pageNum o número da página a ser exibida
      * @param sortField o campo pelo qual os clientes serão ordenados
      * @param sortDir a direção da ordenação (ascendente ou descendente)
+     * @param after o valor do campo de ordenação do último registro da página anterior (paginação por chave)
+     * @param afterId o ID do último registro da página anterior (paginação por chave)
      * @return o nome da view para exibir clientes
      */
     @RequestMapping("/clients_page/{pageNum}")
     public String viewClientsPage(Model model, @PathVariable int pageNum,
-                                  @Param("sortField") String sortField, @Param("sortDir") String sortDir) {
-        Page<Client> page = clientService.listAll(pageNum, sortField, sortDir);
-        List<Client> listClients = page.getContent();
+                                   @Param("sortField") String sortField, @Param("sortDir") String sortDir,
+                                   @RequestParam(required = false) String after,
+                                   @RequestParam(required = false) Long afterId) {
+        KeysetSlice<Client> slice;
+        if (afterId != null) {
+            slice = clientService.listAfter(sortField, sortDir, after, afterId);
+        } else {
+            Page<Client> page = clientService.listAll(pageNum, sortField, sortDir);
+            model.addAttribute("totalPages", page.getTotalPages());
+            model.addAttribute("totalItems", page.getTotalElements());
+            slice = clientService.toSlice(page, sortField);
+        }
+        List<Client> listClients = slice.content();
 
         model.addAttribute("currentPage", pageNum);
-        model.addAttribute("totalPages", page.getTotalPages());
-        model.addAttribute("totalItems", page.getTotalElements());
+        model.addAttribute("hasNext", slice.hasNext());
+        model.addAttribute("nextAfter", slice.nextAfter());
+        model.addAttribute("nextAfterId", slice.nextAfterId());
 
         model.addAttribute("sortField", sortField);
         model.addAttribute("sortDir", sortDir);
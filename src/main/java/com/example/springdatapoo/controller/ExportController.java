@@ -0,0 +1,63 @@
+package com.example.springdatapoo.controller;
+
+import com.example.springdatapoo.service.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Controlador para exportação completa de Produtos, Clientes e Pedidos
+ * As respostas são escritas de forma incremental, à medida que os registros são lidos do banco.
+ */
+@Controller
+public class ExportController {
+
+    private final ExportService exportService;
+
+    /**
+     * Construtor da classe ExportController
+     *
+     * @param exportService o serviço de exportação
+     */
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Exporta todos os registros de uma entidade
+     * Exemplo: /export/products.csv ou /export/orders.ndjson
+     *
+     * @param entity o nome da entidade (products, clients ou orders)
+     * @param format o formato de saída (csv ou ndjson)
+     * @return a resposta com o conteúdo escrito sob demanda
+     */
+    @RequestMapping("/export/{entity}.{format}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String entity, @PathVariable String format) {
+        ExportService.Format exportFormat = switch (format) {
+            case "csv" -> ExportService.Format.CSV;
+            case "ndjson" -> ExportService.Format.NDJSON;
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown export format: " + format);
+        };
+        StreamingResponseBody body = switch (entity) {
+            case "products" -> out -> exportService.exportProducts(exportFormat, out);
+            case "clients" -> out -> exportService.exportClients(exportFormat, out);
+            case "orders" -> out -> exportService.exportOrders(exportFormat, out);
+            default -> throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Unknown export entity: " + entity);
+        };
+        MediaType mediaType = exportFormat == ExportService.Format.CSV
+                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + entity + "." + format + "\"")
+                .body(body);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.springdatapoo.controller;
+
+import com.example.springdatapoo.service.ImportJob;
+import com.example.springdatapoo.service.ImportService;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.support.RedirectAttributes;
+
+import java.io.IOException;
+
+/**
+ * Controlador para importação em massa de Produtos, Clientes e Pedidos
+ * Esta classe fornece métodos para enviar arquivos CSV ou JSON e acompanhar o progresso da importação
+ */
+@Controller
+public class ImportController {
+
+    private final ImportService importService;
+
+    /**
+     * Construtor da classe ImportController
+     *
+     * @param importService o serviço de importação
+     */
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    /**
+     * Exibe a página de envio de arquivos para importação
+     *
+     * @param model o modelo para a view
+     * @return o nome da view de importação
+     */
+    @RequestMapping("/import")
+    public String showImportPage(Model model) {
+        model.addAttribute("types", ImportJob.Type.values());
+        model.addAttribute("formats", ImportJob.Format.values());
+        return "import";
+    }
+
+    /**
+     * Inicia a importação de um arquivo
+     *
+     * @param type   o tipo de dado contido no arquivo
+     * @param format o formato do arquivo
+     * @param file   o arquivo enviado
+     * @param attr   atributos para redirecionamento
+     * @return redireciona para a página de progresso da importação
+     * @throws IOException se o arquivo não puder ser recebido
+     */
+    @RequestMapping(value = "/import", method = RequestMethod.POST)
+    public String startImport(@RequestParam("type") ImportJob.Type type,
+                              @RequestParam("format") ImportJob.Format format,
+                              @RequestParam("file") MultipartFile file,
+                              RedirectAttributes attr) throws IOException {
+        if (file.isEmpty()) {
+            attr.addFlashAttribute("fail", "Select a file to import");
+            return "redirect:/import";
+        }
+        ImportJob job = importService.start(type, format, file);
+        return "redirect:/import/" + job.getId();
+    }
+
+    /**
+     * Exibe o progresso de uma importação
+     *
+     * @param id    o ID da importação
+     * @param model o modelo para a view
+     * @return o nome da view de progresso
+     */
+    @RequestMapping("/import/{id}")
+    public String viewImport(@PathVariable String id, Model model) {
+        model.addAttribute("job", findJob(id));
+        return "import_status";
+    }
+
+    /**
+     * Retorna o progresso de uma importação em JSON
+     *
+     * @param id o ID da importação
+     * @return a importação com seus contadores e erros
+     */
+    @RequestMapping("/import/{id}/status")
+    @ResponseBody
+    public ImportJob importStatus(@PathVariable String id) {
+        return findJob(id);
+    }
+
+    /**
+     * Procura uma importação, respondendo 404 se ela não existir
+     *
+     * @param id o ID da importação
+     * @return a importação encontrada
+     */
+    private ImportJob findJob(String id) {
+        return importService.findJob(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import not found"));
+    }
+}
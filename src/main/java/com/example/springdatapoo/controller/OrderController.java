@@ -1,12 +1,14 @@
 package com.example.springdatapoo.controller;
 
+import com.example.springdatapoo.dto.OrderSummary;
+import com.example.springdatapoo.dto.WriteBehindStatus;
 import com.example.springdatapoo.model.Order;
-import com.example.springdatapoo.model.OrderItem;
-import com.example.springdatapoo.model.Product;
-import com.example.springdatapoo.repository.OrderItemRepository;
-import com.example.springdatapoo.service.OrderItemService;
+import com.example.springdatapoo.service.KeysetSlice;
+import com.example.springdatapoo.service.MissingProductsException;
+import com.example.springdatapoo.service.OrderConflictException;
+import com.example.springdatapoo.service.OrderMerge;
 import com.example.springdatapoo.service.OrderService;
-import com.example.springdatapoo.service.ProductService;
+import com.example.springdatapoo.service.OrderWriteBehindService;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.repository.query.Param;
@@ -27,23 +29,17 @@ import java.util.List;
 public class OrderController {
 
     private final OrderService orderService;
-    private final ProductService productService;
-    private final OrderItemRepository orderItemRepository;
-    private final OrderItemService orderItemService;
+    private final OrderWriteBehindService writeBehindService;
 
     /**
      * Construtor da classe OrderController
      *
      * @param orderService o serviço para operações relacionadas a Pedidos
-     * @param productService o serviço para operações relacionadas a Produtos
-     * @param orderItemRepository o repositório para itens de pedidos
-     * @param orderItemService o serviço para operações relacionadas a itens de pedidos
+     * @param writeBehindService a fila de gravação posterior de Pedidos
      */
-    public OrderController(OrderService orderService, ProductService productService, OrderItemRepository orderItemRepository, OrderItemService orderItemService) {
+    public OrderController(OrderService orderService, OrderWriteBehindService writeBehindService) {
         this.orderService = orderService;
-        this.productService = productService;
-        this.orderItemRepository = orderItemRepository;
-        this.orderItemService = orderItemService;
+        this.writeBehindService = writeBehindService;
     }
 
     /**
@@ -54,7 +50,7 @@ public class OrderController {
      */
     @RequestMapping("/orders")
     public String viewOrders(Model model) {
-        return viewOrdersPage(model, 1, "id", "asc");
+        return viewOrdersPage(model, 1, "id", "asc", null, null);
     }
 
     /**
@@ -64,17 +60,30 @@ public class OrderController {
      * @param pageNum o número da página a ser exibida
      * @param sortField o campo pelo qual os pedidos serão ordenados
      * @param sortDir a direção da ordenação (ascendente ou descendente)
+     * @param after o valor do campo de ordenação do último registro da página anterior (paginação por chave)
+     * @param afterId o ID do último registro da página anterior (paginação por chave)
      * @return o nome da view para exibir pedidos
      */
     @RequestMapping("/orders_page/{pageNum}")
     public String viewOrdersPage(Model model, @PathVariable int pageNum,
-                                   @Param("sortField") String sortField, @Param("sortDir") String sortDir) {
-        Page<Order> page = orderService.listAllOrders(pageNum, sortField, sortDir);
-        List<Order> listOrders = page.getContent();
+                                   @Param("sortField") String sortField, @Param("sortDir") String sortDir,
+                                   @RequestParam(required = false) String after,
+                                   @RequestParam(required = false) Long afterId) {
+        KeysetSlice<OrderSummary> slice;
+        if (afterId != null) {
+            slice = orderService.listOrderSummariesAfter(sortField, sortDir, after, afterId);
+        } else {
+            Page<OrderSummary> page = orderService.listOrderSummaries(pageNum, sortField, sortDir);
+            model.addAttribute("totalPages", page.getTotalPages());
+            model.addAttribute("totalItems", page.getTotalElements());
+            slice = orderService.toSlice(page, sortField);
+        }
+        List<OrderSummary> listOrders = slice.content();
 
         model.addAttribute("currentPage", pageNum);
-        model.addAttribute("totalPages", page.getTotalPages());
-        model.addAttribute("totalItems", page.getTotalElements());
+        model.addAttribute("hasNext", slice.hasNext());
+        model.addAttribute("nextAfter", slice.nextAfter());
+        model.addAttribute("nextAfterId", slice.nextAfterId());
 
         model.addAttribute("sortField", sortField);
         model.addAttribute("sortDir", sortDir);
@@ -94,8 +103,6 @@ public class OrderController {
     public String showNewOrderPage(Model model) {
         Order order = new Order();
         model.addAttribute("order", order);
-        model.addAttribute("products", orderService.findAllProducts());
-        model.addAttribute("clients", orderService.findAllClients());
         return "new_order";
     }
 
@@ -103,40 +110,65 @@ public class OrderController {
      * Salva um pedido no banco de dados
      * após recalcular o novo valor total do pedido
      *
+     * Se algum item referenciar um produto inexistente, o formulário é exibido novamente com o erro
+     * Com a gravação posterior habilitada, o pedido é colocado na fila e gravado em segundo plano;
+     * se a fila estiver cheia, o formulário é exibido novamente pedindo uma nova tentativa
+     * Um pedido editado ao mesmo tempo por outro usuário é mesclado com as alterações gravadas;
+     * se as alterações se sobrepõem, se o pedido foi excluído ou se o estado enviado não puder ser lido,
+     * o formulário é exibido novamente com o conflito
+     * Na gravação posterior, a mescla é feita quando o pedido é gravado, e um pedido em conflito é descartado
+     *
      * @param order o pedido a ser salvo
      * @param result o resultado da validação do formulário
+     * @param base o estado do pedido quando o formulário de edição foi aberto
+     * @param model o modelo para a view
      * @param attr atributos para redirecionamento
      * @return redireciona para a lista de pedidos
      */
     @RequestMapping(value = "/orders/save", method = RequestMethod.POST)
     public String saveOrder(@Valid @ModelAttribute("order") Order order,
-                              BindingResult result, RedirectAttributes attr) {
+                              BindingResult result, @RequestParam(required = false) String base,
+                              Model model, RedirectAttributes attr) {
         if (result.hasErrors()) {
             if (order.getId() == null) {
                 return "new_order";
             }
         }
 
-        List<OrderItem> items = orderItemService.findAll();
-        for (OrderItem item : items){
-            if (item.getOrder().getId().equals(order.getId())){
-                orderItemService.delete(item.getId());
+        if (writeBehindService.isEnabled()) {
+            boolean accepted;
+            try {
+                accepted = writeBehindService.submit(order, base);
+            } catch (OrderConflictException e) {
+                result.reject("order.conflict", e.getMessage());
+                model.addAttribute("base", base);
+                return "edit_order";
+            }
+            if (!accepted) {
+                result.reject("order.queue.full", "Too many orders being saved, please try again");
+                model.addAttribute("base", base);
+                return order.getId() == null ? "new_order" : "edit_order";
             }
+            attr.addFlashAttribute("message", "Order received and will be saved shortly");
+            return "redirect:/orders";
         }
 
-        orderService.save(order);
-
-        for (OrderItem item : order.getOrderItemList()){
-            if (item.getProduct() != null && item.getProduct().getId() != null){
-                Product product = productService.findById(item.getProduct().getId());
-                item.setProduct(product);
-                item.setOrder(order);
-                orderItemRepository.save(item);
+        try {
+            if (order.getId() == null) {
+                orderService.saveWithItems(order, order.getOrderItemList());
+            } else {
+                orderService.saveEdited(order, order.getOrderItemList(), base);
             }
+        } catch (MissingProductsException e) {
+            result.reject("order.products.missing", "Products not found: " + e.getMissingIds());
+            model.addAttribute("base", base);
+            return order.getId() == null ? "new_order" : "edit_order";
+        } catch (OrderConflictException e) {
+            result.reject("order.conflict", e.getMessage());
+            model.addAttribute("base", base);
+            return "edit_order";
         }
 
-        orderService.save(order);
-
         attr.addFlashAttribute("message", "Order saved successfully");
         return "redirect:/orders";
     }
@@ -152,8 +184,7 @@ public class OrderController {
         ModelAndView mav = new ModelAndView("edit_order");
         Order order = orderService.findById(id);
         mav.addObject("order", order);
-        mav.addObject("products", orderService.findAllProducts());
-        mav.addObject("clients", orderService.findAllClients());
+        mav.addObject("base", OrderMerge.encode(order));
         return mav;
     }
 
@@ -165,13 +196,18 @@ public class OrderController {
      */
     @RequestMapping("/orders/delete/{id}")
     public String deleteOrder(@PathVariable(name = "id") long id) {
-        List<OrderItem> items = orderItemService.findAll();
-        for (OrderItem item : items){
-            if (item.getOrder().getId() == id){
-                orderItemService.delete(item.getId());
-            }
-        }
         orderService.delete(id);
         return "redirect:/orders";
     }
+
+    /**
+     * Retorna a situação da fila de gravação posterior de Pedidos
+     *
+     * @return os contadores e o tamanho atual da fila
+     */
+    @GetMapping("/orders/write-behind")
+    @ResponseBody
+    public WriteBehindStatus writeBehindStatus() {
+        return writeBehindService.status();
+    }
 }
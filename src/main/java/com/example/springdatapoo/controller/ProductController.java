@@ -1,8 +1,11 @@
 package com.example.springdatapoo.controller;
 
 import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.service.KeysetSlice;
+import com.example.springdatapoo.service.ProductSearchService;
 import com.example.springdatapoo.service.ProductService;
 import jakarta.validation.Valid;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Controller;
@@ -12,6 +15,7 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import java.util.List;
@@ -24,14 +28,17 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService productService;
+    private final ProductSearchService productSearchService;
 
     /**
      * Construtor da classe ProductController.
      *
      * @param productService o serviço para operações relacionadas a Produtos
+     * @param productSearchService o serviço de busca textual de Produtos
      */
-    public ProductController(ProductService productService) {
+    public ProductController(ProductService productService, ProductSearchService productSearchService) {
         this.productService = productService;
+        this.productSearchService = productSearchService;
     }
 
     /**
@@ -42,7 +49,7 @@ public class ProductController {
      */
     @RequestMapping("/products")
     public String viewProducts(Model model) {
-        return viewProductsPage(model, 1, "id", "asc");
+        return viewProductsPage(model, 1, "id", "asc", null, null);
     }
 
     /**
@@ -52,17 +59,30 @@ public class ProductController {
      * @param pageNum o número da página a ser exibida
      * @param sortField o campo pelo qual os produtos serão ordenados
      * @param sortDir a direção da ordenação (ascendente ou descendente)
+     * @param after o valor do campo de ordenação do último registro da página anterior (paginação por chave)
+     * @param afterId o ID do último registro da página anterior (paginação por chave)
      * @return o nome da view para exibir produtos
      */
     @RequestMapping("/products_page/{pageNum}")
     public String viewProductsPage(Model model, @PathVariable int pageNum,
-                                   @Param("sortField") String sortField, @Param("sortDir") String sortDir) {
-        Page<Product> page = productService.listAll(pageNum, sortField, sortDir);
-        List<Product> listProducts = page.getContent();
+                                   @Param("sortField") String sortField, @Param("sortDir") String sortDir,
+                                   @RequestParam(required = false) String after,
+                                   @RequestParam(required = false) Long afterId) {
+        KeysetSlice<Product> slice;
+        if (afterId != null) {
+            slice = productService.listAfter(sortField, sortDir, after, afterId);
+        } else {
+            Page<Product> page = productService.listAll(pageNum, sortField, sortDir);
+            model.addAttribute("totalPages", page.getTotalPages());
+            model.addAttribute("totalItems", page.getTotalElements());
+            slice = productService.toSlice(page, sortField);
+        }
+        List<Product> listProducts = slice.content();
 
         model.addAttribute("currentPage", pageNum);
-        model.addAttribute("totalPages", page.getTotalPages());
-        model.addAttribute("totalItems", page.getTotalElements());
+        model.addAttribute("hasNext", slice.hasNext());
+        model.addAttribute("nextAfter", slice.nextAfter());
+        model.addAttribute("nextAfterId", slice.nextAfterId());
 
         model.addAttribute("sortField", sortField);
         model.addAttribute("sortDir", sortDir);
@@ -72,6 +92,26 @@ public class ProductController {
         return "products";
     }
 
+    /**
+     * Exibe os produtos encontrados por uma busca textual, do mais para o menos relevante.
+     *
+     * @param model o modelo para a view
+     * @param q o texto da busca
+     * @param page o número da página a ser exibida
+     * @return o nome da view com os resultados da busca
+     */
+    @RequestMapping("/products/search")
+    public String searchProducts(Model model, @RequestParam(defaultValue = "") String q,
+                                 @RequestParam(defaultValue = "1") int page) {
+        Page<Product> result = productSearchService.search(q, Math.max(page, 1));
+        model.addAttribute("query", q);
+        model.addAttribute("currentPage", result.getNumber() + 1);
+        model.addAttribute("totalPages", result.getTotalPages());
+        model.addAttribute("totalItems", result.getTotalElements());
+        model.addAttribute("product", result.getContent());
+        return "product_search";
+    }
+
     /**
      * Exibe a página para criação de um novo produto.
      *
@@ -87,6 +127,8 @@ public class ProductController {
 
     /**
      * Salva um produto no banco de dados.
+     * Se o produto foi alterado por outro usuário desde que o formulário foi aberto,
+     * o formulário é exibido novamente com o conflito.
      *
      * @param product o produto a ser salvo
      * @param result o resultado da validação do formulário
@@ -101,7 +143,13 @@ public class ProductController {
                 return "new_product";
             }
         }
-        productService.save(product);
+        try {
+            productService.save(product);
+        } catch (OptimisticLockingFailureException e) {
+            result.reject("product.conflict", "This product was changed by another user at the same time. "
+                    + "Reload the product to see the latest version.");
+            return "edit_product";
+        }
         attr.addFlashAttribute("message", "Product saved successfully");
         return "redirect:/products";
     }
@@ -0,0 +1,89 @@
+package com.example.springdatapoo.controller;
+
+import com.example.springdatapoo.dto.SalesTotal;
+import com.example.springdatapoo.service.OrderLineQuery;
+import com.example.springdatapoo.service.OrderLineSnapshotService;
+import com.example.springdatapoo.service.SalesAnalyticsService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Controlador dos relatórios de vendas.
+ * Exibe os totais mantidos em memória pelo serviço de análise de vendas, sem consultar os itens de Pedido.
+ */
+@Controller
+public class ReportController {
+
+    private static final int MAX_TOP = 100;
+    private static final int MAX_DAYS = 366;
+    private static final int MAX_GROUPS = 10000;
+
+    private final SalesAnalyticsService salesAnalyticsService;
+    private final OrderLineSnapshotService orderLineSnapshotService;
+
+    /**
+     * Construtor da classe ReportController
+     *
+     * @param salesAnalyticsService o serviço de análise de vendas
+     * @param orderLineSnapshotService o serviço do snapshot colunar das linhas de Pedido
+     */
+    public ReportController(SalesAnalyticsService salesAnalyticsService,
+                            OrderLineSnapshotService orderLineSnapshotService) {
+        this.salesAnalyticsService = salesAnalyticsService;
+        this.orderLineSnapshotService = orderLineSnapshotService;
+    }
+
+    /**
+     * Exibe o painel de vendas: totais gerais, Clientes e Produtos de maior receita e receita diária
+     *
+     * @param model o modelo para a view
+     * @param top o número de Clientes e de Produtos exibidos
+     * @param days o número de dias da receita diária, terminando hoje
+     * @return o nome da view do painel de vendas
+     */
+    @RequestMapping("/reports")
+    public String viewReports(Model model, @RequestParam(defaultValue = "10") int top,
+                              @RequestParam(defaultValue = "30") int days) {
+        int topLimit = Math.max(1, Math.min(top, MAX_TOP));
+        int dayLimit = Math.max(1, Math.min(days, MAX_DAYS));
+        LocalDate today = LocalDate.now();
+
+        model.addAttribute("summary", salesAnalyticsService.summary());
+        model.addAttribute("topClients", salesAnalyticsService.topClients(topLimit));
+        model.addAttribute("topProducts", salesAnalyticsService.topProducts(topLimit));
+        model.addAttribute("dailyRevenue", salesAnalyticsService.dailyRevenue(today.minusDays(dayLimit - 1L), today));
+        return "reports";
+    }
+
+    /**
+     * Agrega as linhas de Pedido em memória, com filtros opcionais, e retorna os totais em JSON
+     * Por exemplo, a receita por Produto em um período ou o histograma de quantidades de um Cliente.
+     *
+     * @param groupBy o agrupamento: NONE, CLIENT, PRODUCT, DAY ou QUANTITY
+     * @param clientId apenas Pedidos deste Cliente, se informado
+     * @param productId apenas linhas deste Produto, se informado
+     * @param from apenas Pedidos criados a partir deste dia, se informado
+     * @param to apenas Pedidos criados até este dia, se informado
+     * @param limit o número máximo de grupos retornados
+     * @return os totais de cada grupo
+     */
+    @GetMapping("/reports/lines")
+    @ResponseBody
+    public List<SalesTotal> aggregateLines(@RequestParam(defaultValue = "PRODUCT") OrderLineQuery.GroupBy groupBy,
+                                           @RequestParam(required = false) Long clientId,
+                                           @RequestParam(required = false) Long productId,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                           @RequestParam(defaultValue = "100") int limit) {
+        OrderLineQuery query = new OrderLineQuery(groupBy, clientId, productId, from, to);
+        return orderLineSnapshotService.aggregate(query, Math.max(1, Math.min(limit, MAX_GROUPS)));
+    }
+}
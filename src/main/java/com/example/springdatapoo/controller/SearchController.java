@@ -0,0 +1,54 @@
+package com.example.springdatapoo.controller;
+
+import com.example.springdatapoo.dto.SearchOption;
+import com.example.springdatapoo.service.SearchService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Controlador da busca de Produtos e Clientes por prefixo.
+ * Responde em JSON às buscas feitas pelo formulário de Pedidos enquanto o usuário digita.
+ */
+@RestController
+public class SearchController {
+
+    private final SearchService searchService;
+
+    /**
+     * Construtor da classe SearchController
+     *
+     * @param searchService o serviço de busca
+     */
+    public SearchController(SearchService searchService) {
+        this.searchService = searchService;
+    }
+
+    /**
+     * Busca Produtos pelo início de uma palavra do nome
+     *
+     * @param q     o texto digitado
+     * @param limit o número máximo de resultados
+     * @return os Produtos encontrados
+     */
+    @GetMapping("/api/products/search")
+    public List<SearchOption> searchProducts(@RequestParam(defaultValue = "") String q,
+                                             @RequestParam(defaultValue = "10") int limit) {
+        return searchService.searchProducts(q, limit);
+    }
+
+    /**
+     * Busca Clientes pelo início de uma palavra do nome ou do email
+     *
+     * @param q     o texto digitado
+     * @param limit o número máximo de resultados
+     * @return os Clientes encontrados
+     */
+    @GetMapping("/api/clients/search")
+    public List<SearchOption> searchClients(@RequestParam(defaultValue = "") String q,
+                                            @RequestParam(defaultValue = "10") int limit) {
+        return searchService.searchClients(q, limit);
+    }
+}
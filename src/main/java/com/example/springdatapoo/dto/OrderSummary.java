@@ -0,0 +1,55 @@
+package com.example.springdatapoo.dto;
+
+import com.example.springdatapoo.model.Money;
+import lombok.Value;
+
+/**
+ * Projeção de um Pedido para a listagem de Pedidos
+ * Contém apenas as colunas exibidas, lidas em uma única consulta junto com o nome do Cliente,
+ * sem carregar as entidades Order e Client.
+ */
+@Value
+public class OrderSummary {
+
+    /**
+     * Identificador único do Pedido
+     */
+    Long id;
+
+    /**
+     * Identificador do Cliente do Pedido
+     */
+    Long clientId;
+
+    /**
+     * Nome do Cliente do Pedido
+     */
+    String clientName;
+
+    /**
+     * Preço total do Pedido
+     */
+    Money totalPrice;
+
+    /**
+     * Número de dias para a entrega do Pedido
+     */
+    Long deliveryDays;
+
+    /**
+     * Retorna o valor usado como cursor na paginação por chave
+     *
+     * @param sortField o campo de ordenação da listagem
+     * @return o valor do campo; para "client", o ID do Cliente
+     * @throws IllegalArgumentException se o campo não puder ser usado na ordenação
+     */
+    public Object sortValue(String sortField) {
+        return switch (sortField) {
+            case "id" -> id;
+            case "client" -> clientId;
+            case "totalPrice" -> totalPrice;
+            case "deliveryDays" -> deliveryDays;
+            default -> throw new IllegalArgumentException("Unknown sort field: " + sortField);
+        };
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.springdatapoo.dto;
+
+import com.example.springdatapoo.model.Money;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projeção de um item de Pedido para a reconstrução dos agregados de vendas
+ * Contém apenas os IDs, a quantidade e o preço, lidos em uma única consulta por junção.
+ */
+@Value
+public class SalesLine {
+
+    /**
+     * Identificador do Pedido
+     */
+    Long orderId;
+
+    /**
+     * Identificador do Cliente do Pedido
+     */
+    Long clientId;
+
+    /**
+     * Data e hora de criação do Pedido
+     */
+    LocalDateTime createdAt;
+
+    /**
+     * Identificador do Produto, ou null se o Pedido não tiver itens
+     */
+    Long productId;
+
+    /**
+     * Quantidade do Produto, ou null se o Pedido não tiver itens
+     */
+    Integer quantity;
+
+    /**
+     * Preço unitário gravado no item, ou null se o Pedido não tiver itens
+     */
+    Money price;
+}
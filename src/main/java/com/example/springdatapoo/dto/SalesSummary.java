@@ -0,0 +1,56 @@
+package com.example.springdatapoo.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Totais gerais de vendas para o painel de relatórios
+ */
+@Value
+public class SalesSummary {
+
+    /**
+     * Número de Pedidos
+     */
+    long orders;
+
+    /**
+     * Receita total, em centavos
+     */
+    long revenueCents;
+
+    /**
+     * Quantidade total de itens vendidos
+     */
+    long quantity;
+
+    /**
+     * Retorna a receita total em reais, com duas casas decimais
+     *
+     * @return a receita total
+     */
+    public BigDecimal getRevenue() {
+        return BigDecimal.valueOf(revenueCents, 2);
+    }
+
+    /**
+     * Retorna o valor médio de um Pedido
+     *
+     * @return o valor médio, ou zero se não houver Pedidos
+     */
+    public BigDecimal getAverageOrderValue() {
+        return orders == 0 ? BigDecimal.ZERO : getRevenue().divide(BigDecimal.valueOf(orders), 2, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Retorna a quantidade média de itens por Pedido
+     *
+     * @return a quantidade média, ou zero se não houver Pedidos
+     */
+    public BigDecimal getAverageItemsPerOrder() {
+        return orders == 0 ? BigDecimal.ZERO
+                : BigDecimal.valueOf(quantity).divide(BigDecimal.valueOf(orders), 2, RoundingMode.HALF_UP);
+    }
+}
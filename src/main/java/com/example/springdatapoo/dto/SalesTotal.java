@@ -0,0 +1,46 @@
+package com.example.springdatapoo.dto;
+
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * Linha de um relatório de vendas: os totais de um Cliente, de um Produto ou de um dia
+ */
+@Value
+public class SalesTotal {
+
+    /**
+     * Identificador do Cliente ou do Produto, ou o dia em dias desde 1970-01-01
+     */
+    long key;
+
+    /**
+     * Nome do Cliente ou do Produto, ou a data
+     */
+    String label;
+
+    /**
+     * Receita, em centavos
+     */
+    long revenueCents;
+
+    /**
+     * Quantidade de itens vendidos
+     */
+    long quantity;
+
+    /**
+     * Número de Pedidos
+     */
+    long orders;
+
+    /**
+     * Retorna a receita em reais, com duas casas decimais
+     *
+     * @return a receita
+     */
+    public BigDecimal getRevenue() {
+        return BigDecimal.valueOf(revenueCents, 2);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.springdatapoo.dto;
+
+import lombok.Value;
+
+/**
+ * Opção retornada pela busca de Produtos e Clientes do formulário de Pedidos
+ * Contém apenas o necessário para exibir a sugestão e preencher o campo escolhido.
+ */
+@Value
+public class SearchOption {
+
+    /**
+     * Identificador da entidade encontrada
+     */
+    Long id;
+
+    /**
+     * Texto principal da sugestão (o nome)
+     */
+    String label;
+
+    /**
+     * Texto complementar da sugestão (o preço do Produto ou o email do Cliente)
+     */
+    String detail;
+}
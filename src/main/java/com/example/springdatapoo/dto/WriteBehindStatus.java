@@ -0,0 +1,75 @@
+package com.example.springdatapoo.dto;
+
+import lombok.Value;
+
+/**
+ * Situação da fila de gravação posterior de Pedidos
+ */
+@Value
+public class WriteBehindStatus {
+
+    /**
+     * Se a gravação posterior está habilitada
+     */
+    boolean enabled;
+
+    /**
+     * Se a thread de gravação está em execução
+     */
+    boolean running;
+
+    /**
+     * Número de Pedidos aguardando na fila
+     */
+    int queued;
+
+    /**
+     * Número máximo de Pedidos na fila
+     */
+    int capacity;
+
+    /**
+     * Número máximo de Pedidos gravados por transação
+     */
+    int batchSize;
+
+    /**
+     * Número de Pedidos aceitos desde o início da aplicação
+     */
+    long submitted;
+
+    /**
+     * Número de Pedidos recusados com a fila cheia
+     */
+    long rejected;
+
+    /**
+     * Número de Pedidos gravados no banco
+     */
+    long saved;
+
+    /**
+     * Número de Pedidos descartados por erro na gravação
+     */
+    long failed;
+
+    /**
+     * Número de lotes gravados
+     */
+    long batches;
+
+    /**
+     * Número de Pedidos do último lote
+     */
+    int lastBatchSize;
+
+    /**
+     * Mensagem do último erro de gravação, ou null
+     */
+    String lastError;
+
+    /**
+     * Tamanho atual do arquivo de Pedidos pendentes, em bytes
+     */
+    long journalBytes;
+}
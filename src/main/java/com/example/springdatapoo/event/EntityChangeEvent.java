@@ -0,0 +1,44 @@
+package com.example.springdatapoo.event;
+
+/**
+ * Evento publicado pelos serviços quando uma entidade é criada, alterada ou excluída
+ * Os interessados devem escutá-lo com @TransactionalEventListener,
+ * para reagir apenas depois que a transação for confirmada.
+ * O MutationJournalListener é a exceção: registra o evento no journal antes da confirmação.
+ *
+ * @param type   a classe da entidade
+ * @param id     o ID da entidade
+ * @param entity a entidade salva, ou null em exclusões
+ * @param kind   o tipo de alteração
+ */
+public record EntityChangeEvent(Class<?> type, Long id, Object entity, Kind kind) {
+
+    /**
+     * Tipos de alteração
+     */
+    public enum Kind { CREATED, UPDATED, DELETED }
+
+    /**
+     * Cria o evento de gravação de uma entidade
+     *
+     * @param type    a classe da entidade
+     * @param id      o ID da entidade
+     * @param entity  a entidade salva
+     * @param created true se a entidade foi criada, false se foi alterada
+     * @return o evento
+     */
+    public static EntityChangeEvent saved(Class<?> type, Long id, Object entity, boolean created) {
+        return new EntityChangeEvent(type, id, entity, created ? Kind.CREATED : Kind.UPDATED);
+    }
+
+    /**
+     * Cria o evento de exclusão de uma entidade
+     *
+     * @param type a classe da entidade
+     * @param id   o ID da entidade excluída
+     * @return o evento
+     */
+    public static EntityChangeEvent deleted(Class<?> type, Long id) {
+        return new EntityChangeEvent(type, id, null, Kind.DELETED);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.springdatapoo.event;
+
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Evento publicado pelo serviço de Pedidos quando um Pedido é criado, alterado ou excluído
+ * Carrega o estado do Pedido antes e depois da alteração, para que os interessados
+ * possam aplicar apenas a diferença em vez de recalcular a partir do banco.
+ * Deve ser escutado com @TransactionalEventListener, para reagir apenas depois da confirmação.
+ *
+ * @param orderId o ID do Pedido
+ * @param before  o estado anterior, ou null se o Pedido foi criado
+ * @param after   o novo estado, ou null se o Pedido foi excluído
+ */
+public record OrderChangeEvent(Long orderId, Snapshot before, Snapshot after) {
+
+    /**
+     * Estado de um Pedido em um momento
+     *
+     * @param clientId o ID do Cliente, ou null se não houver
+     * @param day      o dia de criação do Pedido, ou null se desconhecido
+     * @param lines    os itens do Pedido
+     */
+    public record Snapshot(Long clientId, LocalDate day, List<Line> lines) {
+
+        /**
+         * Copia o estado de um Pedido e de seus itens
+         * Os valores são copiados, e não referenciados, para que alterações posteriores
+         * nas entidades não mudem o estado registrado.
+         *
+         * @param order o Pedido
+         * @param items os itens do Pedido, com os Produtos carregados
+         * @return o estado do Pedido
+         */
+        public static Snapshot of(Order order, List<OrderItem> items) {
+            List<Line> lines = new ArrayList<>(items.size());
+            for (OrderItem item : items) {
+                if (item.getProduct() != null) {
+                    lines.add(new Line(item.getProduct().getId(), item.getQuantity(),
+                            item.effectiveUnitPrice().getCents()));
+                }
+            }
+            return new Snapshot(order.getClient() == null ? null : order.getClient().getId(),
+                    order.getCreatedAt() == null ? null : order.getCreatedAt().toLocalDate(),
+                    List.copyOf(lines));
+        }
+    }
+
+    /**
+     * Item de um Pedido
+     *
+     * @param productId      o ID do Produto
+     * @param quantity       a quantidade
+     * @param unitPriceCents o preço unitário gravado no item, em centavos
+     */
+    public record Line(long productId, int quantity, long unitPriceCents) {
+    }
+}
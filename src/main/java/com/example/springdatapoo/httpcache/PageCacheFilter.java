@@ -0,0 +1,152 @@
+package com.example.springdatapoo.httpcache;
+
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.service.TableVersionService;
+import com.github.benmanes.caffeine.cache.Cache;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.support.SessionFlashMapManager;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Respostas condicionais e cache das páginas de listagem e edição
+ * A ETag de cada página vem das versões das tabelas que ela exibe, mantidas em memória;
+ * um GET com If-None-Match ainda válido recebe 304 sem consultar o banco nem renderizar o template.
+ * Não é enviado Last-Modified: com a precisão de segundos do cabeçalho, uma alteração no mesmo segundo
+ * da resposta anterior passaria despercebida por um If-Modified-Since, que receberia um 304 desatualizado.
+ * As páginas renderizadas são guardadas por ETag e endereço, e servidas sem passar pelo controlador
+ * enquanto nenhuma das tabelas for alterada.
+ * Requisições com mensagens flash pendentes na sessão não são cacheadas, para que a mensagem seja exibida uma única vez,
+ * e as tabelas alteradas há menos que o tempo de acomodação (a defasagem tolerada da réplica de leitura)
+ * também não, para não guardar uma página lida de uma réplica ainda desatualizada.
+ */
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    private static final String FLASH_MAPS_ATTRIBUTE = SessionFlashMapManager.class.getName() + ".FLASH_MAPS";
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    /**
+     * Páginas cacheáveis e as tabelas que cada uma exibe
+     */
+    private static final List<PageRule> RULES = List.of(
+            new PageRule(Pattern.compile("/products(_page/\\d+|/edit/\\d+)?"), Product.class),
+            new PageRule(Pattern.compile("/clients(_page/\\d+|/edit/\\d+)?"), Client.class),
+            new PageRule(Pattern.compile("/orders(_page/\\d+)?"), Order.class, Client.class),
+            new PageRule(Pattern.compile("/orders/edit/\\d+"), Order.class, Client.class, Product.class));
+
+    /**
+     * Página cacheável
+     *
+     * @param path   o padrão do caminho da página
+     * @param tables as classes das entidades exibidas pela página
+     */
+    private record PageRule(Pattern path, Class<?>... tables) {
+    }
+
+    /**
+     * Página renderizada
+     *
+     * @param contentType o tipo de conteúdo da resposta
+     * @param body        o corpo da resposta
+     */
+    public record CachedPage(String contentType, byte[] body) {
+    }
+
+    private final TableVersionService tableVersionService;
+    private final Cache<String, CachedPage> pages;
+    private final long settleMillis;
+
+    /**
+     * Construtor da classe PageCacheFilter
+     *
+     * @param tableVersionService o serviço com as versões das tabelas
+     * @param pages               o cache das páginas renderizadas
+     * @param settleMillis        o tempo, após uma alteração, durante o qual as páginas das tabelas alteradas não são cacheadas
+     */
+    public PageCacheFilter(TableVersionService tableVersionService, Cache<String, CachedPage> pages, long settleMillis) {
+        this.tableVersionService = tableVersionService;
+        this.pages = pages;
+        this.settleMillis = settleMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Class<?>[] tables = "GET".equals(request.getMethod()) ? tablesOf(path) : null;
+        if (tables == null || hasFlashMaps(request)
+                || System.currentTimeMillis() - tableVersionService.lastModified(tables) < settleMillis) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        String etag = tableVersionService.etag(tables);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            return;
+        }
+
+        String key = etag + ' ' + path + (request.getQueryString() == null ? "" : '?' + request.getQueryString());
+        CachedPage page = pages.getIfPresent(key);
+        if (page != null) {
+            response.setContentType(page.contentType());
+            response.setContentLength(page.body().length);
+            response.getOutputStream().write(page.body());
+            return;
+        }
+
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpServletResponse.SC_OK && wrapper.getContentType() != null
+                    && !wrapper.containsHeader(HttpHeaders.SET_COOKIE)) {
+                pages.put(key, new CachedPage(wrapper.getContentType(), wrapper.getContentAsByteArray()));
+            }
+        } finally {
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    /**
+     * Procura as tabelas exibidas por uma página
+     *
+     * @param path o caminho da requisição
+     * @return as classes das entidades exibidas, ou null se a página não for cacheável
+     */
+    private static Class<?>[] tablesOf(String path) {
+        for (PageRule rule : RULES) {
+            if (rule.path().matcher(path).matches()) {
+                return rule.tables();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indica se há mensagens flash aguardando exibição na sessão
+     *
+     * @param request a requisição
+     * @return true se houver mensagens flash pendentes
+     */
+    private static boolean hasFlashMaps(HttpServletRequest request) {
+        HttpSession session = request.getSession(false);
+        return session != null
+                && session.getAttribute(FLASH_MAPS_ATTRIBUTE) instanceof Collection<?> flashMaps
+                && !flashMaps.isEmpty();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.springdatapoo.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Leitor de arquivos CSV linha a linha
+ * Lê uma linha por vez do Reader, sem carregar o arquivo inteiro em memória.
+ * Suporta campos entre aspas, aspas escapadas ("") e quebras de linha dentro de campos.
+ */
+public class CsvReader implements Closeable {
+
+    private final Reader reader;
+    private final char separator;
+    private long lineNumber = 1;
+    private long rowLineNumber;
+
+    /**
+     * Construtor da classe CsvReader
+     *
+     * @param reader    o Reader de origem, preferencialmente com buffer
+     * @param separator o separador de campos
+     */
+    public CsvReader(Reader reader, char separator) {
+        this.reader = reader;
+        this.separator = separator;
+    }
+
+    /**
+     * Lê a próxima linha do arquivo
+     *
+     * @return a lista de campos da linha, ou null ao final do arquivo
+     * @throws IOException se houver erro de leitura ou um campo entre aspas não for fechado
+     */
+    public List<String> readRow() throws IOException {
+        int c = reader.read();
+        if (c == -1) {
+            return null;
+        }
+        rowLineNumber = lineNumber;
+        List<String> row = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Unterminated quoted field starting at line " + rowLineNumber);
+                }
+                if (c == '"') {
+                    int next = reader.read();
+                    if (next != '"') {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                    field.append('"');
+                } else {
+                    if (c == '\n') {
+                        lineNumber++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == separator) {
+                row.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                row.add(field.toString());
+                lineNumber++;
+                return row;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = reader.read();
+        }
+    }
+
+    /**
+     * Retorna o número da linha do arquivo em que começa a última linha lida
+     *
+     * @return o número da linha, começando em 1
+     */
+    public long getRowLineNumber() {
+        return rowLineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
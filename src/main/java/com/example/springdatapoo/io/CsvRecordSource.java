@@ -0,0 +1,91 @@
+package com.example.springdatapoo.io;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fonte de registros a partir de um arquivo CSV com cabeçalho
+ * Quando uma coluna de agrupamento é informada, linhas consecutivas com o mesmo valor
+ * nessa coluna formam um único registro, e cada linha vira um sub-registro.
+ */
+public class CsvRecordSource implements RecordSource {
+
+    private final CsvReader csvReader;
+    private final String groupBy;
+    private final List<String> header;
+    private Map<String, String> pendingRow;
+    private long pendingLine;
+
+    /**
+     * Construtor da classe CsvRecordSource
+     *
+     * @param csvReader o leitor CSV posicionado no início do arquivo
+     * @param groupBy   a coluna de agrupamento, ou null para um registro por linha
+     * @throws IOException se o cabeçalho não puder ser lido
+     */
+    public CsvRecordSource(CsvReader csvReader, String groupBy) throws IOException {
+        this.csvReader = csvReader;
+        this.groupBy = groupBy;
+        List<String> headerRow = csvReader.readRow();
+        if (headerRow == null) {
+            throw new IOException("CSV file is empty.");
+        }
+        this.header = headerRow.stream().map(String::trim).toList();
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        Map<String, String> first = pendingRow != null ? pendingRow : readRow();
+        long firstLine = pendingRow != null ? pendingLine : csvReader.getRowLineNumber();
+        pendingRow = null;
+        if (first == null) {
+            return null;
+        }
+        if (groupBy == null) {
+            return new ImportRecord(firstLine, first, List.of());
+        }
+
+        List<Map<String, String>> children = new ArrayList<>();
+        children.add(first);
+        String key = first.get(groupBy);
+        Map<String, String> row;
+        while ((row = readRow()) != null) {
+            if (key == null || !key.equals(row.get(groupBy))) {
+                pendingRow = row;
+                pendingLine = csvReader.getRowLineNumber();
+                break;
+            }
+            children.add(row);
+        }
+        return new ImportRecord(firstLine, first, children);
+    }
+
+    /**
+     * Lê a próxima linha não vazia e associa seus valores às colunas do cabeçalho
+     *
+     * @return o mapa coluna-valor da linha, ou null ao final do arquivo
+     * @throws IOException se houver erro de leitura
+     */
+    private Map<String, String> readRow() throws IOException {
+        List<String> values;
+        while ((values = csvReader.readRow()) != null) {
+            if (values.size() == 1 && values.get(0).isBlank()) {
+                continue;
+            }
+            Map<String, String> row = new HashMap<>(header.size() * 2);
+            for (int i = 0; i < header.size() && i < values.size(); i++) {
+                row.put(header.get(i), values.get(i));
+            }
+            return row;
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        csvReader.close();
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.springdatapoo.io;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Escritor de linhas CSV
+ * Campos que contêm o separador, aspas ou quebras de linha são escritos entre aspas.
+ */
+public class CsvWriter {
+
+    private final Writer writer;
+    private final char separator;
+
+    /**
+     * Construtor da classe CsvWriter
+     *
+     * @param writer    o Writer de destino, preferencialmente com buffer
+     * @param separator o separador de campos
+     */
+    public CsvWriter(Writer writer, char separator) {
+        this.writer = writer;
+        this.separator = separator;
+    }
+
+    /**
+     * Escreve uma linha
+     *
+     * @param values os valores da linha; valores nulos são escritos como campos vazios
+     * @throws IOException se houver erro de escrita
+     */
+    public void writeRow(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(separator);
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writeField(value.toString());
+            }
+        }
+        writer.write('\n');
+    }
+
+    /**
+     * Escreve um campo, entre aspas quando necessário
+     *
+     * @param field o texto do campo
+     * @throws IOException se houver erro de escrita
+     */
+    private void writeField(String field) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < field.length() && !quote; i++) {
+            char c = field.charAt(i);
+            quote = c == separator || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            writer.write(field);
+            return;
+        }
+        writer.write('"');
+        writer.write(field.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    /**
+     * Envia ao destino os dados ainda em buffer
+     *
+     * @throws IOException se houver erro de escrita
+     */
+    public void flush() throws IOException {
+        writer.flush();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.springdatapoo.io;
+
+import com.example.springdatapoo.model.Money;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registro lido de um arquivo de importação
+ *
+ * @param number   a posição do registro no arquivo (linha no CSV, ordem no JSON)
+ * @param fields   os campos do registro
+ * @param children os sub-registros, como os itens de um Pedido
+ */
+public record ImportRecord(long number, Map<String, String> fields, List<Map<String, String>> children) {
+
+    /**
+     * Retorna o valor de um campo obrigatório
+     *
+     * @param name o nome do campo
+     * @return o valor do campo, sem espaços nas pontas
+     * @throws IllegalArgumentException se o campo estiver ausente ou vazio
+     */
+    public String required(String name) {
+        return required(fields, name);
+    }
+
+    /**
+     * Retorna o valor de um campo obrigatório de um mapa de campos
+     *
+     * @param fields o mapa de campos
+     * @param name   o nome do campo
+     * @return o valor do campo, sem espaços nas pontas
+     * @throws IllegalArgumentException se o campo estiver ausente ou vazio
+     */
+    public static String required(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Field '" + name + "' is required.");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Converte um campo obrigatório para long
+     *
+     * @param fields o mapa de campos
+     * @param name   o nome do campo
+     * @return o valor convertido
+     * @throws IllegalArgumentException se o campo estiver ausente ou não for um número inteiro
+     */
+    public static long requiredLong(Map<String, String> fields, String name) {
+        String value = required(fields, name);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Field '" + name + "' must be an integer: " + value);
+        }
+    }
+
+    /**
+     * Converte um campo obrigatório para double
+     *
+     * @param fields o mapa de campos
+     * @param name   o nome do campo
+     * @return o valor convertido
+     * @throws IllegalArgumentException se o campo estiver ausente ou não for um número
+     */
+    public static double requiredDouble(Map<String, String> fields, String name) {
+        String value = required(fields, name);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Field '" + name + "' must be a number: " + value);
+        }
+    }
+
+    /**
+     * Converte um campo obrigatório para valor monetário, com ponto como separador decimal
+     *
+     * @param fields o mapa de campos
+     * @param name   o nome do campo
+     * @return o valor convertido
+     * @throws IllegalArgumentException se o campo estiver ausente ou não for um valor válido
+     */
+    public static Money requiredMoney(Map<String, String> fields, String name) {
+        String value = required(fields, name);
+        try {
+            return Money.valueOf(value);
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Field '" + name + "' must be an amount: " + value);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.springdatapoo.io;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fonte de registros a partir de um arquivo JSON
+ * Aceita tanto um array de objetos quanto objetos separados por linha (NDJSON).
+ * Cada objeto é lido individualmente, sem carregar o documento inteiro em memória.
+ * Campos escalares viram campos do registro e o array "items" vira a lista de sub-registros.
+ */
+public class JsonRecordSource implements RecordSource {
+
+    /**
+     * Nome do campo que contém os sub-registros
+     */
+    public static final String CHILDREN_FIELD = "items";
+
+    private final JsonParser parser;
+    private boolean started;
+    private boolean insideArray;
+    private long count;
+
+    /**
+     * Construtor da classe JsonRecordSource
+     *
+     * @param parser o parser JSON com um ObjectCodec configurado
+     */
+    public JsonRecordSource(JsonParser parser) {
+        this.parser = parser;
+    }
+
+    @Override
+    public ImportRecord next() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (!started) {
+            started = true;
+            if (token == JsonToken.START_ARRAY) {
+                insideArray = true;
+                token = parser.nextToken();
+            }
+        }
+        if (token == null || (insideArray && token == JsonToken.END_ARRAY)) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object at record " + (count + 1) + " but found " + token);
+        }
+
+        JsonNode node = parser.readValueAsTree();
+        count++;
+        List<Map<String, String>> children = new ArrayList<>();
+        JsonNode items = node.get(CHILDREN_FIELD);
+        if (items != null && items.isArray()) {
+            for (JsonNode item : items) {
+                children.add(scalarFields(item));
+            }
+        }
+        return new ImportRecord(count, scalarFields(node), children);
+    }
+
+    /**
+     * Extrai os campos escalares de um objeto JSON como texto
+     *
+     * @param node o objeto JSON
+     * @return o mapa campo-valor
+     */
+    private static Map<String, String> scalarFields(JsonNode node) {
+        Map<String, String> fields = new HashMap<>();
+        node.fields().forEachRemaining(entry -> {
+            if (entry.getValue().isValueNode() && !entry.getValue().isNull()) {
+                fields.put(entry.getKey(), entry.getValue().asText());
+            }
+        });
+        return fields;
+    }
+
+    @Override
+    public void close() throws IOException {
+        parser.close();
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.springdatapoo.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Fonte de registros de importação lidos sob demanda
+ */
+public interface RecordSource extends Closeable {
+
+    /**
+     * Lê o próximo registro
+     *
+     * @return o próximo registro, ou null ao final da fonte
+     * @throws IOException se houver erro de leitura ou de formato
+     */
+    ImportRecord next() throws IOException;
+}
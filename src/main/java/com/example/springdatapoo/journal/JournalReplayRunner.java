@@ -0,0 +1,272 @@
+package com.example.springdatapoo.journal;
+
+import com.example.springdatapoo.config.IdGeneratorInitializer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Ferramenta de reprocessamento do journal de alterações, executada ao iniciar a aplicação com
+ * --app.journal.replay=verify ou --app.journal.replay=rebuild
+ * Em ambos os modos, apenas o último registro de cada entidade é considerado.
+ * verify compara o estado registrado com o banco e termina com código 1 se houver diferenças;
+ * rebuild grava no banco o estado registrado, inserindo ou atualizando as entidades salvas
+ * e excluindo as excluídas, e termina com código 0.
+ * rebuild usa o insert ... on duplicate key update com alias de linha do MySQL 8.0.19 ou posterior,
+ * e por isso só funciona no MySQL; verify funciona em qualquer banco.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class JournalReplayRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(JournalReplayRunner.class);
+    private static final int MAX_REPORTED = 20;
+
+    private final MutationJournal journal;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdGeneratorInitializer idGeneratorInitializer;
+    private final ConfigurableApplicationContext context;
+    private final String mode;
+
+    /**
+     * Construtor da classe JournalReplayRunner
+     *
+     * @param journal                o journal de alterações
+     * @param jdbcTemplate           o template JDBC para leitura e gravação direta das tabelas
+     * @param transactionTemplate    o template para gravar a reconstrução em uma transação
+     * @param idGeneratorInitializer o inicializador da tabela id_generator, ajustada depois da reconstrução
+     * @param context                o contexto da aplicação, encerrado ao final
+     * @param mode                   o modo de reprocessamento: verify, rebuild ou vazio para não reprocessar
+     */
+    public JournalReplayRunner(MutationJournal journal,
+                               JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               IdGeneratorInitializer idGeneratorInitializer,
+                               ConfigurableApplicationContext context,
+                               @Value("${app.journal.replay:}") String mode) {
+        this.journal = journal;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.idGeneratorInitializer = idGeneratorInitializer;
+        this.context = context;
+        this.mode = mode;
+    }
+
+    /**
+     * Executa o modo de reprocessamento configurado e encerra a aplicação
+     *
+     * @param args os argumentos da aplicação
+     * @throws IllegalArgumentException se o modo for desconhecido
+     * @throws IllegalStateException    se o journal estiver desabilitado
+     */
+    @Override
+    public void run(ApplicationArguments args) {
+        if (mode.isBlank()) {
+            return;
+        }
+        if (!journal.isEnabled()) {
+            throw new IllegalStateException("The journal is disabled; set app.journal.enabled=true to replay it");
+        }
+        List<MutationRecord> records = latestRecords();
+        int exitCode = switch (mode) {
+            case "verify" -> {
+                int differences = verify(records);
+                log.info("Journal verification checked {} entities, {} differences", records.size(), differences);
+                yield differences == 0 ? 0 : 1;
+            }
+            case "rebuild" -> {
+                transactionTemplate.executeWithoutResult(status -> rebuild(records));
+                idGeneratorInitializer.adjust();
+                log.info("Database rebuilt from the journal with {} entities", records.size());
+                yield 0;
+            }
+            default -> throw new IllegalArgumentException("Unknown journal replay mode: " + mode);
+        };
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+
+    /**
+     * Lê o último registro de cada entidade do journal
+     *
+     * @return os registros, em ordem de sequência
+     */
+    private List<MutationRecord> latestRecords() {
+        Map<Long, MutationRecord> latest = new HashMap<>();
+        journal.forEach(record -> latest.merge(record.id() << 2 | record.type().entity().ordinal(), record,
+                (current, next) -> next.sequence() >= current.sequence() ? next : current));
+        List<MutationRecord> records = new ArrayList<>(latest.values());
+        records.sort(Comparator.comparingLong(MutationRecord::sequence));
+        return records;
+    }
+
+    /**
+     * Compara o estado registrado de cada entidade com o banco
+     *
+     * @param records o último registro de cada entidade
+     * @return o número de entidades com diferenças
+     */
+    private int verify(List<MutationRecord> records) {
+        int differences = 0;
+        for (MutationRecord record : records) {
+            String difference = difference(record);
+            if (difference != null) {
+                if (differences < MAX_REPORTED) {
+                    log.warn("{} {} (journal sequence {}): {}", record.type().entity(), record.id(),
+                            record.sequence(), difference);
+                }
+                differences++;
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * Descreve a diferença entre o estado registrado de uma entidade e o banco
+     *
+     * @param record o último registro da entidade
+     * @return a descrição da diferença, ou null se o banco estiver igual ao journal
+     */
+    String difference(MutationRecord record) {
+        String table = switch (record.type().entity()) {
+            case PRODUCT -> "product";
+            case CLIENT -> "client";
+            case ORDER -> "table_order";
+        };
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList("select * from " + table + " where id = ?", record.id());
+        if (record.type().isDeletion()) {
+            return rows.isEmpty() ? null : "deleted in the journal but present in the database";
+        }
+        if (rows.isEmpty()) {
+            return "saved in the journal but missing from the database";
+        }
+        Map<String, Object> row = rows.get(0);
+        if (record.state() instanceof MutationRecord.ProductState product) {
+            if (!Objects.equals(product.name(), row.get("name"))
+                    || !Objects.equals(product.description(), row.get("description"))
+                    || product.priceCents() != cents(row.get("price"))
+                    || Math.abs(product.weight() - ((Number) row.get("weight")).doubleValue()) > 0.0005) {
+                return "expected " + product + " but found " + row;
+            }
+        } else if (record.state() instanceof MutationRecord.ClientState client) {
+            if (!Objects.equals(client.name(), row.get("name"))
+                    || !Objects.equals(client.email(), row.get("email"))
+                    || !Objects.equals(client.address(), row.get("address"))
+                    || !Objects.equals(client.cep(), row.get("cep"))) {
+                return "expected " + client + " but found " + row;
+            }
+        } else if (record.state() instanceof MutationRecord.OrderState order) {
+            Number clientId = (Number) row.get("client_id");
+            if (order.clientId() != (clientId == null ? 0 : clientId.longValue())
+                    || order.deliveryDays() != ((Number) row.get("delivery_days")).longValue()
+                    || order.totalCents() != cents(row.get("total_price"))) {
+                return "expected " + order + " but found " + row;
+            }
+            List<MutationRecord.Item> items = jdbcTemplate.query(
+                    "select i.id, i.product_id, i.quantity, coalesce(i.unit_price, p.price) as unit_price "
+                            + "from order_item i join product p on p.id = i.product_id where i.order_id = ? order by i.id",
+                    (rs, rowNum) -> new MutationRecord.Item(rs.getLong("id"), rs.getLong("product_id"), rs.getInt("quantity"),
+                            cents(rs.getBigDecimal("unit_price"))),
+                    record.id());
+            List<MutationRecord.Item> expected = new ArrayList<>(order.items());
+            expected.sort(Comparator.comparingLong(MutationRecord.Item::id));
+            if (!expected.equals(items)) {
+                return "expected items " + expected + " but found " + items;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Grava no banco o estado registrado de cada entidade
+     * Produtos e Clientes são gravados antes dos Pedidos, e as exclusões de Pedidos antes das de Produtos e Clientes,
+     * para respeitar as chaves estrangeiras.
+     * As gravações usam a sintaxe de upsert do MySQL 8.0.19 ou posterior, com alias de linha (as new),
+     * no lugar da função values(), obsoleta desde o MySQL 8.0.20.
+     *
+     * @param records o último registro de cada entidade
+     */
+    void rebuild(List<MutationRecord> records) {
+        List<Object[]> products = new ArrayList<>();
+        List<Object[]> clients = new ArrayList<>();
+        List<Object[]> orders = new ArrayList<>();
+        List<Object[]> orderIds = new ArrayList<>();
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> deletedOrders = new ArrayList<>();
+        List<Object[]> deletedProducts = new ArrayList<>();
+        List<Object[]> deletedClients = new ArrayList<>();
+        for (MutationRecord record : records) {
+            if (record.state() instanceof MutationRecord.ProductState product) {
+                products.add(new Object[]{record.id(), product.name(), product.description(),
+                        BigDecimal.valueOf(product.priceCents(), 2), product.weight()});
+            } else if (record.state() instanceof MutationRecord.ClientState client) {
+                clients.add(new Object[]{record.id(), client.name(), client.email(), client.address(), client.cep()});
+            } else if (record.state() instanceof MutationRecord.OrderState order) {
+                LocalDateTime createdAt = order.createdAtMillis() == 0 ? null
+                        : LocalDateTime.ofInstant(Instant.ofEpochMilli(order.createdAtMillis()), ZoneOffset.UTC);
+                orders.add(new Object[]{record.id(), order.clientId() == 0 ? null : order.clientId(),
+                        order.deliveryDays(), BigDecimal.valueOf(order.totalCents(), 2),
+                        createdAt == null ? null : Timestamp.valueOf(createdAt)});
+                orderIds.add(new Object[]{record.id()});
+                for (MutationRecord.Item item : order.items()) {
+                    items.add(new Object[]{item.id(), record.id(), item.productId(), item.quantity(),
+                            BigDecimal.valueOf(item.unitPriceCents(), 2)});
+                }
+            } else {
+                switch (record.type().entity()) {
+                    case ORDER -> deletedOrders.add(new Object[]{record.id()});
+                    case PRODUCT -> deletedProducts.add(new Object[]{record.id()});
+                    case CLIENT -> deletedClients.add(new Object[]{record.id()});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into product (id, name, description, price, weight) values (?, ?, ?, ?, ?) as new "
+                + "on duplicate key update name = new.name, description = new.description, "
+                + "price = new.price, weight = new.weight, version = product.version + 1", products);
+        jdbcTemplate.batchUpdate("insert into client (id, name, email, address, cep) values (?, ?, ?, ?, ?) as new "
+                + "on duplicate key update name = new.name, email = new.email, "
+                + "address = new.address, cep = new.cep", clients);
+        jdbcTemplate.batchUpdate("insert into table_order (id, client_id, delivery_days, total_price, created_at) "
+                + "values (?, ?, ?, ?, ?) as new on duplicate key update client_id = new.client_id, "
+                + "delivery_days = new.delivery_days, total_price = new.total_price, "
+                + "version = table_order.version + 1", orders);
+        jdbcTemplate.batchUpdate("delete from order_item where order_id = ?", orderIds);
+        jdbcTemplate.batchUpdate("insert into order_item (id, order_id, product_id, quantity, unit_price) "
+                + "values (?, ?, ?, ?, ?)", items);
+        jdbcTemplate.batchUpdate("delete from order_item where order_id = ?", deletedOrders);
+        jdbcTemplate.batchUpdate("delete from table_order where id = ?", deletedOrders);
+        jdbcTemplate.batchUpdate("delete from product where id = ?", deletedProducts);
+        jdbcTemplate.batchUpdate("delete from client where id = ?", deletedClients);
+    }
+
+    /**
+     * Converte um valor decimal do banco para centavos
+     *
+     * @param value o valor lido
+     * @return o valor em centavos
+     */
+    private static long cents(Object value) {
+        return value == null ? 0 : ((BigDecimal) value).movePointRight(2).longValueExact();
+    }
+}
@@ -0,0 +1,198 @@
+package com.example.springdatapoo.journal;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Arquivo de segmento do journal, mapeado em memória
+ * O segmento ativo é criado com o tamanho máximo e preenchido com zeros;
+ * os registros são copiados para o mapeamento e o fim dos registros é o primeiro cabeçalho zerado ou inválido.
+ * O nome do arquivo é a sequência do primeiro registro, para que os segmentos sejam lidos em ordem.
+ */
+final class JournalSegment implements AutoCloseable {
+
+    static final String SUFFIX = ".seg";
+
+    private final Path path;
+    private final long baseSequence;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private volatile int end;
+    private long lastSequence;
+
+    private JournalSegment(Path path, long baseSequence, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.channel = channel;
+        this.buffer = buffer;
+        this.lastSequence = baseSequence - 1;
+    }
+
+    /**
+     * Cria um segmento vazio, com o tamanho máximo, para receber novos registros
+     *
+     * @param directory    o diretório do journal
+     * @param baseSequence a sequência do primeiro registro do segmento
+     * @param size         o tamanho do arquivo em bytes
+     * @return o segmento criado, com a posição de escrita no início
+     * @throws IOException se o arquivo não puder ser criado
+     */
+    static JournalSegment create(Path directory, long baseSequence, int size) throws IOException {
+        Path path = directory.resolve(fileName(baseSequence));
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return new JournalSegment(path, baseSequence, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+    }
+
+    /**
+     * Abre um segmento existente e posiciona a escrita depois do último registro íntegro
+     * Os bytes depois desse registro, como os de um registro cortado por uma queda, são zerados.
+     *
+     * @param path     o arquivo do segmento
+     * @param writable se o segmento receberá novos registros
+     * @param consumer recebe cada registro íntegro do segmento, em ordem
+     * @return o segmento aberto
+     * @throws IOException se o arquivo não puder ser aberto
+     */
+    static JournalSegment open(Path path, boolean writable, Consumer<MutationRecord> consumer) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ);
+        MappedByteBuffer buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                0, channel.size());
+        JournalSegment segment = new JournalSegment(path, baseSequenceOf(path), channel, buffer);
+        segment.scan(consumer);
+        if (writable) {
+            for (int i = buffer.position(); i < buffer.limit(); i++) {
+                if (buffer.get(i) != 0) {
+                    buffer.put(i, (byte) 0);
+                }
+            }
+        }
+        return segment;
+    }
+
+    /**
+     * Percorre os registros do segmento a partir do início, deixando a posição depois do último registro íntegro
+     *
+     * @param consumer recebe cada registro, em ordem
+     */
+    private void scan(Consumer<MutationRecord> consumer) {
+        buffer.position(0);
+        MutationRecord record;
+        while ((record = MutationCodec.decode(buffer)) != null) {
+            lastSequence = record.sequence();
+            consumer.accept(record);
+        }
+        end = buffer.position();
+    }
+
+    /**
+     * Lê os registros do segmento até uma posição, sem alterar a posição de escrita
+     *
+     * @param end      a posição final, exclusiva
+     * @param consumer recebe cada registro, em ordem
+     */
+    void read(int end, Consumer<MutationRecord> consumer) {
+        ByteBuffer view = buffer.duplicate().position(0).limit(end);
+        MutationRecord record;
+        while ((record = MutationCodec.decode(view)) != null) {
+            consumer.accept(record);
+        }
+    }
+
+    /**
+     * Acrescenta um registro ao segmento
+     *
+     * @param record o registro
+     * @return verdadeiro se o registro coube no segmento, falso se o segmento está cheio
+     */
+    boolean append(MutationRecord record) {
+        int start = buffer.position();
+        try {
+            MutationCodec.encode(record, buffer);
+            lastSequence = record.sequence();
+            end = buffer.position();
+            return true;
+        } catch (BufferOverflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            for (int i = start; i < Math.min(buffer.limit(), start + MutationCodec.HEADER_BYTES); i++) {
+                buffer.put(i, (byte) 0);
+            }
+            buffer.position(start);
+            return false;
+        }
+    }
+
+    /**
+     * Força para o disco as páginas alteradas do segmento
+     */
+    void force() {
+        buffer.force();
+    }
+
+    /**
+     * Força para o disco as páginas de um trecho do segmento
+     *
+     * @param from a posição inicial
+     * @param to   a posição final, exclusiva
+     */
+    void force(int from, int to) {
+        if (to > from) {
+            buffer.force(from, to - from);
+        }
+    }
+
+    /**
+     * Retorna a posição depois do último registro
+     * Pode ser lida sem sincronização, por exemplo pela thread de gravação em disco.
+     *
+     * @return a posição de escrita
+     */
+    int position() {
+        return end;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long baseSequence() {
+        return baseSequence;
+    }
+
+    long lastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Monta o nome do arquivo de um segmento
+     *
+     * @param baseSequence a sequência do primeiro registro
+     * @return o nome do arquivo
+     */
+    static String fileName(long baseSequence) {
+        return String.format("%020d%s", baseSequence, SUFFIX);
+    }
+
+    /**
+     * Extrai a sequência do primeiro registro do nome do arquivo de um segmento
+     *
+     * @param path o arquivo do segmento
+     * @return a sequência
+     */
+    static long baseSequenceOf(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+}
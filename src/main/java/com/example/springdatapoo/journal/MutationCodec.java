@@ -0,0 +1,166 @@
+package com.example.springdatapoo.journal;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Codificação binária dos registros do journal
+ * Cada registro é gravado como [tamanho: int][CRC32C: int][conteúdo], e o conteúdo como
+ * [tipo: byte][sequência][instante][ID][estado], com inteiros em formato variável (LEB128)
+ * e textos como [tamanho][bytes UTF-8].
+ * Um tamanho zero marca o fim dos registros de um segmento.
+ */
+final class MutationCodec {
+
+    /**
+     * Tamanho do cabeçalho de cada registro: o tamanho e o CRC do conteúdo
+     */
+    static final int HEADER_BYTES = 8;
+
+    private MutationCodec() {
+    }
+
+    /**
+     * Codifica um registro, com cabeçalho, a partir da posição atual do buffer
+     *
+     * @param record o registro
+     * @param buffer o buffer de destino
+     * @throws BufferOverflowException se o registro não couber no espaço restante do buffer
+     */
+    static void encode(MutationRecord record, ByteBuffer buffer) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_BYTES);
+        buffer.put(record.type().code());
+        putVarLong(buffer, record.sequence());
+        putVarLong(buffer, record.timestamp());
+        putVarLong(buffer, record.id());
+        if (record.state() instanceof MutationRecord.ProductState product) {
+            putString(buffer, product.name());
+            putString(buffer, product.description());
+            putVarLong(buffer, zigZag(product.priceCents()));
+            buffer.putDouble(product.weight());
+        } else if (record.state() instanceof MutationRecord.ClientState client) {
+            putString(buffer, client.name());
+            putString(buffer, client.email());
+            putString(buffer, client.address());
+            putString(buffer, client.cep());
+        } else if (record.state() instanceof MutationRecord.OrderState order) {
+            putVarLong(buffer, order.clientId());
+            putVarLong(buffer, order.deliveryDays());
+            putVarLong(buffer, zigZag(order.totalCents()));
+            putVarLong(buffer, order.createdAtMillis());
+            putVarLong(buffer, order.items().size());
+            for (MutationRecord.Item item : order.items()) {
+                putVarLong(buffer, item.id());
+                putVarLong(buffer, item.productId());
+                putVarLong(buffer, item.quantity());
+                putVarLong(buffer, zigZag(item.unitPriceCents()));
+            }
+        }
+        int end = buffer.position();
+        int length = end - start - HEADER_BYTES;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_BYTES, length));
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    /**
+     * Decodifica o registro na posição atual do buffer, avançando a posição para o próximo registro
+     *
+     * @param buffer o buffer de origem
+     * @return o registro, ou null se a posição não contiver um registro íntegro (fim dos registros ou escrita interrompida)
+     */
+    static MutationRecord decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(start);
+        int checksum = buffer.getInt(start + 4);
+        if (length <= 0 || length > buffer.remaining() - HEADER_BYTES) {
+            return null;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(start + HEADER_BYTES, length));
+        if ((int) crc.getValue() != checksum) {
+            return null;
+        }
+        ByteBuffer content = buffer.slice(start + HEADER_BYTES, length);
+        MutationType type = MutationType.ofCode(content.get());
+        if (type == null) {
+            return null;
+        }
+        long sequence = getVarLong(content);
+        long timestamp = getVarLong(content);
+        long id = getVarLong(content);
+        MutationRecord.State state = null;
+        if (!type.isDeletion()) {
+            state = switch (type.entity()) {
+                case PRODUCT -> new MutationRecord.ProductState(getString(content), getString(content),
+                        unZigZag(getVarLong(content)), content.getDouble());
+                case CLIENT -> new MutationRecord.ClientState(getString(content), getString(content),
+                        getString(content), getString(content));
+                case ORDER -> {
+                    long clientId = getVarLong(content);
+                    long deliveryDays = getVarLong(content);
+                    long totalCents = unZigZag(getVarLong(content));
+                    long createdAt = getVarLong(content);
+                    int count = (int) getVarLong(content);
+                    List<MutationRecord.Item> items = new ArrayList<>(count);
+                    for (int i = 0; i < count; i++) {
+                        items.add(new MutationRecord.Item(getVarLong(content), getVarLong(content),
+                                (int) getVarLong(content), unZigZag(getVarLong(content))));
+                    }
+                    yield new MutationRecord.OrderState(clientId, deliveryDays, totalCents, createdAt, items);
+                }
+            };
+        }
+        buffer.position(start + HEADER_BYTES + length);
+        return new MutationRecord(sequence, timestamp, type, id, state);
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Malformed variable-length integer");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = (value == null ? "" : value).getBytes(StandardCharsets.UTF_8);
+        putVarLong(buffer, bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[(int) getVarLong(buffer)];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
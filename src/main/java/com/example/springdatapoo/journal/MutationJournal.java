@@ -0,0 +1,463 @@
+package com.example.springdatapoo.journal;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Journal binário, apenas de acréscimo, das alterações de Produtos, Clientes e Pedidos
+ * Cada alteração é registrada, com o estado completo da entidade, no segmento ativo,
+ * um arquivo mapeado em memória; quando o segmento enche, ele é selado e um novo segmento é criado.
+ * As alterações chegam pelo MutationJournalListener, antes da confirmação de cada transação.
+ * Uma thread dedicada força para o disco o trecho do segmento ativo escrito desde a última gravação:
+ * todos os registros desse trecho são confirmados juntos (group commit),
+ * e quem precisa de durabilidade espera por essa confirmação.
+ * Quando há segmentos selados demais, eles são compactados em um só, mantendo apenas o último registro de cada entidade;
+ * os segmentos substituídos só são trocados, fechados e excluídos depois que as leituras em andamento terminam.
+ * Ao iniciar, os segmentos são relidos e a escrita continua depois do último registro íntegro,
+ * descartando um registro cortado por uma queda do processo.
+ */
+@Component
+public class MutationJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(MutationJournal.class);
+    private static final int COMPACTION_BUFFER_BYTES = 1 << 20;
+    private static final String COMPACTING_SUFFIX = ".compacting";
+
+    private final boolean enabled;
+    private final boolean sync;
+    private final Path directory;
+    private final int segmentSize;
+    private final long flushIntervalNanos;
+    private final int compactThreshold;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReadWriteLock segmentsLock = new ReentrantReadWriteLock();
+    private final ReentrantLock durableLock = new ReentrantLock();
+    private final Condition durableChanged = durableLock.newCondition();
+    private final List<JournalSegment> sealed = new ArrayList<>();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(
+            runnable -> Thread.ofPlatform().name("journal-compactor").daemon().unstarted(runnable));
+    private volatile JournalSegment active;
+    private volatile long written;
+    private volatile long durable;
+    private volatile boolean closed;
+    private long nextSequence = 1;
+    private boolean compacting;
+    private Thread flusher;
+
+    /**
+     * Construtor da classe MutationJournal
+     * Abre ou cria os segmentos do journal, se habilitado, e inicia a thread de gravação em disco.
+     *
+     * @param enabled          se as alterações devem ser registradas
+     * @param sync             se cada alteração deve esperar a gravação do seu registro em disco
+     * @param directory        o diretório dos segmentos
+     * @param segmentSize      o tamanho de cada segmento em bytes
+     * @param flushInterval    o intervalo máximo entre verificações de registros a gravar em disco
+     * @param compactThreshold o número de segmentos selados a partir do qual eles são compactados
+     * @throws IOException se os segmentos não puderem ser abertos ou criados
+     */
+    public MutationJournal(@Value("${app.journal.enabled:false}") boolean enabled,
+                           @Value("${app.journal.sync:true}") boolean sync,
+                           @Value("${app.journal.dir:data/journal}") Path directory,
+                           @Value("${app.journal.segment-size:67108864}") int segmentSize,
+                           @Value("${app.journal.flush-interval:PT0.001S}") Duration flushInterval,
+                           @Value("${app.journal.compact-threshold:8}") int compactThreshold) throws IOException {
+        this.enabled = enabled;
+        this.sync = sync;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.compactThreshold = compactThreshold;
+        if (enabled) {
+            open();
+        }
+    }
+
+    /**
+     * Indica se as alterações estão sendo registradas
+     *
+     * @return true se o journal está habilitado
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Indica se cada alteração deve esperar a gravação do seu registro em disco
+     *
+     * @return true se app.journal.sync está habilitado
+     */
+    public boolean isSync() {
+        return sync;
+    }
+
+    /**
+     * Acrescenta um registro ao segmento ativo, criando um novo segmento se ele estiver cheio
+     * O registro é gravado em disco pela thread de gravação; use awaitDurable para esperar por isso.
+     *
+     * @param type  o tipo da alteração
+     * @param id    o ID da entidade alterada
+     * @param state o estado da entidade, ou null em exclusões
+     * @return a sequência do registro
+     * @throws IllegalStateException se o journal não estiver habilitado ou já tiver sido fechado
+     * @throws IllegalArgumentException se o registro for maior que um segmento
+     * @throws UncheckedIOException se um novo segmento não puder ser criado
+     */
+    public long append(MutationType type, long id, MutationRecord.State state) {
+        long sequence;
+        appendLock.lock();
+        try {
+            if (!enabled || closed) {
+                throw new IllegalStateException("Mutation journal is not open");
+            }
+            sequence = nextSequence;
+            MutationRecord record = new MutationRecord(sequence, System.currentTimeMillis(), type, id, state);
+            if (!active.append(record)) {
+                roll();
+                if (!active.append(record)) {
+                    throw new IllegalArgumentException("Journal record larger than a segment: " + type + " " + id);
+                }
+            }
+            nextSequence++;
+            written = sequence;
+        } finally {
+            appendLock.unlock();
+        }
+        LockSupport.unpark(flusher);
+        return sequence;
+    }
+
+    /**
+     * Espera até que um registro esteja gravado em disco
+     *
+     * @param sequence a sequência do registro
+     */
+    public void awaitDurable(long sequence) {
+        if (durable >= sequence) {
+            return;
+        }
+        durableLock.lock();
+        try {
+            while (durable < sequence && !closed) {
+                durableChanged.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Percorre todos os registros do journal, em ordem de sequência
+     * Segmentos compactados contêm apenas o último registro de cada entidade;
+     * se uma compactação foi interrompida, um mesmo registro pode aparecer mais de uma vez.
+     * Durante a leitura, nenhum segmento é fechado: uma compactação concluída nesse meio tempo
+     * espera a leitura terminar para excluir os segmentos substituídos.
+     *
+     * @param consumer recebe cada registro
+     * @throws IllegalStateException se o journal não estiver habilitado ou já tiver sido fechado
+     */
+    public void forEach(Consumer<MutationRecord> consumer) {
+        segmentsLock.readLock().lock();
+        try {
+            List<JournalSegment> segments;
+            int activeEnd;
+            appendLock.lock();
+            try {
+                if (active == null || closed) {
+                    throw new IllegalStateException("Mutation journal is not open");
+                }
+                segments = new ArrayList<>(sealed);
+                activeEnd = active.position();
+                segments.add(active);
+            } finally {
+                appendLock.unlock();
+            }
+            for (int i = 0; i < segments.size(); i++) {
+                JournalSegment segment = segments.get(i);
+                segment.read(i == segments.size() - 1 ? activeEnd : segment.position(), consumer);
+            }
+        } finally {
+            segmentsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna a sequência do último registro gravado em disco
+     *
+     * @return a sequência, ou zero se não houver registros
+     */
+    public long durableSequence() {
+        return durable;
+    }
+
+    /**
+     * Retorna o número de segmentos do journal, incluindo o ativo
+     *
+     * @return o número de segmentos
+     */
+    public int segmentCount() {
+        appendLock.lock();
+        try {
+            return sealed.size() + (active == null ? 0 : 1);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Grava os registros pendentes, encerra as threads e fecha os segmentos
+     *
+     * @throws IOException se algum segmento não puder ser fechado
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (!enabled || closed) {
+            return;
+        }
+        compactor.shutdown();
+        appendLock.lock();
+        try {
+            closed = true;
+            active.force();
+            durable = written;
+        } finally {
+            appendLock.unlock();
+        }
+        LockSupport.unpark(flusher);
+        signalDurable();
+        try {
+            flusher.join();
+            compactor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segmentsLock.writeLock().lock();
+        appendLock.lock();
+        try {
+            for (JournalSegment segment : sealed) {
+                segment.close();
+            }
+            active.close();
+        } finally {
+            appendLock.unlock();
+            segmentsLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Abre os segmentos existentes, na ordem das sequências, e continua a escrita no último
+     *
+     * @throws IOException se os segmentos não puderem ser abertos ou criados
+     */
+    private void open() throws IOException {
+        Files.createDirectories(directory);
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path leftover : files.filter(path -> path.getFileName().toString().endsWith(COMPACTING_SUFFIX)).toList()) {
+                Files.delete(leftover);
+            }
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted(Comparator.comparingLong(JournalSegment::baseSequenceOf))
+                    .toList();
+        }
+        for (int i = 0; i < paths.size(); i++) {
+            Path path = paths.get(i);
+            boolean last = i == paths.size() - 1 && Files.size(path) == segmentSize;
+            JournalSegment segment = JournalSegment.open(path, last,
+                    record -> nextSequence = Math.max(nextSequence, record.sequence() + 1));
+            if (last) {
+                active = segment;
+            } else {
+                sealed.add(segment);
+            }
+        }
+        if (active == null) {
+            active = JournalSegment.create(directory, nextSequence, segmentSize);
+        }
+        written = nextSequence - 1;
+        durable = written;
+        flusher = Thread.ofPlatform().name("journal-flusher").daemon().start(this::flushLoop);
+        if (!paths.isEmpty()) {
+            log.info("Opened mutation journal in {} with {} segments, next sequence {}",
+                    directory, sealed.size() + 1, nextSequence);
+        }
+    }
+
+    /**
+     * Sela o segmento ativo e cria o próximo, agendando uma compactação se houver segmentos selados demais
+     * Deve ser chamado com appendLock adquirido.
+     */
+    private void roll() {
+        active.force();
+        sealed.add(active);
+        try {
+            active = JournalSegment.create(directory, nextSequence, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (sealed.size() >= compactThreshold && !compacting) {
+            compacting = true;
+            compactor.submit(this::compact);
+        }
+    }
+
+    /**
+     * Grava em disco, em grupo, todos os registros acrescentados desde a última gravação
+     */
+    private void flushLoop() {
+        JournalSegment segment = null;
+        int forced = 0;
+        while (!closed) {
+            long target = written;
+            if (target == durable) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+                continue;
+            }
+            JournalSegment current = active;
+            if (current != segment) {
+                segment = current;
+                forced = 0;
+            }
+            int end = segment.position();
+            segment.force(forced, end);
+            forced = end;
+            durable = target;
+            signalDurable();
+        }
+    }
+
+    /**
+     * Acorda quem espera pela gravação em disco
+     */
+    private void signalDurable() {
+        durableLock.lock();
+        try {
+            durableChanged.signalAll();
+        } finally {
+            durableLock.unlock();
+        }
+    }
+
+    /**
+     * Compacta os segmentos selados em um único segmento, com o último registro de cada entidade
+     * O segmento compactado substitui o primeiro segmento selado, com o mesmo nome, e os demais são excluídos.
+     * A troca dos segmentos acontece sob o bloqueio de escrita de segmentsLock,
+     * depois que as leituras que ainda percorrem os segmentos substituídos terminam.
+     */
+    private void compact() {
+        List<JournalSegment> segments;
+        appendLock.lock();
+        try {
+            segments = new ArrayList<>(sealed);
+        } finally {
+            appendLock.unlock();
+        }
+        try {
+            Map<Long, MutationRecord> latest = new HashMap<>();
+            for (JournalSegment segment : segments) {
+                segment.read(segment.position(),
+                        record -> latest.put(record.id() << 2 | record.type().entity().ordinal(), record));
+            }
+            List<MutationRecord> records = new ArrayList<>(latest.values());
+            records.sort(Comparator.comparingLong(MutationRecord::sequence));
+
+            JournalSegment first = segments.get(0);
+            Path temporary = first.path().resolveSibling(first.path().getFileName() + COMPACTING_SUFFIX);
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ByteBuffer buffer = ByteBuffer.allocate(COMPACTION_BUFFER_BYTES);
+                for (MutationRecord record : records) {
+                    int start = buffer.position();
+                    try {
+                        MutationCodec.encode(record, buffer);
+                    } catch (BufferOverflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+                        buffer.position(start);
+                        write(channel, buffer);
+                        MutationCodec.encode(record, buffer);
+                    }
+                }
+                write(channel, buffer);
+                channel.force(true);
+            }
+            segmentsLock.writeLock().lock();
+            try {
+                Files.move(temporary, first.path(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                JournalSegment compacted = JournalSegment.open(first.path(), false, record -> { });
+                appendLock.lock();
+                try {
+                    sealed.subList(0, segments.size()).clear();
+                    sealed.add(0, compacted);
+                } finally {
+                    appendLock.unlock();
+                }
+                for (JournalSegment segment : segments) {
+                    segment.close();
+                    if (segment != first) {
+                        Files.deleteIfExists(segment.path());
+                    }
+                }
+            } finally {
+                segmentsLock.writeLock().unlock();
+            }
+            log.info("Compacted {} journal segments into {} records", segments.size(), records.size());
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not compact the mutation journal in {}", directory, e);
+        } finally {
+            appendLock.lock();
+            try {
+                compacting = false;
+            } finally {
+                appendLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Grava o conteúdo do buffer no arquivo e limpa o buffer
+     *
+     * @param channel o arquivo
+     * @param buffer  o buffer preenchido
+     * @throws IOException se o conteúdo não puder ser gravado
+     */
+    private static void write(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.springdatapoo.journal;
+
+import com.example.springdatapoo.event.EntityChangeEvent;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Registra no journal as alterações de Produtos, Clientes e Pedidos antes da confirmação de cada transação
+ * As alterações pendentes são enviadas ao banco antes do registro, para que os erros de gravação desfaçam a transação
+ * sem chegar ao journal e para que os bloqueios das linhas alteradas ordenem os registros de uma mesma entidade
+ * como as confirmações no banco.
+ * Com app.journal.sync=true, a transação só é confirmada depois que o registro foi forçado para o disco,
+ * de modo que uma queda nunca perde uma alteração confirmada.
+ * Se a transação for desfeita depois do registro, o estado confirmado de cada entidade registrada é relido do banco,
+ * sob bloqueio, e registrado novamente, substituindo o registro desfeito.
+ * Apenas uma queda entre o registro e a confirmação deixa no journal uma alteração que não chegou ao banco.
+ */
+@Component
+public class MutationJournalListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MutationJournalListener.class);
+
+    private final MutationJournal journal;
+    private final EntityManager entityManager;
+    private final TransactionTemplate compensationTemplate;
+
+    /**
+     * Construtor da classe MutationJournalListener
+     *
+     * @param journal            o journal de alterações
+     * @param entityManager      o gerenciador de entidades, usado para enviar as alterações pendentes e reler as desfeitas
+     * @param transactionManager o gerenciador de transações, usado para reler as alterações desfeitas em uma transação nova
+     */
+    public MutationJournalListener(MutationJournal journal,
+                                   EntityManager entityManager,
+                                   PlatformTransactionManager transactionManager) {
+        this.journal = journal;
+        this.entityManager = entityManager;
+        this.compensationTemplate = new TransactionTemplate(transactionManager);
+        this.compensationTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Registra uma alteração antes da confirmação da transação
+     * Uma falha ao registrar desfaz a transação, para que nenhuma alteração confirmada fique fora do journal.
+     * Fora de uma transação, a alteração já está confirmada e é apenas registrada.
+     *
+     * @param event o evento de alteração
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (!journal.isEnabled() || event.id() == null) {
+            return;
+        }
+        boolean deleted = event.kind() == EntityChangeEvent.Kind.DELETED;
+        MutationType type = typeOf(event.type(), deleted);
+        if (type == null) {
+            return;
+        }
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (inTransaction) {
+            entityManager.flush();
+        }
+        write(type, event.id(), deleted ? null : MutationRecord.stateOf(event.entity()));
+        if (inTransaction) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        compensate(event.type(), event.id());
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Registra novamente o estado confirmado de uma entidade cuja alteração foi registrada e depois desfeita
+     * A entidade é lida com bloqueio de escrita, para que nenhuma outra alteração dela seja registrada entre a leitura
+     * e o registro.
+     *
+     * @param entityType a classe da entidade
+     * @param id         o ID da entidade
+     */
+    private void compensate(Class<?> entityType, long id) {
+        try {
+            compensationTemplate.executeWithoutResult(status -> {
+                Object entity = entityManager.find(entityType, id, LockModeType.PESSIMISTIC_WRITE);
+                write(typeOf(entityType, entity == null), id, entity == null ? null : MutationRecord.stateOf(entity));
+            });
+            log.warn("Journaled the committed state of {} {} again after its transaction was rolled back",
+                    entityType.getSimpleName(), id);
+        } catch (RuntimeException e) {
+            log.error("Could not journal the committed state of {} {} after a rollback; "
+                    + "the journal keeps a change that was not committed", entityType.getSimpleName(), id, e);
+        }
+    }
+
+    /**
+     * Acrescenta um registro ao journal e, com app.journal.sync=true, espera a sua gravação em disco
+     *
+     * @param type  o tipo da alteração
+     * @param id    o ID da entidade
+     * @param state o estado da entidade, ou null em exclusões
+     */
+    private void write(MutationType type, long id, MutationRecord.State state) {
+        long sequence = journal.append(type, id, state);
+        if (journal.isSync()) {
+            journal.awaitDurable(sequence);
+        }
+    }
+
+    /**
+     * Retorna o tipo de alteração registrado para uma entidade
+     *
+     * @param entityType a classe da entidade
+     * @param deleted    true se a entidade foi excluída
+     * @return o tipo, ou null se a entidade não for registrada no journal
+     */
+    private static MutationType typeOf(Class<?> entityType, boolean deleted) {
+        if (entityType == Product.class) {
+            return deleted ? MutationType.PRODUCT_DELETED : MutationType.PRODUCT_SAVED;
+        }
+        if (entityType == Client.class) {
+            return deleted ? MutationType.CLIENT_DELETED : MutationType.CLIENT_SAVED;
+        }
+        if (entityType == Order.class) {
+            return deleted ? MutationType.ORDER_DELETED : MutationType.ORDER_SAVED;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.springdatapoo.journal;
+
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+import com.example.springdatapoo.model.Product;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Registro de uma alteração de Produto, Cliente ou Pedido no journal
+ *
+ * @param sequence  o número sequencial do registro, crescente em todo o journal
+ * @param timestamp o instante da alteração, em milissegundos desde 1970-01-01
+ * @param type      o tipo da alteração
+ * @param id        o ID da entidade alterada
+ * @param state     o estado da entidade depois da alteração, ou null em exclusões
+ */
+public record MutationRecord(long sequence, long timestamp, MutationType type, long id, State state) {
+
+    /**
+     * Estado de uma entidade gravada
+     */
+    public sealed interface State permits ProductState, ClientState, OrderState {
+    }
+
+    /**
+     * Estado de um Produto gravado
+     *
+     * @param name        o nome
+     * @param description a descrição
+     * @param priceCents  o preço em centavos
+     * @param weight      o peso
+     */
+    public record ProductState(String name, String description, long priceCents, double weight) implements State {
+    }
+
+    /**
+     * Estado de um Cliente gravado
+     *
+     * @param name    o nome
+     * @param email   o email
+     * @param address o endereço
+     * @param cep     o CEP
+     */
+    public record ClientState(String name, String email, String address, String cep) implements State {
+    }
+
+    /**
+     * Estado de um Pedido gravado, com os seus itens
+     *
+     * @param clientId        o ID do Cliente, ou 0 se o Pedido não tiver Cliente
+     * @param deliveryDays    o prazo de entrega em dias
+     * @param totalCents      o preço total em centavos
+     * @param createdAtMillis a data de criação em milissegundos desde 1970-01-01 (UTC), ou 0 se desconhecida
+     * @param items           os itens do Pedido
+     */
+    public record OrderState(long clientId, long deliveryDays, long totalCents, long createdAtMillis,
+                             List<Item> items) implements State {
+    }
+
+    /**
+     * Item de um Pedido gravado
+     *
+     * @param id             o ID do item
+     * @param productId      o ID do Produto
+     * @param quantity       a quantidade
+     * @param unitPriceCents o preço unitário do item, em centavos
+     */
+    public record Item(long id, long productId, int quantity, long unitPriceCents) {
+    }
+
+    /**
+     * Extrai o estado de uma entidade salva
+     *
+     * @param entity o Produto, Cliente ou Pedido salvo
+     * @return o estado da entidade
+     * @throws IllegalArgumentException se a entidade não for registrada no journal
+     */
+    public static State stateOf(Object entity) {
+        if (entity instanceof Product product) {
+            return new ProductState(product.getName(), product.getDescription(),
+                    product.getPrice().getCents(), product.getWeight());
+        }
+        if (entity instanceof Client client) {
+            return new ClientState(client.getName(), client.getEmail(), client.getAddress(), client.getCep());
+        }
+        if (entity instanceof Order order) {
+            List<Item> items = new ArrayList<>(order.getOrderItemList().size());
+            for (OrderItem item : order.getOrderItemList()) {
+                items.add(new Item(item.getId() == null ? 0 : item.getId(),
+                        item.getProduct().getId(), item.getQuantity(), item.effectiveUnitPrice().getCents()));
+            }
+            LocalDateTime createdAt = order.getCreatedAt();
+            return new OrderState(order.getClient() == null ? 0 : order.getClient().getId(),
+                    order.getDeliveryDays(), order.getTotalPrice().getCents(),
+                    createdAt == null ? 0 : createdAt.toInstant(ZoneOffset.UTC).toEpochMilli(), items);
+        }
+        throw new IllegalArgumentException("Entity not journaled: " + entity.getClass().getName());
+    }
+}
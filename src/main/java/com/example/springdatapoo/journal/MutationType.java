@@ -0,0 +1,73 @@
+package com.example.springdatapoo.journal;
+
+/**
+ * Tipos de alteração registrados no journal, com o código gravado em cada registro
+ */
+public enum MutationType {
+    PRODUCT_SAVED(1, Entity.PRODUCT, false),
+    PRODUCT_DELETED(2, Entity.PRODUCT, true),
+    CLIENT_SAVED(3, Entity.CLIENT, false),
+    CLIENT_DELETED(4, Entity.CLIENT, true),
+    ORDER_SAVED(5, Entity.ORDER, false),
+    ORDER_DELETED(6, Entity.ORDER, true);
+
+    /**
+     * Entidades registradas no journal
+     */
+    public enum Entity { PRODUCT, CLIENT, ORDER }
+
+    private static final MutationType[] BY_CODE = new MutationType[8];
+
+    static {
+        for (MutationType type : values()) {
+            BY_CODE[type.code] = type;
+        }
+    }
+
+    private final byte code;
+    private final Entity entity;
+    private final boolean deletion;
+
+    MutationType(int code, Entity entity, boolean deletion) {
+        this.code = (byte) code;
+        this.entity = entity;
+        this.deletion = deletion;
+    }
+
+    /**
+     * Retorna o código gravado no registro
+     *
+     * @return o código do tipo
+     */
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * Retorna a entidade alterada
+     *
+     * @return a entidade
+     */
+    public Entity entity() {
+        return entity;
+    }
+
+    /**
+     * Indica se a alteração é uma exclusão
+     *
+     * @return verdadeiro para exclusões
+     */
+    public boolean isDeletion() {
+        return deletion;
+    }
+
+    /**
+     * Procura o tipo pelo código gravado no registro
+     *
+     * @param code o código
+     * @return o tipo, ou null se o código for desconhecido
+     */
+    public static MutationType ofCode(byte code) {
+        return code > 0 && code < BY_CODE.length ? BY_CODE[code] : null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.springdatapoo.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Mede o tempo de execução de todos os métodos públicos dos serviços
+ * Cada método gera o timer app.service, com as tags class, method e exception
+ * e histograma de percentis, exposto pelo Actuator no formato do Prometheus.
+ * É o aspecto mais externo, para que a duração inclua a espera por uma permissão de acesso ao banco.
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ServiceTimingAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Construtor da classe ServiceTimingAspect
+     *
+     * @param meterRegistry o registro de métricas
+     */
+    public ServiceTimingAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Executa o método do serviço e registra a sua duração
+     *
+     * @param joinPoint a chamada interceptada
+     * @return o retorno do método
+     * @throws Throwable a exceção lançada pelo método, repassada sem alteração
+     */
+    @Around("execution(public * *(..)) && @within(org.springframework.stereotype.Service)")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            exception = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            sample.stop(Timer.builder("app.service")
+                    .description("Duração dos métodos dos serviços")
+                    .tag("class", joinPoint.getSignature().getDeclaringType().getSimpleName())
+                    .tag("method", joinPoint.getSignature().getName())
+                    .tag("exception", exception)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
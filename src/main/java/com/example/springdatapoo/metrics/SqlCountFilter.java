@@ -0,0 +1,83 @@
+package com.example.springdatapoo.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Mede o número de comandos SQL executados por requisição
+ * Registra a distribuição app.request.sql por rota e sinaliza, com um aviso no log e o contador
+ * app.request.sql.flagged, as requisições acima do limite configurado, sintoma típico de consultas N+1.
+ */
+public class SqlCountFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlCountFilter.class);
+
+    private final MeterRegistry meterRegistry;
+    private final int warnThreshold;
+
+    /**
+     * Construtor da classe SqlCountFilter
+     *
+     * @param meterRegistry o registro de métricas
+     * @param warnThreshold o número de comandos por requisição a partir do qual a requisição é sinalizada
+     */
+    public SqlCountFilter(MeterRegistry meterRegistry, int warnThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.warnThreshold = warnThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementCounter.stop();
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+            DistributionSummary.builder("app.request.sql")
+                    .description("Comandos SQL executados por requisição")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(statements);
+            if (statements > warnThreshold) {
+                Counter.builder("app.request.sql.flagged")
+                        .description("Requisições com mais comandos SQL que o limite, possíveis consultas N+1")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry)
+                        .increment();
+                log.warn("{} {} executed {} SQL statements (threshold {}), possible N+1 queries",
+                        request.getMethod(), uri, statements, warnThreshold);
+            }
+        }
+    }
+
+    /**
+     * Não mede os recursos estáticos nem os endpoints do Actuator
+     *
+     * @param request a requisição
+     * @return verdadeiro se a requisição não deve ser medida
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return path.startsWith("/actuator") || path.startsWith("/webjars") || path.startsWith("/css")
+                || path.startsWith("/js") || path.startsWith("/images");
+    }
+}
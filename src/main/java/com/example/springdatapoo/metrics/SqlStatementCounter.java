@@ -0,0 +1,46 @@
+package com.example.springdatapoo.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Conta os comandos SQL preparados pelo Hibernate na thread atual
+ * A contagem é iniciada e lida por SqlCountFilter a cada requisição;
+ * fora de uma requisição os comandos não são contados.
+ */
+public class SqlStatementCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> COUNT = new ThreadLocal<>();
+
+    /**
+     * Inicia a contagem de comandos na thread atual
+     */
+    static void start() {
+        COUNT.set(new int[1]);
+    }
+
+    /**
+     * Encerra a contagem de comandos na thread atual
+     *
+     * @return o número de comandos preparados desde o início da contagem
+     */
+    static int stop() {
+        int[] count = COUNT.get();
+        COUNT.remove();
+        return count == null ? 0 : count[0];
+    }
+
+    /**
+     * Registra um comando preparado, sem alterá-lo
+     *
+     * @param sql o comando SQL
+     * @return o mesmo comando SQL
+     */
+    @Override
+    public String inspect(String sql) {
+        int[] count = COUNT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+}
@@ -10,6 +10,7 @@ import lombok.*;
  * Entidade que representa um Cliente
  */
 @Entity
+@Table(indexes = @Index(name = "idx_client_name", columnList = "name"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -19,9 +20,12 @@ public class Client {
 
     /**
      * Identificador único do Cliente
+     * Gerado em blocos pela tabela id_generator, o que permite inserções em lote
      */
     @Id
-    @GeneratedValue(strategy =  GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "client_id_generator")
+    @TableGenerator(name = "client_id_generator", table = "id_generator", pkColumnName = "entity",
+            valueColumnName = "next_val", pkColumnValue = "client", allocationSize = 50)
     private Long id;
 
     /**
@@ -0,0 +1,126 @@
+package com.example.springdatapoo.model;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Valor monetário exato, guardado como um número inteiro de centavos
+ * Evita os erros de arredondamento de double nas somas de preços:
+ * somas e multiplicações são feitas em long e falham com ArithmeticException em caso de estouro.
+ * É imutável; no banco é gravado como DECIMAL com duas casas pelo MoneyConverter.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    /**
+     * Valor zero
+     */
+    public static final Money ZERO = new Money(0);
+
+    private final long cents;
+
+    /**
+     * Construtor da classe Money
+     *
+     * @param cents o valor em centavos
+     */
+    private Money(long cents) {
+        this.cents = cents;
+    }
+
+    /**
+     * Cria um valor a partir de centavos
+     *
+     * @param cents o valor em centavos
+     * @return o valor monetário
+     */
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+
+    /**
+     * Cria um valor a partir de um decimal, arredondando para duas casas
+     *
+     * @param amount o valor em reais
+     * @return o valor monetário
+     * @throws ArithmeticException se o valor não couber em um long de centavos
+     */
+    public static Money of(BigDecimal amount) {
+        return ofCents(amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact());
+    }
+
+    /**
+     * Converte um texto como "1234.56" em valor monetário
+     * Também é usado pela conversão de tipos do Spring, por exemplo no cursor da paginação por chave.
+     *
+     * @param text o texto com o valor em reais, com ponto como separador decimal
+     * @return o valor monetário
+     * @throws NumberFormatException se o texto não for um número
+     */
+    public static Money valueOf(String text) {
+        return of(new BigDecimal(text.trim()));
+    }
+
+    /**
+     * Retorna o valor em centavos
+     *
+     * @return os centavos
+     */
+    public long getCents() {
+        return cents;
+    }
+
+    /**
+     * Soma dois valores
+     *
+     * @param other o outro valor
+     * @return a soma
+     */
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+
+    /**
+     * Multiplica o valor por uma quantidade
+     *
+     * @param quantity a quantidade
+     * @return o produto
+     */
+    public Money times(long quantity) {
+        return ofCents(Math.multiplyExact(cents, quantity));
+    }
+
+    /**
+     * Retorna o valor como decimal com duas casas
+     *
+     * @return o valor em reais
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof Money money && money.cents == cents;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+
+    /**
+     * Retorna o valor com duas casas e ponto decimal, como "1234.56"
+     *
+     * @return o valor em texto
+     */
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
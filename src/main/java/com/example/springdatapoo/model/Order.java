@@ -2,8 +2,8 @@ package com.example.springdatapoo.model;
 
 import jakarta.persistence.*;
 import lombok.*;
-import org.springframework.format.annotation.NumberFormat;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -11,7 +11,10 @@ import java.util.List;
  * Entidade que representa um Pedido
  */
 @Entity
-@Table(name = "table_order")
+@Table(name = "table_order", indexes = {
+        @Index(name = "idx_order_total_price", columnList = "totalPrice"),
+        @Index(name = "idx_order_delivery_days", columnList = "deliveryDays")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,9 +24,12 @@ public class Order {
 
     /**
      * Identificador único do Pedido
+     * Gerado em blocos pela tabela id_generator, o que permite inserções em lote
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_id_generator")
+    @TableGenerator(name = "order_id_generator", table = "id_generator", pkColumnName = "entity",
+            valueColumnName = "next_val", pkColumnValue = "table_order", allocationSize = 50)
     private Long id;
 
     /**
@@ -41,11 +47,10 @@ public class Order {
 
     /**
      * Preço total do Pedido
-     * Formato numérico de moeda com duas casas decimais
+     * Valor exato em centavos, gravado com duas casas decimais
      */
-    @NumberFormat(style = NumberFormat.Style.CURRENCY, pattern = "#,##0.00")
     @Column(nullable = false, columnDefinition = "DECIMAL(24,2) DEFAULT 0.00")
-    private double totalPrice;
+    private Money totalPrice = Money.ZERO;
 
     /**
      * Número de dias para a entrega do Pedido
@@ -53,13 +58,47 @@ public class Order {
     @Column(nullable = false)
     private long deliveryDays;
 
+    /**
+     * Data e hora de criação do Pedido
+     * Preenchida ao inserir o Pedido e nunca alterada depois
+     */
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    /**
+     * Versão do Pedido, para controle de concorrência otimista
+     * Incrementada a cada gravação; uma gravação a partir de uma versão antiga é recusada
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
+
+    /**
+     * Preenche a data de criação antes da inserção do Pedido
+     */
+    @PrePersist
+    void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
+
     /**
      * Recalcula o preço total do Pedido com base nos itens e suas quantidades
+     * Cada item usa o preço unitário gravado quando ele foi adicionado, e não o preço atual do Produto.
+     * A soma é feita em centavos, com um laço sobre tipos primitivos, sem arredondamentos
+     * e sem criar objetos por item; itens sem Produto são ignorados.
+     *
+     * @throws ArithmeticException se o total não couber em um long de centavos
      */
     public void recalculateTotalPrice() {
-        totalPrice = orderItemList.stream()
-                .filter(item ->item.getProduct() != null)  // Adiciona um filtro para evitar NPE
-                .mapToDouble(item -> item.getProduct().getPrice() * item.getQuantity())
-                .sum();
+        long cents = 0;
+        for (int i = 0, size = orderItemList.size(); i < size; i++) {
+            OrderItem item = orderItemList.get(i);
+            if (item.getProduct() != null) {
+                cents = Math.addExact(cents, Math.multiplyExact(item.effectiveUnitPrice().getCents(), (long) item.getQuantity()));
+            }
+        }
+        totalPrice = Money.ofCents(cents);
     }
 }
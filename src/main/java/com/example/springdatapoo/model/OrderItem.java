@@ -8,6 +8,7 @@ import lombok.*;
  * Entidade que representa um Item de Pedido
  */
 @Entity
+@Table(indexes = @Index(name = "idx_order_item_order_id", columnList = "order_id"))
 @Getter
 @Setter
 @NoArgsConstructor
@@ -17,9 +18,12 @@ public class OrderItem {
 
     /**
      * Identificador único do Item de Pedido
+     * Gerado em blocos pela tabela id_generator, o que permite inserções em lote
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "order_item_id_generator")
+    @TableGenerator(name = "order_item_id_generator", table = "id_generator", pkColumnName = "entity",
+            valueColumnName = "next_val", pkColumnValue = "order_item", allocationSize = 50)
     private Long id;
 
     /**
@@ -40,4 +44,21 @@ public class OrderItem {
      * Quantidade de um produto no pedido
      */
     private int quantity;
+
+    /**
+     * Preço unitário do Produto quando o item foi adicionado ao pedido
+     * Não muda com alterações posteriores do preço do Produto; nulo apenas em itens gravados antes desta coluna,
+     * que recebem o preço atual do Produto na inicialização da aplicação.
+     */
+    @Column(columnDefinition = "DECIMAL(7,2)")
+    private Money unitPrice;
+
+    /**
+     * Retorna o preço unitário do item
+     *
+     * @return o preço gravado quando o item foi adicionado ou, se ainda não houver, o preço atual do Produto
+     */
+    public Money effectiveUnitPrice() {
+        return unitPrice != null ? unitPrice : product.getPrice();
+    }
 }
@@ -3,6 +3,7 @@ package com.example.springdatapoo.model;
 
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
 import lombok.*;
 import org.springframework.format.annotation.NumberFormat;
@@ -12,6 +13,10 @@ import org.springframework.format.annotation.NumberFormat;
  * Entidade que representa um Produto
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_product_name", columnList = "name"),
+        @Index(name = "idx_product_price", columnList = "price")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -21,9 +26,12 @@ public class Product {
 
     /**
      * Identificador único do Produto
+     * Gerado em blocos pela tabela id_generator, o que permite inserções em lote
      */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_id_generator")
+    @TableGenerator(name = "product_id_generator", table = "id_generator", pkColumnName = "entity",
+            valueColumnName = "next_val", pkColumnValue = "product", allocationSize = 50)
     private Long id;
 
     /**
@@ -46,11 +54,11 @@ public class Product {
 
     /**
      * Preço do Produto
-     * Formato numérico de moeda com duas casas decimais
+     * Valor exato em centavos, gravado com duas casas decimais
      */
-    @NumberFormat(style = NumberFormat.Style.CURRENCY, pattern = "#,##0.00")
+    @NotNull(message = "Price is required.")
     @Column(nullable = false, columnDefinition = "DECIMAL(7,2) DEFAULT 0.00")
-    private double price;
+    private Money price = Money.ZERO;
 
     /**
      * Peso do Produto
@@ -59,4 +67,12 @@ public class Product {
     @NumberFormat(style = NumberFormat.Style.NUMBER, pattern = "#,###0.000 Kg")
     @Column(nullable = false, columnDefinition = "DECIMAL(7,3) DEFAULT 0.000")
     private double weight;
+
+    /**
+     * Versão do Produto, para controle de concorrência otimista
+     * Incrementada a cada gravação, para que uma alteração de preço não sobrescreva outra
+     */
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private long version;
 }
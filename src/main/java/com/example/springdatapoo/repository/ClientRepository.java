@@ -1,7 +1,15 @@
 package com.example.springdatapoo.repository;
 
 import com.example.springdatapoo.model.Client;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.stream.Stream;
 
 /**
  * Interface de Repositório para a entidade Client.
@@ -10,5 +18,28 @@ import org.springframework.data.jpa.repository.JpaRepository;
  */
 public interface ClientRepository extends JpaRepository<Client, Long> {
 
+    /**
+     * Recupera uma página de Clientes sem contar o total de registros
+     * Busca apenas um registro a mais que o tamanho da página para saber se existe uma próxima,
+     * evitando o COUNT(*) feito por findAll(Pageable).
+     * As entidades são carregadas somente leitura, sem cópia para a verificação de alterações,
+     * e a consulta não força a gravação de alterações pendentes.
+     *
+     * @param pageable a página e a ordenação desejadas
+     * @return uma fatia de Clientes
+     */
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    Slice<Client> findAllBy(Pageable pageable);
 
+    /**
+     * Percorre todos os Clientes sob demanda, sem carregar a tabela inteira em memória
+     * As linhas são buscadas do banco em lotes de 1000; o Stream deve ser consumido
+     * dentro de uma transação e fechado ao final.
+     *
+     * @return um Stream com todos os Clientes
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select c from Client c")
+    Stream<Client> streamAll();
 }
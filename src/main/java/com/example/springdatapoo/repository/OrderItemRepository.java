@@ -1,7 +1,13 @@
 package com.example.springdatapoo.repository;
 
 import com.example.springdatapoo.model.OrderItem;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
 
 /**
  * Interface de Repositório para a entidade OrderItem.
@@ -9,4 +15,24 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * fornecendo métodos CRUD, além de Paginação, Ordenação e mais para a entidade OrderItem.
  */
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Recupera os Itens de um Pedido específico
+     * A busca utiliza o índice de order_item.order_id e já carrega o Produto de cada Item
+     *
+     * @param orderId o ID do Pedido
+     * @return a lista de Itens do Pedido
+     */
+    @EntityGraph(attributePaths = "product")
+    List<OrderItem> findByOrderId(Long orderId);
+
+    /**
+     * Exclui todos os Itens de um Pedido em uma única instrução DELETE
+     *
+     * @param orderId o ID do Pedido
+     * @return o número de Itens excluídos
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from OrderItem i where i.order.id = :orderId")
+    int deleteByOrderId(@Param("orderId") Long orderId);
 }
@@ -1,7 +1,21 @@
 package com.example.springdatapoo.repository;
 
+import com.example.springdatapoo.dto.OrderSummary;
+import com.example.springdatapoo.dto.SalesLine;
 import com.example.springdatapoo.model.Order;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Interface de Repositório para a entidade Order.
@@ -9,4 +23,78 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * fornecendo métodos CRUD, além de Paginação, Ordenação e mais para a entidade Order.
  */
 public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Recupera uma página de Pedidos sem contar o total de registros
+     * Busca apenas um registro a mais que o tamanho da página para saber se existe uma próxima,
+     * evitando o COUNT(*) feito por findAll(Pageable).
+     * As entidades são carregadas somente leitura, sem cópia para a verificação de alterações,
+     * e a consulta não força a gravação de alterações pendentes.
+     * O Cliente de cada Pedido é carregado na mesma consulta.
+     *
+     * @param pageable a página e a ordenação desejadas
+     * @return uma fatia de Pedidos
+     */
+    @EntityGraph(attributePaths = "client")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    Slice<Order> findAllBy(Pageable pageable);
+
+    /**
+     * Recupera uma página da listagem de Pedidos como projeção, sem contar o total de registros
+     * O nome do Cliente vem da mesma consulta, por junção, sem hidratar as entidades.
+     *
+     * @param pageable a página e a ordenação desejadas
+     * @return uma fatia de resumos de Pedidos
+     */
+    @Query("select new com.example.springdatapoo.dto.OrderSummary(o.id, c.id, c.name, o.totalPrice, o.deliveryDays) "
+            + "from Order o left join o.client c")
+    Slice<OrderSummary> findSummariesBy(Pageable pageable);
+
+    /**
+     * Procura um Pedido para alteração
+     * A versão do Pedido é incrementada na confirmação da transação mesmo que apenas os seus itens mudem,
+     * e a confirmação falha se outro usuário tiver gravado o Pedido nesse meio tempo.
+     *
+     * @param id o ID do Pedido
+     * @return o Pedido, se existir
+     */
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    Optional<Order> findForUpdateById(Long id);
+
+    /**
+     * Procura um Pedido com os seus itens em uma única consulta
+     * Usado pelo formulário de edição, que exibe o Pedido depois de encerrada a transação;
+     * o Cliente e os Produtos dos itens não são carregados, apenas os seus IDs, para que venham dos caches.
+     *
+     * @param id o ID do Pedido
+     * @return o Pedido, se existir
+     */
+    @EntityGraph(attributePaths = "orderItemList")
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_FLUSH_MODE, value = "MANUAL")})
+    Optional<Order> findWithItemsById(Long id);
+
+    /**
+     * Percorre todos os Pedidos sob demanda, sem carregar a tabela inteira em memória
+     * As linhas são buscadas do banco em lotes de 1000; o Stream deve ser consumido
+     * dentro de uma transação e fechado ao final.
+     *
+     * @return um Stream com todos os Pedidos
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select o from Order o")
+    Stream<Order> streamAll();
+
+    /**
+     * Percorre todos os itens de todos os Pedidos, agrupados por Pedido, como projeção
+     * Usado para reconstruir os agregados de vendas; Pedidos sem itens aparecem com uma linha sem Produto.
+     * O Stream deve ser consumido dentro de uma transação e fechado ao final.
+     *
+     * @return um Stream com as linhas de venda, ordenadas pelo ID do Pedido
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.springdatapoo.dto.SalesLine(o.id, c.id, o.createdAt, p.id, i.quantity, coalesce(i.unitPrice, p.price)) "
+            + "from Order o left join o.client c left join o.orderItemList i left join i.product p order by o.id")
+    Stream<SalesLine> streamSalesLines();
 }
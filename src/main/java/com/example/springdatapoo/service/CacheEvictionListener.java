@@ -0,0 +1,57 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.config.CacheConfig;
+import com.example.springdatapoo.event.EntityChangeEvent;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Product;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Invalida os caches de Produtos e Clientes quando eles são alterados
+ * A invalidação ocorre depois da confirmação da transação,
+ * para que uma leitura concorrente não volte a guardar no cache o valor antigo.
+ */
+@Component
+public class CacheEvictionListener {
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Construtor da classe CacheEvictionListener
+     *
+     * @param cacheManager o gerenciador de caches
+     */
+    public CacheEvictionListener(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Remove do cache a entidade alterada
+     *
+     * @param event o evento de alteração
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.type() == Product.class) {
+            evict(CacheConfig.PRODUCTS, event.id());
+        } else if (event.type() == Client.class) {
+            evict(CacheConfig.CLIENTS, event.id());
+        }
+    }
+
+    /**
+     * Remove uma entrada do cache por ID
+     *
+     * @param cacheName o nome do cache
+     * @param id        o ID da entidade alterada
+     */
+    private void evict(String cacheName, Long id) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && id != null) {
+            cache.evict(id);
+        }
+    }
+}
@@ -1,47 +1,106 @@
 package com.example.springdatapoo.service;
 
+import com.example.springdatapoo.config.CacheConfig;
+import com.example.springdatapoo.config.ReadFromPrimary;
+import com.example.springdatapoo.event.EntityChangeEvent;
 import com.example.springdatapoo.model.Client;
 import com.example.springdatapoo.repository.ClientRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 
 /**
  * Classe de Serviço para gerenciar a Entidade Client
  * Contém métodos para efetuar operações CRUD, Paginação e Ordenação em Clientes
+ * As consultas são executadas em transações somente leitura; as listagens podem ser atendidas pela réplica de leitura
+ * As buscas por ID passam pelo cache de Clientes, que guarda cópias desanexadas e nunca as entrega:
+ * cada chamada recebe a sua própria cópia, que pode alterar sem afetar o cache nem as outras requisições.
  */
 @Service
 @Transactional
 public class ClientService {
     private final ClientRepository clientRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final EntityCountService entityCountService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache cache;
+    private final int pageSize;
 
     /**
      * Construtor da classe ClientService
      *
      * @param clientRepository o repositório para acesso aos dados de Cliente
+     * @param keysetPaginator o paginador por chave
+     * @param entityCountService o serviço de contagem de registros
+     * @param eventPublisher o publicador dos eventos de alteração de Clientes
+     * @param cacheManager o gerenciador de caches, de onde vem o cache de Clientes
+     * @param pageSize o número de Clientes por página
      */
-    public ClientService(ClientRepository clientRepository) {
+    public ClientService(ClientRepository clientRepository,
+                         KeysetPaginator keysetPaginator,
+                         EntityCountService entityCountService,
+                         ApplicationEventPublisher eventPublisher,
+                         CacheManager cacheManager,
+                         @Value("${app.pagination.page-size:5}") int pageSize) {
         this.clientRepository = clientRepository;
+        this.keysetPaginator = keysetPaginator;
+        this.entityCountService = entityCountService;
+        this.eventPublisher = eventPublisher;
+        this.cache = cacheManager.getCache(CacheConfig.CLIENTS);
+        this.pageSize = pageSize;
     }
 
     /**
      * Recupera uma lista paginada e ordenada de todos os Clientes
+     * O total de Clientes vem da contagem mantida em memória, sem um COUNT(*) por página
      *
      * @param pageNum o número da página a ser recuperada
      * @param sortField o campo pelo qual ordenar
      * @param sortDir a direção da ordenação (ascendente ou descendente)
      * @return uma página de Clientes
      */
+    @Transactional(readOnly = true)
     public Page<Client> listAll(int pageNum, String sortField, String sortDir) {
-        int pageSize = 5;
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize,
                 sortDir.equals("asc") ? Sort.by(sortField).ascending()
                         : Sort.by(sortField).descending());
-        return clientRepository.findAll(pageable);
+        Slice<Client> slice = clientRepository.findAllBy(pageable);
+        return entityCountService.toPage(slice, Client.class);
+    }
+
+    /**
+     * Recupera a página de Clientes posterior ao último Cliente exibido (paginação por chave)
+     *
+     * @param sortField o campo pelo qual ordenar
+     * @param sortDir a direção da ordenação (ascendente ou descendente)
+     * @param after o valor do campo de ordenação do último Cliente exibido
+     * @param afterId o ID do último Cliente exibido
+     * @return uma fatia de Clientes com o cursor para a próxima
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Client> listAfter(String sortField, String sortDir, String after, Long afterId) {
+        return keysetPaginator.seek(Client.class, sortField, sortDir, after, afterId, pageSize);
+    }
+
+    /**
+     * Calcula o cursor para a página seguinte a uma página de Clientes
+     *
+     * @param page a página de Clientes exibida
+     * @param sortField o campo pelo qual a página foi ordenada
+     * @return uma fatia com os Clientes da página e o cursor para a próxima
+     */
+    public KeysetSlice<Client> toSlice(Page<Client> page, String sortField) {
+        return keysetPaginator.sliceOf(Client.class, page.getContent(), page.hasNext(), sortField);
     }
 
     /**
@@ -50,16 +109,37 @@ public class ClientService {
      * @param client o Cliente a ser salvo
      */
     public void save(Client client) {
-        clientRepository.save(client);
+        boolean created = client.getId() == null;
+        Client saved = clientRepository.save(client);
+        eventPublisher.publishEvent(EntityChangeEvent.saved(Client.class, saved.getId(), saved, created));
     }
 
     /**
-     * Procura um cliente por seu ID
+     * Procura um cliente por seu ID, primeiro no cache de Clientes
+     * Sem transação aberta, um acerto no cache não ocupa nenhuma conexão; uma falta é lida do primário.
      * @param id o ID do cliente a ser procurado
-     * @return o cliente encontrado com esse ID
+     * @return uma cópia desanexada do cliente encontrado com esse ID
+     * @throws java.util.NoSuchElementException se não houver cliente com esse ID
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @ReadFromPrimary
     public Client findById(long id) {
-        return clientRepository.findById(id).get();
+        Client cached = cache.get(id, Client.class);
+        if (cached == null) {
+            cached = copyOf(clientRepository.findById(id).orElseThrow());
+            cache.put(id, cached);
+        }
+        return copyOf(cached);
+    }
+
+    /**
+     * Copia um cliente para uma instância nova, não gerenciada
+     *
+     * @param client o cliente
+     * @return a cópia
+     */
+    private static Client copyOf(Client client) {
+        return new Client(client.getId(), client.getName(), client.getEmail(), client.getAddress(), client.getCep());
     }
 
     /**
@@ -68,6 +148,9 @@ public class ClientService {
      * @param id o ID do Cliente a ser excluído
      */
     public void delete(long id) {
-        clientRepository.deleteById(id);
+        if (clientRepository.existsById(id)) {
+            clientRepository.deleteById(id);
+            eventPublisher.publishEvent(EntityChangeEvent.deleted(Client.class, id));
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.event.EntityChangeEvent;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.repository.ClientRepository;
+import com.example.springdatapoo.repository.OrderRepository;
+import com.example.springdatapoo.repository.ProductRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe de Serviço que mantém em memória o número de registros de Produtos, Clientes e Pedidos
+ * Evita um COUNT(*) a cada página exibida nas listagens.
+ * Cada contagem é lida do banco no primeiro uso, atualizada pelos eventos de criação e exclusão
+ * publicados pelos serviços e reconciliada periodicamente com o banco.
+ * Os valores podem divergir brevemente do banco entre duas reconciliações.
+ */
+@Service
+public class EntityCountService {
+
+    private final Map<Class<?>, JpaRepository<?, Long>> repositories;
+    private final Map<Class<?>, AtomicLong> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Construtor da classe EntityCountService
+     *
+     * @param productRepository o repositório para acesso aos dados de Produto
+     * @param clientRepository  o repositório para acesso aos dados de Cliente
+     * @param orderRepository   o repositório para acesso aos dados de Pedido
+     */
+    public EntityCountService(ProductRepository productRepository,
+                              ClientRepository clientRepository,
+                              OrderRepository orderRepository) {
+        this.repositories = Map.of(
+                Product.class, productRepository,
+                Client.class, clientRepository,
+                Order.class, orderRepository);
+    }
+
+    /**
+     * Retorna o número de registros de uma entidade
+     *
+     * @param type a classe da entidade (Product, Client ou Order)
+     * @return o número de registros
+     */
+    public long count(Class<?> type) {
+        AtomicLong count = counts.get(type);
+        if (count == null) {
+            count = counts.computeIfAbsent(type, key -> new AtomicLong(repository(key).count()));
+        }
+        return count.get();
+    }
+
+    /**
+     * Converte uma fatia em página, usando a contagem em memória como total
+     * O total nunca é menor do que os registros comprovadamente existentes pela própria fatia.
+     *
+     * @param slice      a fatia buscada sem COUNT(*), de entidades ou de projeções
+     * @param entityType a classe da entidade contada
+     * @param <T>        o tipo dos registros da fatia
+     * @return a página com o total de registros
+     */
+    public <T> Page<T> toPage(Slice<T> slice, Class<?> entityType) {
+        long seen = slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0);
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(count(entityType), seen));
+    }
+
+    /**
+     * Atualiza a contagem após a confirmação de uma criação ou exclusão
+     *
+     * @param event o evento de alteração
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        AtomicLong count = counts.get(event.type());
+        if (count == null) {
+            return;
+        }
+        switch (event.kind()) {
+            case CREATED -> count.incrementAndGet();
+            case DELETED -> count.updateAndGet(value -> Math.max(0, value - 1));
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * Reconcilia periodicamente as contagens com o banco de dados
+     */
+    @Scheduled(fixedDelayString = "${app.counts.reconcile-interval:PT5M}")
+    public void reconcile() {
+        counts.forEach((type, count) -> count.set(repository(type).count()));
+    }
+
+    /**
+     * Retorna o repositório de uma entidade
+     *
+     * @param type a classe da entidade
+     * @return o repositório
+     * @throws IllegalArgumentException se a entidade não tiver contagem
+     */
+    private JpaRepository<?, Long> repository(Class<?> type) {
+        JpaRepository<?, Long> repository = repositories.get(type);
+        if (repository == null) {
+            throw new IllegalArgumentException("No count is kept for " + type.getSimpleName());
+        }
+        return repository;
+    }
+}
@@ -0,0 +1,232 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.io.CsvWriter;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Money;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.repository.ClientRepository;
+import com.example.springdatapoo.repository.OrderRepository;
+import com.example.springdatapoo.repository.ProductRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Classe de Serviço para exportação completa de Produtos, Clientes e Pedidos
+ * Os registros são lidos do banco sob demanda e escritos diretamente na saída,
+ * um por vez, em CSV ou NDJSON (um objeto JSON por linha).
+ * Cada entidade é desanexada do contexto de persistência logo após ser escrita,
+ * de modo que o uso de memória não cresce com o tamanho da tabela.
+ */
+@Service
+@Transactional(readOnly = true)
+public class ExportService {
+
+    /**
+     * Formatos de exportação disponíveis
+     */
+    public enum Format { CSV, NDJSON }
+
+    /**
+     * Coluna exportada de uma entidade
+     *
+     * @param name  o nome da coluna
+     * @param value a função que extrai o valor da coluna
+     * @param <T>   o tipo da entidade
+     */
+    private record Column<T>(String name, Function<T, Object> value) {
+    }
+
+    private static final List<Column<Product>> PRODUCT_COLUMNS = List.of(
+            new Column<>("id", Product::getId),
+            new Column<>("name", Product::getName),
+            new Column<>("description", Product::getDescription),
+            new Column<>("price", Product::getPrice),
+            new Column<>("weight", Product::getWeight));
+
+    private static final List<Column<Client>> CLIENT_COLUMNS = List.of(
+            new Column<>("id", Client::getId),
+            new Column<>("name", Client::getName),
+            new Column<>("email", Client::getEmail),
+            new Column<>("address", Client::getAddress),
+            new Column<>("cep", Client::getCep));
+
+    private static final List<Column<Order>> ORDER_COLUMNS = List.of(
+            new Column<>("id", Order::getId),
+            new Column<>("clientId", order -> order.getClient() == null ? null : order.getClient().getId()),
+            new Column<>("totalPrice", Order::getTotalPrice),
+            new Column<>("deliveryDays", Order::getDeliveryDays));
+
+    private final ProductRepository productRepository;
+    private final ClientRepository clientRepository;
+    private final OrderRepository orderRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Construtor da classe ExportService
+     *
+     * @param productRepository o repositório para acesso aos dados de Produto
+     * @param clientRepository  o repositório para acesso aos dados de Cliente
+     * @param orderRepository   o repositório para acesso aos dados de Pedido
+     * @param entityManager     o EntityManager usado para desanexar as entidades exportadas
+     * @param objectMapper      o ObjectMapper para escrita de JSON
+     */
+    public ExportService(ProductRepository productRepository,
+                         ClientRepository clientRepository,
+                         OrderRepository orderRepository,
+                         EntityManager entityManager,
+                         ObjectMapper objectMapper) {
+        this.productRepository = productRepository;
+        this.clientRepository = clientRepository;
+        this.orderRepository = orderRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Exporta todos os Produtos
+     *
+     * @param format o formato de saída
+     * @param out    a saída onde os registros serão escritos
+     * @throws IOException se houver erro de escrita
+     */
+    public void exportProducts(Format format, OutputStream out) throws IOException {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            export(products, PRODUCT_COLUMNS, format, out);
+        }
+    }
+
+    /**
+     * Exporta todos os Clientes
+     *
+     * @param format o formato de saída
+     * @param out    a saída onde os registros serão escritos
+     * @throws IOException se houver erro de escrita
+     */
+    public void exportClients(Format format, OutputStream out) throws IOException {
+        try (Stream<Client> clients = clientRepository.streamAll()) {
+            export(clients, CLIENT_COLUMNS, format, out);
+        }
+    }
+
+    /**
+     * Exporta todos os Pedidos
+     * O Cliente é exportado apenas pelo seu ID, sem ser carregado.
+     *
+     * @param format o formato de saída
+     * @param out    a saída onde os registros serão escritos
+     * @throws IOException se houver erro de escrita
+     */
+    public void exportOrders(Format format, OutputStream out) throws IOException {
+        try (Stream<Order> orders = orderRepository.streamAll()) {
+            export(orders, ORDER_COLUMNS, format, out);
+        }
+    }
+
+    /**
+     * Escreve as entidades do Stream no formato pedido
+     *
+     * @param entities as entidades a serem exportadas
+     * @param columns  as colunas exportadas
+     * @param format   o formato de saída
+     * @param out      a saída onde os registros serão escritos
+     * @param <T>      o tipo da entidade
+     * @throws IOException se houver erro de escrita
+     */
+    private <T> void export(Stream<T> entities, List<Column<T>> columns,
+                            Format format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+            if (format == Format.CSV) {
+                writeCsv(entities, columns, writer);
+            } else {
+                writeNdjson(entities, columns, writer);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    /**
+     * Escreve as entidades em CSV, com uma linha de cabeçalho
+     *
+     * @param entities as entidades a serem exportadas
+     * @param columns  as colunas exportadas
+     * @param writer   o destino da escrita
+     * @param <T>      o tipo da entidade
+     * @throws IOException se houver erro de escrita
+     */
+    private <T> void writeCsv(Stream<T> entities, List<Column<T>> columns, Writer writer) throws IOException {
+        CsvWriter csv = new CsvWriter(writer, ',');
+        csv.writeRow(columns.stream().map(Column::name).toList());
+        List<Object> row = new ArrayList<>(columns.size());
+        entities.forEach(entity -> {
+            row.clear();
+            for (Column<T> column : columns) {
+                row.add(column.value().apply(entity));
+            }
+            try {
+                csv.writeRow(row);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            entityManager.detach(entity);
+        });
+    }
+
+    /**
+     * Escreve as entidades em NDJSON, um objeto por linha
+     *
+     * @param entities as entidades a serem exportadas
+     * @param columns  as colunas exportadas
+     * @param writer   o destino da escrita
+     * @param <T>      o tipo da entidade
+     * @throws IOException se houver erro de escrita
+     */
+    private <T> void writeNdjson(Stream<T> entities, List<Column<T>> columns, Writer writer) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(writer);
+        json.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        json.setRootValueSeparator(null);
+        entities.forEach(entity -> {
+            try {
+                json.writeStartObject();
+                for (Column<T> column : columns) {
+                    json.writeFieldName(column.name());
+                    Object value = column.value().apply(entity);
+                    if (value instanceof Number number) {
+                        json.writeNumber(number.toString());
+                    } else if (value instanceof Money money) {
+                        json.writeNumber(money.toBigDecimal());
+                    } else if (value == null) {
+                        json.writeNull();
+                    } else {
+                        json.writeString(value.toString());
+                    }
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            entityManager.detach(entity);
+        });
+        json.flush();
+    }
+}
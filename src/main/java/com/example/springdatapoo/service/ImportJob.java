@@ -0,0 +1,203 @@
+package com.example.springdatapoo.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Estado e progresso de uma importação em andamento ou concluída
+ * Os contadores são atualizados pela thread de importação e lidos pelas requisições de status.
+ */
+public class ImportJob {
+
+    /**
+     * Número máximo de erros guardados com detalhes por importação
+     */
+    public static final int MAX_STORED_ERRORS = 1000;
+
+    /**
+     * Tipos de dados que podem ser importados
+     */
+    public enum Type { PRODUCTS, CLIENTS, ORDERS }
+
+    /**
+     * Formatos de arquivo aceitos
+     */
+    public enum Format { CSV, JSON }
+
+    /**
+     * Situação da importação
+     */
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    /**
+     * Erro de um registro rejeitado
+     *
+     * @param record  a posição do registro no arquivo
+     * @param message a descrição do erro
+     */
+    public record RecordError(long record, String message) {
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Type type;
+    private final Format format;
+    private final String fileName;
+    private final long totalBytes;
+    private final Instant startedAt = Instant.now();
+    private volatile Instant finishedAt;
+    private volatile Status status = Status.RUNNING;
+    private volatile String failureMessage;
+    private volatile long bytesRead;
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong imported = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final List<RecordError> errors = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * Construtor da classe ImportJob
+     *
+     * @param type       o tipo de dado importado
+     * @param format     o formato do arquivo
+     * @param fileName   o nome original do arquivo
+     * @param totalBytes o tamanho do arquivo em bytes
+     */
+    public ImportJob(Type type, Format format, String fileName, long totalBytes) {
+        this.type = type;
+        this.format = format;
+        this.fileName = fileName;
+        this.totalBytes = totalBytes;
+    }
+
+    /**
+     * Registra registros lidos do arquivo e a posição atual da leitura
+     *
+     * @param records   o número de registros lidos
+     * @param bytesRead o total de bytes lidos até agora
+     */
+    void progress(int records, long bytesRead) {
+        processed.addAndGet(records);
+        this.bytesRead = bytesRead;
+    }
+
+    /**
+     * Registra registros gravados com sucesso
+     *
+     * @param count o número de registros gravados
+     */
+    void imported(int count) {
+        imported.addAndGet(count);
+    }
+
+    /**
+     * Registra a rejeição de um registro
+     *
+     * @param record  a posição do registro no arquivo
+     * @param message a descrição do erro
+     */
+    void reject(long record, String message) {
+        rejected.incrementAndGet();
+        if (errors.size() < MAX_STORED_ERRORS) {
+            errors.add(new RecordError(record, message));
+        }
+    }
+
+    /**
+     * Marca a importação como concluída
+     */
+    void complete() {
+        bytesRead = totalBytes;
+        finishedAt = Instant.now();
+        status = Status.COMPLETED;
+    }
+
+    /**
+     * Marca a importação como interrompida por um erro
+     *
+     * @param message a descrição do erro
+     */
+    void fail(String message) {
+        failureMessage = message;
+        finishedAt = Instant.now();
+        status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Format getFormat() {
+        return format;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public String getFailureMessage() {
+        return failureMessage;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public long getImported() {
+        return imported.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    /**
+     * Retorna uma cópia dos erros guardados
+     *
+     * @return a lista de erros, limitada a {@link #MAX_STORED_ERRORS}
+     */
+    public List<RecordError> getErrors() {
+        synchronized (errors) {
+            return List.copyOf(errors);
+        }
+    }
+
+    /**
+     * Retorna o percentual do arquivo já lido
+     *
+     * @return o percentual de 0 a 100
+     */
+    public int getPercent() {
+        return totalBytes == 0 ? 100 : (int) Math.min(100, bytesRead * 100 / totalBytes);
+    }
+
+    /**
+     * Retorna a taxa média de registros processados por segundo
+     *
+     * @return os registros por segundo desde o início da importação
+     */
+    public long getRecordsPerSecond() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return processed.get() * 1000 / millis;
+    }
+}
@@ -0,0 +1,496 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.event.EntityChangeEvent;
+import com.example.springdatapoo.event.OrderChangeEvent;
+import com.example.springdatapoo.io.CountingInputStream;
+import com.example.springdatapoo.io.CsvReader;
+import com.example.springdatapoo.io.CsvRecordSource;
+import com.example.springdatapoo.io.ImportRecord;
+import com.example.springdatapoo.io.JsonRecordSource;
+import com.example.springdatapoo.io.RecordSource;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.repository.ClientRepository;
+import com.example.springdatapoo.repository.OrderItemRepository;
+import com.example.springdatapoo.repository.OrderRepository;
+import com.example.springdatapoo.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Classe de Serviço para importação em massa de Produtos, Clientes e Pedidos
+ * Os arquivos (CSV ou JSON) são lidos registro a registro em uma thread separada,
+ * validados com as mesmas restrições das entidades e gravados em blocos,
+ * cada bloco em sua própria transação.
+ * Um registro inválido é rejeitado e anotado no ImportJob sem interromper a importação.
+ * Diferente dos demais serviços, esta classe não é transacional por inteiro:
+ * as transações são abertas por bloco.
+ * As importações rodam no executor de tarefas da aplicação, em threads virtuais,
+ * limitadas a app.import.max-concurrent simultâneas; as demais aguardam a sua vez.
+ * As importações concluídas ficam disponíveis para consulta por app.import.job-ttl e depois são descartadas.
+ */
+@Service
+public class ImportService {
+
+    private final ProductRepository productRepository;
+    private final ClientRepository clientRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int chunkSize;
+    private final AsyncTaskExecutor executor;
+    private final Semaphore permits;
+    private final Cache<String, ImportJob> jobs;
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Construtor da classe ImportService
+     *
+     * @param productRepository   o repositório para acesso aos dados de Produto
+     * @param clientRepository    o repositório para acesso aos dados de Cliente
+     * @param orderRepository     o repositório para acesso aos dados de Pedido
+     * @param orderItemRepository o repositório para acesso aos dados de Item de Pedido
+     * @param transactionTemplate o template para abrir uma transação por bloco
+     * @param validator           o validador de Bean Validation
+     * @param objectMapper        o ObjectMapper para leitura de JSON
+     * @param eventPublisher      o publicador dos eventos de criação dos registros importados
+     * @param chunkSize           o número de registros gravados por transação
+     * @param executor            o executor de tarefas da aplicação, onde as importações rodam
+     * @param maxConcurrent       o número máximo de importações simultâneas
+     * @param jobTtl              por quanto tempo uma importação concluída continua disponível para consulta
+     * @param meterRegistry       o registro de métricas, onde são expostas as importações em andamento e na fila
+     */
+    public ImportService(ProductRepository productRepository,
+                         ClientRepository clientRepository,
+                         OrderRepository orderRepository,
+                         OrderItemRepository orderItemRepository,
+                         TransactionTemplate transactionTemplate,
+                         Validator validator,
+                         ObjectMapper objectMapper,
+                         ApplicationEventPublisher eventPublisher,
+                         @Value("${app.import.chunk-size:1000}") int chunkSize,
+                         @Qualifier("applicationTaskExecutor") AsyncTaskExecutor executor,
+                         @Value("${app.import.max-concurrent:2}") int maxConcurrent,
+                         @Value("${app.import.job-ttl:PT1H}") Duration jobTtl,
+                         MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.clientRepository = clientRepository;
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.chunkSize = chunkSize;
+        this.executor = executor;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.jobs = Caffeine.newBuilder()
+                .expireAfter(Expiry.writing((String id, ImportJob job) ->
+                        job.getFinishedAt() == null ? Duration.ofNanos(Long.MAX_VALUE) : jobTtl))
+                .build();
+        Gauge.builder("app.import.running", permits, semaphore -> maxConcurrent - semaphore.availablePermits())
+                .description("Importações em andamento")
+                .register(meterRegistry);
+        Gauge.builder("app.import.waiting", permits, Semaphore::getQueueLength)
+                .description("Importações aguardando a sua vez")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Inicia a importação de um arquivo enviado
+     * O arquivo é copiado para um arquivo temporário e processado em segundo plano.
+     *
+     * @param type   o tipo de dado contido no arquivo
+     * @param format o formato do arquivo
+     * @param file   o arquivo enviado
+     * @return a importação criada, para acompanhamento do progresso
+     * @throws IOException se o arquivo não puder ser copiado
+     */
+    public ImportJob start(ImportJob.Type type, ImportJob.Format format, MultipartFile file) throws IOException {
+        Path path = Files.createTempFile("import-", "." + format.name().toLowerCase());
+        file.transferTo(path);
+        ImportJob job = new ImportJob(type, format, file.getOriginalFilename(), Files.size(path));
+        jobs.put(job.getId(), job);
+        executor.execute(() -> runInTurn(job, path));
+        return job;
+    }
+
+    /**
+     * Procura uma importação por seu ID
+     *
+     * @param id o ID da importação
+     * @return a importação, se existir
+     */
+    public Optional<ImportJob> findJob(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    /**
+     * Interrompe as importações em andamento ao desligar a aplicação
+     */
+    @PreDestroy
+    public void shutdown() {
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Aguarda a vez da importação, executa-a e a mantém disponível para consulta pelo tempo configurado
+     *
+     * @param job  a importação criada
+     * @param path o arquivo temporário a ser lido
+     */
+    private void runInTurn(ImportJob job, Path path) {
+        workers.add(Thread.currentThread());
+        try {
+            permits.acquire();
+            try {
+                run(job, path);
+            } finally {
+                permits.release();
+            }
+        } catch (InterruptedException e) {
+            job.fail("The import was interrupted");
+            deleteQuietly(path);
+        } finally {
+            workers.remove(Thread.currentThread());
+            jobs.put(job.getId(), job);
+        }
+    }
+
+    /**
+     * Lê o arquivo registro a registro e grava os registros em blocos
+     *
+     * @param job  a importação em andamento
+     * @param path o arquivo temporário a ser lido
+     */
+    private void run(ImportJob job, Path path) {
+        CountingInputStream input = null;
+        try {
+            input = new CountingInputStream(new BufferedInputStream(Files.newInputStream(path)));
+            try (RecordSource source = openSource(job, input)) {
+                List<ImportRecord> chunk = new ArrayList<>(chunkSize);
+                ImportRecord record;
+                while ((record = source.next()) != null) {
+                    chunk.add(record);
+                    if (chunk.size() == chunkSize) {
+                        writeChunk(job, chunk);
+                        job.progress(chunk.size(), input.getCount());
+                        chunk.clear();
+                    }
+                }
+                writeChunk(job, chunk);
+                job.progress(chunk.size(), input.getCount());
+            }
+            job.complete();
+        } catch (Exception e) {
+            job.fail(NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        } finally {
+            deleteQuietly(path);
+        }
+    }
+
+    /**
+     * Exclui o arquivo temporário de uma importação
+     *
+     * @param path o arquivo temporário
+     */
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // o arquivo temporário será removido pelo sistema operacional
+        }
+    }
+
+    /**
+     * Cria a fonte de registros adequada ao formato e ao tipo da importação
+     *
+     * @param job   a importação em andamento
+     * @param input o conteúdo do arquivo
+     * @return a fonte de registros
+     * @throws IOException se o início do arquivo não puder ser lido
+     */
+    private RecordSource openSource(ImportJob job, CountingInputStream input) throws IOException {
+        if (job.getFormat() == ImportJob.Format.JSON) {
+            return new JsonRecordSource(objectMapper.createParser(input));
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        String groupBy = job.getType() == ImportJob.Type.ORDERS ? "orderRef" : null;
+        return new CsvRecordSource(new CsvReader(reader, ','), groupBy);
+    }
+
+    /**
+     * Valida e grava um bloco de registros conforme o tipo da importação
+     *
+     * @param job   a importação em andamento
+     * @param chunk o bloco de registros
+     */
+    private void writeChunk(ImportJob job, List<ImportRecord> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        switch (job.getType()) {
+            case PRODUCTS -> writeEntities(job, chunk, Product.class, this::toProduct,
+                    productRepository::saveAll, Product::getId);
+            case CLIENTS -> writeEntities(job, chunk, Client.class, this::toClient,
+                    clientRepository::saveAll, Client::getId);
+            case ORDERS -> writeOrders(job, chunk);
+        }
+    }
+
+    /**
+     * Converte e valida cada registro do bloco e grava os válidos
+     *
+     * @param job    a importação em andamento
+     * @param chunk  o bloco de registros
+     * @param type   a classe da entidade
+     * @param mapper a conversão de registro para entidade
+     * @param writer a gravação de uma lista de entidades
+     * @param idOf   a função que retorna o ID de uma entidade gravada
+     * @param <T>    o tipo da entidade
+     */
+    private <T> void writeEntities(ImportJob job, List<ImportRecord> chunk, Class<T> type,
+                                   Function<ImportRecord, T> mapper, Consumer<List<T>> writer,
+                                   Function<T, Long> idOf) {
+        List<ImportRecord> valid = new ArrayList<>(chunk.size());
+        for (ImportRecord record : chunk) {
+            try {
+                if (isValid(job, record, mapper.apply(record))) {
+                    valid.add(record);
+                }
+            } catch (IllegalArgumentException e) {
+                job.reject(record.number(), e.getMessage());
+            }
+        }
+        persist(job, valid, records -> {
+            List<T> entities = records.stream().map(mapper).toList();
+            writer.accept(entities);
+            for (T entity : entities) {
+                eventPublisher.publishEvent(EntityChangeEvent.saved(type, idOf.apply(entity), entity, true));
+            }
+        });
+    }
+
+    /**
+     * Converte, valida e grava um bloco de Pedidos
+     * Os Clientes e Produtos referenciados pelo bloco são buscados com uma consulta cada.
+     *
+     * @param job   a importação em andamento
+     * @param chunk o bloco de registros de Pedido
+     */
+    private void writeOrders(ImportJob job, List<ImportRecord> chunk) {
+        Set<Long> clientIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (ImportRecord record : chunk) {
+            parseIdQuietly(record.fields().get("clientId")).ifPresent(clientIds::add);
+            for (Map<String, String> line : record.children()) {
+                parseIdQuietly(line.get("productId")).ifPresent(productIds::add);
+            }
+        }
+        Map<Long, Client> clients = clientRepository.findAllById(clientIds).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        Map<Long, Product> products = productRepository.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<ImportRecord> valid = new ArrayList<>(chunk.size());
+        for (ImportRecord record : chunk) {
+            try {
+                toOrder(record, clients, products);
+                valid.add(record);
+            } catch (IllegalArgumentException e) {
+                job.reject(record.number(), e.getMessage());
+            }
+        }
+        persist(job, valid, records -> {
+            List<Order> orders = new ArrayList<>(records.size());
+            List<OrderItem> items = new ArrayList<>();
+            for (ImportRecord record : records) {
+                Order order = toOrder(record, clients, products);
+                orders.add(order);
+                items.addAll(order.getOrderItemList());
+            }
+            orderRepository.saveAll(orders);
+            orderItemRepository.saveAll(items);
+            for (Order order : orders) {
+                eventPublisher.publishEvent(EntityChangeEvent.saved(Order.class, order.getId(), order, true));
+                eventPublisher.publishEvent(new OrderChangeEvent(order.getId(), null,
+                        OrderChangeEvent.Snapshot.of(order, order.getOrderItemList())));
+            }
+        });
+    }
+
+    /**
+     * Grava os registros em uma única transação
+     * Se o bloco falhar (por exemplo, por um email duplicado), os registros são gravados
+     * um a um para identificar e rejeitar apenas os que causaram a falha.
+     *
+     * @param job     a importação em andamento
+     * @param records os registros válidos do bloco
+     * @param writer  a gravação de uma lista de registros
+     */
+    private void persist(ImportJob job, List<ImportRecord> records, Consumer<List<ImportRecord>> writer) {
+        if (records.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> writer.accept(records));
+            job.imported(records.size());
+        } catch (RuntimeException chunkError) {
+            for (ImportRecord record : records) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> writer.accept(List.of(record)));
+                    job.imported(1);
+                } catch (RuntimeException recordError) {
+                    job.reject(record.number(), NestedExceptionUtils.getMostSpecificCause(recordError).getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Valida uma entidade com as restrições de Bean Validation
+     *
+     * @param job    a importação em andamento
+     * @param record o registro de origem
+     * @param entity a entidade convertida
+     * @return true se a entidade for válida
+     */
+    private boolean isValid(ImportJob job, ImportRecord record, Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity);
+        if (violations.isEmpty()) {
+            return true;
+        }
+        job.reject(record.number(), violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining(" ")));
+        return false;
+    }
+
+    /**
+     * Converte um registro em Produto
+     *
+     * @param record o registro com os campos name, description, price e weight
+     * @return o Produto
+     */
+    private Product toProduct(ImportRecord record) {
+        Product product = new Product();
+        product.setName(record.fields().get("name"));
+        product.setDescription(record.fields().get("description"));
+        product.setPrice(ImportRecord.requiredMoney(record.fields(), "price"));
+        product.setWeight(ImportRecord.requiredDouble(record.fields(), "weight"));
+        return product;
+    }
+
+    /**
+     * Converte um registro em Cliente
+     *
+     * @param record o registro com os campos name, email, address e cep
+     * @return o Cliente
+     */
+    private Client toClient(ImportRecord record) {
+        Client client = new Client();
+        client.setName(record.fields().get("name"));
+        client.setEmail(record.fields().get("email"));
+        client.setAddress(record.fields().get("address"));
+        client.setCep(record.fields().get("cep"));
+        return client;
+    }
+
+    /**
+     * Converte um registro em Pedido, com seus itens e o preço total calculado
+     *
+     * @param record   o registro com os campos clientId e deliveryDays e os itens (productId, quantity)
+     * @param clients  os Clientes referenciados pelo bloco
+     * @param products os Produtos referenciados pelo bloco
+     * @return o Pedido
+     * @throws IllegalArgumentException se algum campo for inválido ou referenciar um registro inexistente
+     */
+    private Order toOrder(ImportRecord record, Map<Long, Client> clients, Map<Long, Product> products) {
+        long clientId = ImportRecord.requiredLong(record.fields(), "clientId");
+        Client client = clients.get(clientId);
+        if (client == null) {
+            throw new IllegalArgumentException("Client " + clientId + " does not exist.");
+        }
+        if (record.children().isEmpty()) {
+            throw new IllegalArgumentException("Order has no items.");
+        }
+
+        Order order = new Order();
+        order.setClient(client);
+        order.setDeliveryDays(ImportRecord.requiredLong(record.fields(), "deliveryDays"));
+        for (Map<String, String> line : record.children()) {
+            long productId = ImportRecord.requiredLong(line, "productId");
+            Product product = products.get(productId);
+            if (product == null) {
+                throw new IllegalArgumentException("Product " + productId + " does not exist.");
+            }
+            long quantity = ImportRecord.requiredLong(line, "quantity");
+            if (quantity <= 0 || quantity > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("Quantity must be a positive integer: " + quantity);
+            }
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity((int) quantity);
+            item.setUnitPrice(product.getPrice());
+            order.getOrderItemList().add(item);
+        }
+        order.recalculateTotalPrice();
+        return order;
+    }
+
+    /**
+     * Converte um ID sem lançar exceções
+     *
+     * @param value o texto do ID
+     * @return o ID, se o texto for um número inteiro
+     */
+    private static Optional<Long> parseIdQuietly(String value) {
+        try {
+            return value == null ? Optional.empty() : Optional.of(Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
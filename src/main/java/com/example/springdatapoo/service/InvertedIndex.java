@@ -0,0 +1,366 @@
+package com.example.springdatapoo.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice invertido em memória para busca textual
+ * Cada documento recebe um número interno crescente e cada termo guarda uma lista de postagens
+ * (números dos documentos e frequência do termo), mantida em arrays primitivos ordenados.
+ * Uma busca intersecta as listas dos termos consultados, começando pela menor,
+ * e ordena os documentos encontrados pela relevância BM25.
+ * Documentos alterados ou excluídos são apenas marcados como removidos;
+ * quando a proporção de removidos fica alta, as listas são compactadas e os documentos restantes renumerados,
+ * para que os números, os arrays de IDs e tamanhos e o conjunto de removidos não cresçam a cada alteração.
+ * Buscas podem ocorrer em paralelo; alterações são exclusivas.
+ */
+public class InvertedIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MIN_DELETED_TO_COMPACT = 1024;
+
+    private final int[] fieldWeights;
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<Long, Integer> documentById = new HashMap<>();
+    private BitSet deleted = new BitSet();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private long[] ids = new long[1024];
+    private int[] lengths = new int[1024];
+    private int nextDocument;
+    private int pendingDeletes;
+    private long totalLength;
+
+    /**
+     * Resultado de uma busca
+     *
+     * @param total o número total de documentos encontrados
+     * @param ids   os IDs dos documentos da página pedida, do mais para o menos relevante
+     */
+    public record Result(long total, List<Long> ids) {
+    }
+
+    /**
+     * Construtor da classe InvertedIndex
+     *
+     * @param fieldWeights o peso de cada campo indexado, na ordem em que os campos são passados a put;
+     *                     um termo encontrado em um campo conta como tantas ocorrências quanto o peso do campo
+     */
+    public InvertedIndex(int... fieldWeights) {
+        this.fieldWeights = fieldWeights.clone();
+    }
+
+    /**
+     * Indexa um documento, substituindo o que estiver indexado com o mesmo ID
+     *
+     * @param id     o ID do documento
+     * @param fields os textos dos campos, na ordem dos pesos informados no construtor
+     */
+    public void put(long id, String... fields) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (int i = 0; i < fields.length && i < fieldWeights.length; i++) {
+            for (String term : tokenize(fields[i])) {
+                frequencies.merge(term, fieldWeights[i], Integer::sum);
+                length += fieldWeights[i];
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+            if (frequencies.isEmpty()) {
+                return;
+            }
+            int document = nextDocument++;
+            if (document == ids.length) {
+                ids = Arrays.copyOf(ids, ids.length * 2);
+                lengths = Arrays.copyOf(lengths, lengths.length * 2);
+            }
+            ids[document] = id;
+            lengths[document] = length;
+            totalLength += length;
+            documentById.put(id, document);
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new Postings()).add(document, frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove um documento do índice
+     *
+     * @param id o ID do documento
+     */
+    public void remove(long id) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca os documentos que contêm todos os termos da consulta
+     *
+     * @param query  o texto da consulta
+     * @param offset o número de documentos mais relevantes a pular
+     * @param limit  o número máximo de documentos retornados
+     * @return o total de documentos encontrados e os IDs da página pedida
+     */
+    public Result search(String query, int offset, int limit) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return new Result(0, List.of());
+        }
+
+        lock.readLock().lock();
+        try {
+            List<Postings> lists = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    return new Result(0, List.of());
+                }
+                lists.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+
+            int documents = Math.max(documentById.size(), 1);
+            double averageLength = Math.max(totalLength, 1) / (double) documents;
+            double[] idf = new double[lists.size()];
+            for (int j = 0; j < lists.size(); j++) {
+                int df = lists.get(j).size;
+                idf[j] = Math.log(1 + (documents - df + 0.5) / (df + 0.5));
+            }
+
+            int wanted = offset + limit;
+            Comparator<ScoredDocument> byRelevance = Comparator.comparingDouble(ScoredDocument::score)
+                    .thenComparing(ScoredDocument::document, Comparator.reverseOrder());
+            PriorityQueue<ScoredDocument> top = new PriorityQueue<>(byRelevance);
+            int[] cursors = new int[lists.size()];
+            Postings shortest = lists.get(0);
+            long total = 0;
+
+            candidates:
+            for (int i = 0; i < shortest.size; i++) {
+                int document = shortest.documents[i];
+                if (deleted.get(document)) {
+                    continue;
+                }
+                double normalization = K1 * (1 - B + B * lengths[document] / averageLength);
+                double score = bm25(shortest.frequencies[i], idf[0], normalization);
+                for (int j = 1; j < lists.size(); j++) {
+                    Postings list = lists.get(j);
+                    int position = Arrays.binarySearch(list.documents, cursors[j], list.size, document);
+                    if (position < 0) {
+                        cursors[j] = -position - 1;
+                        if (cursors[j] == list.size) {
+                            break candidates;
+                        }
+                        continue candidates;
+                    }
+                    cursors[j] = position;
+                    score += bm25(list.frequencies[position], idf[j], normalization);
+                }
+                total++;
+                top.offer(new ScoredDocument(document, score));
+                if (top.size() > wanted) {
+                    top.poll();
+                }
+            }
+
+            List<ScoredDocument> ranked = new ArrayList<>(top);
+            ranked.sort(byRelevance.reversed());
+            List<Long> page = new ArrayList<>();
+            for (int i = offset; i < ranked.size(); i++) {
+                page.add(ids[ranked.get(i).document()]);
+            }
+            return new Result(total, page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o número de documentos indexados
+     *
+     * @return o número de documentos
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documentById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna o número de documentos numerados, incluindo os removidos ainda não compactados
+     *
+     * @return o próximo número de documento
+     */
+    int slots() {
+        lock.readLock().lock();
+        try {
+            return nextDocument;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Divide um texto em termos normalizados: minúsculos, sem acentos, apenas letras e dígitos
+     *
+     * @param text o texto original
+     * @return os termos, na ordem em que aparecem
+     */
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        for (String term : PrefixIndex.normalize(text).split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Calcula a contribuição BM25 de um termo para um documento
+     *
+     * @param frequency     a frequência do termo no documento
+     * @param idf           o peso do termo no índice
+     * @param normalization o fator de normalização pelo tamanho do documento
+     * @return a pontuação do termo
+     */
+    private static double bm25(int frequency, double idf, double normalization) {
+        return idf * frequency * (K1 + 1) / (frequency + normalization);
+    }
+
+    /**
+     * Marca um documento como removido; deve ser chamado com o bloqueio de escrita
+     *
+     * @param id o ID do documento
+     */
+    private void removeDocument(long id) {
+        Integer document = documentById.remove(id);
+        if (document == null) {
+            return;
+        }
+        deleted.set(document);
+        totalLength -= lengths[document];
+        pendingDeletes++;
+        if (pendingDeletes >= MIN_DELETED_TO_COMPACT && pendingDeletes * 4 >= documentById.size()) {
+            compact();
+        }
+    }
+
+    /**
+     * Retira das listas de postagens os documentos removidos e renumera os restantes; deve ser chamado com o bloqueio de escrita
+     * Os documentos restantes mantêm a ordem relativa, de modo que as listas continuam ordenadas.
+     */
+    private void compact() {
+        int[] renumbered = new int[nextDocument];
+        int live = 0;
+        for (int document = 0; document < nextDocument; document++) {
+            if (deleted.get(document)) {
+                renumbered[document] = -1;
+            } else {
+                renumbered[document] = live;
+                ids[live] = ids[document];
+                lengths[live] = lengths[document];
+                live++;
+            }
+        }
+        Iterator<Postings> iterator = postings.values().iterator();
+        while (iterator.hasNext()) {
+            Postings list = iterator.next();
+            list.renumber(renumbered);
+            if (list.size == 0) {
+                iterator.remove();
+            }
+        }
+        documentById.replaceAll((id, document) -> renumbered[document]);
+
+        int capacity = Math.max(1024, Integer.highestOneBit(Math.max(live, 1)) * 2);
+        if (capacity < ids.length) {
+            ids = Arrays.copyOf(ids, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        nextDocument = live;
+        deleted = new BitSet(capacity);
+        pendingDeletes = 0;
+    }
+
+    /**
+     * Documento encontrado com a sua pontuação
+     *
+     * @param document o número interno do documento
+     * @param score    a pontuação de relevância
+     */
+    private record ScoredDocument(int document, double score) {
+    }
+
+    /**
+     * Lista de postagens de um termo, ordenada pelo número do documento
+     */
+    private static final class Postings {
+
+        private int[] documents = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        /**
+         * Acrescenta um documento ao final da lista
+         *
+         * @param document  o número do documento, maior do que todos os já presentes
+         * @param frequency a frequência do termo no documento
+         */
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        /**
+         * Remove os documentos removidos e troca os números dos restantes, preservando a ordem
+         * Os arrays são reduzidos quando ficam com menos de um quarto ocupado.
+         *
+         * @param renumbered o novo número de cada documento, ou -1 para os removidos
+         */
+        void renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int document = renumbered[documents[i]];
+                if (document >= 0) {
+                    documents[kept] = document;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            if (size < documents.length / 4) {
+                documents = Arrays.copyOf(documents, Math.max(4, size * 2));
+                frequencies = Arrays.copyOf(frequencies, Math.max(4, size * 2));
+            }
+        }
+    }
+}
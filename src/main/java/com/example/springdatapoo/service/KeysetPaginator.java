@@ -0,0 +1,196 @@
+package com.example.springdatapoo.service;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import org.hibernate.FlushMode;
+import org.hibernate.jpa.HibernateHints;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Paginação por chave (keyset/seek) para qualquer entidade com ID
+ * Em vez de LIMIT/OFFSET, a próxima página é buscada a partir do último registro exibido:
+ * WHERE (campo, id) &gt; (último valor, último id) ORDER BY campo, id.
+ * Com um índice no campo de ordenação, cada página é uma busca no índice,
+ * e o tempo de resposta não depende da profundidade da página.
+ * As entidades da fatia são carregadas somente leitura.
+ * Quando o campo de ordenação é uma associação (por exemplo, o Cliente de um Pedido),
+ * a ordenação é feita pelo ID da entidade associada.
+ * Valores nulos no campo de ordenação vêm antes de todos os outros na ordem ascendente e depois na descendente,
+ * como no MySQL e no H2, para que o cursor de uma página obtida por LIMIT/OFFSET continue válido na busca por chave;
+ * um cursor com valor nulo é tratado por um ramo IS NULL, já que comparações com nulo nunca são verdadeiras.
+ */
+@Component
+public class KeysetPaginator {
+
+    private final EntityManager entityManager;
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+    /**
+     * Construtor da classe KeysetPaginator
+     *
+     * @param entityManager o EntityManager usado para montar as consultas
+     */
+    public KeysetPaginator(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Busca a fatia de registros posterior ao cursor informado
+     *
+     * @param type      a classe da entidade
+     * @param sortField o campo pelo qual ordenar
+     * @param sortDir   a direção da ordenação (asc ou desc)
+     * @param after     o valor do campo de ordenação do último registro exibido, ou null se esse valor for nulo
+     * @param afterId   o ID do último registro exibido, ou null para a primeira fatia
+     * @param size      o número de registros da fatia
+     * @param fetches   as associações carregadas na mesma consulta
+     * @param <T>       o tipo da entidade
+     * @return a fatia de registros com o cursor para a próxima
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public <T> KeysetSlice<T> seek(Class<T> type, String sortField, String sortDir,
+                                   String after, Long afterId, int size, String... fetches) {
+        boolean ascending = sortDir.equals("asc");
+        HibernateCriteriaBuilder cb = (HibernateCriteriaBuilder) entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        for (String fetch : fetches) {
+            root.fetch(fetch, JoinType.LEFT);
+        }
+        Path<Comparable> sortPath = (Path) sortPath(root, type, sortField);
+        Path<Long> idPath = root.get("id");
+
+        if (afterId != null) {
+            Comparable value = after == null ? null
+                    : (Comparable) conversionService.convert(after, sortPath.getJavaType());
+            query.where(after(cb, sortPath, idPath, value, afterId, ascending));
+        }
+        query.select(root).orderBy(ascending
+                ? List.of(cb.asc(sortPath, true), cb.asc(idPath))
+                : List.of(cb.desc(sortPath, false), cb.desc(idPath)));
+
+        List<T> rows = entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setHint(HibernateHints.HINT_FLUSH_MODE, FlushMode.MANUAL)
+                .setMaxResults(size + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > size;
+        return sliceOf(type, hasNext ? rows.subList(0, size) : rows, hasNext, sortField);
+    }
+
+    /**
+     * Monta a condição dos registros posteriores ao cursor, com os nulos antes dos demais valores na ordem ascendente
+     *
+     * @param cb        o construtor de consultas
+     * @param sortPath  o caminho do campo de ordenação
+     * @param idPath    o caminho do ID
+     * @param value     o valor do campo de ordenação do último registro exibido, possivelmente nulo
+     * @param afterId   o ID do último registro exibido
+     * @param ascending indica se a ordenação é ascendente
+     * @return a condição
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder cb, Path<Comparable> sortPath, Path<Long> idPath,
+                                   Comparable value, Long afterId, boolean ascending) {
+        if (value == null) {
+            Predicate sameNullValue = cb.and(cb.isNull(sortPath),
+                    ascending ? cb.greaterThan(idPath, afterId) : cb.lessThan(idPath, afterId));
+            return ascending ? cb.or(sameNullValue, cb.isNotNull(sortPath)) : sameNullValue;
+        }
+        Predicate sameValue = cb.and(cb.equal(sortPath, value),
+                ascending ? cb.greaterThan(idPath, afterId) : cb.lessThan(idPath, afterId));
+        return ascending
+                ? cb.or(cb.greaterThan(sortPath, value), sameValue)
+                : cb.or(cb.lessThan(sortPath, value), sameValue, cb.isNull(sortPath));
+    }
+
+    /**
+     * Monta uma fatia a partir de registros já carregados, calculando o cursor do último registro
+     * Permite que uma página obtida por LIMIT/OFFSET ofereça um link de próxima página por chave.
+     *
+     * @param type      a classe da entidade
+     * @param content   os registros carregados, na ordem de exibição
+     * @param hasNext   indica se existem registros após estes
+     * @param sortField o campo pelo qual os registros foram ordenados
+     * @param <T>       o tipo da entidade
+     * @return a fatia com o cursor para a próxima
+     */
+    public <T> KeysetSlice<T> sliceOf(Class<T> type, List<T> content, boolean hasNext, String sortField) {
+        String propertyPath = propertyPath(type, sortField);
+        return sliceOf(content, hasNext,
+                row -> new BeanWrapperImpl(row).getPropertyValue(propertyPath),
+                row -> (Long) new BeanWrapperImpl(row).getPropertyValue("id"));
+    }
+
+    /**
+     * Monta uma fatia a partir de registros já carregados, como projeções,
+     * usando as funções informadas para ler o cursor do último registro
+     *
+     * @param content   os registros carregados, na ordem de exibição
+     * @param hasNext   indica se existem registros após estes
+     * @param sortValue a função que retorna o valor do campo de ordenação de um registro
+     * @param id        a função que retorna o ID de um registro
+     * @param <T>       o tipo dos registros
+     * @return a fatia com o cursor para a próxima
+     */
+    public <T> KeysetSlice<T> sliceOf(List<T> content, boolean hasNext,
+                                      Function<T, Object> sortValue, Function<T, Long> id) {
+        if (!hasNext || content.isEmpty()) {
+            return new KeysetSlice<>(content, false, null, null);
+        }
+        T last = content.get(content.size() - 1);
+        Object value = sortValue.apply(last);
+        return new KeysetSlice<>(content, true, value == null ? null : value.toString(), id.apply(last));
+    }
+
+    /**
+     * Retorna o caminho da consulta para o campo de ordenação
+     *
+     * @param root      a raiz da consulta
+     * @param type      a classe da entidade
+     * @param sortField o campo de ordenação
+     * @param <T>       o tipo da entidade
+     * @return o caminho do campo, ou do ID da entidade associada
+     */
+    private <T> Path<?> sortPath(Root<T> root, Class<T> type, String sortField) {
+        Path<?> path = root.get(sortField);
+        return isAssociation(type, sortField) ? path.get("id") : path;
+    }
+
+    /**
+     * Retorna o caminho de propriedade usado para ler o valor do cursor
+     *
+     * @param type      a classe da entidade
+     * @param sortField o campo de ordenação
+     * @return o nome do campo, ou o caminho para o ID da entidade associada
+     */
+    private String propertyPath(Class<?> type, String sortField) {
+        return isAssociation(type, sortField) ? sortField + ".id" : sortField;
+    }
+
+    /**
+     * Verifica se o campo é uma associação com outra entidade
+     *
+     * @param type      a classe da entidade
+     * @param sortField o nome do campo
+     * @return true se o campo for uma associação
+     * @throws IllegalArgumentException se o campo não existir na entidade
+     */
+    private boolean isAssociation(Class<?> type, String sortField) {
+        Attribute<?, ?> attribute = entityManager.getMetamodel().entity(type).getAttribute(sortField);
+        return attribute.isAssociation();
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.springdatapoo.service;
+
+import java.util.List;
+
+/**
+ * Fatia de resultados obtida por paginação por chave (keyset)
+ * Contém o cursor (valor do campo de ordenação e ID do último registro)
+ * usado para buscar a fatia seguinte.
+ *
+ * @param content     os registros da fatia
+ * @param hasNext     indica se existem registros após esta fatia
+ * @param nextAfter   o valor do campo de ordenação do último registro, ou null se não houver próxima fatia
+ * @param nextAfterId o ID do último registro, ou null se não houver próxima fatia
+ * @param <T>         o tipo dos registros
+ */
+public record KeysetSlice<T>(List<T> content, boolean hasNext, String nextAfter, Long nextAfterId) {
+}
@@ -0,0 +1,170 @@
+package com.example.springdatapoo.service;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de totais de vendas indexada por uma chave long (ID de Cliente, ID de Produto ou dia)
+ * Usa endereçamento aberto sobre arrays primitivos paralelos, sem objetos por chave:
+ * cada chave ocupa cerca de 32 bytes (chave, receita em centavos, quantidade e número de Pedidos).
+ * Chaves nunca são removidas; uma chave cujos totais voltam a zero continua na tabela.
+ * Não é segura para uso concorrente; o acesso deve ser sincronizado por quem a utiliza.
+ */
+public class LongKeyedTotals {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] keys;
+    private long[] revenueCents;
+    private long[] quantities;
+    private long[] orders;
+    private int size;
+
+    /**
+     * Visitante das entradas da tabela
+     */
+    @FunctionalInterface
+    public interface Visitor {
+
+        /**
+         * Recebe uma entrada da tabela
+         *
+         * @param key          a chave
+         * @param revenueCents a receita, em centavos
+         * @param quantity     a quantidade vendida
+         * @param orders       o número de Pedidos
+         */
+        void visit(long key, long revenueCents, long quantity, long orders);
+    }
+
+    /**
+     * Construtor da classe LongKeyedTotals
+     */
+    public LongKeyedTotals() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Soma valores aos totais de uma chave, criando-a se necessário
+     * Valores negativos subtraem, o que permite desfazer a contribuição de um Pedido.
+     *
+     * @param key          a chave (não pode ser Long.MIN_VALUE)
+     * @param revenueCents a receita a somar, em centavos
+     * @param quantity     a quantidade a somar
+     * @param orderCount   o número de Pedidos a somar
+     */
+    public void add(long key, long revenueCents, long quantity, long orderCount) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Key " + key + " is reserved.");
+        }
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            if ((size + 1) * 4L > keys.length * 3L) {
+                grow();
+                slot = slotOf(key);
+            }
+            keys[slot] = key;
+            size++;
+        }
+        this.revenueCents[slot] += revenueCents;
+        this.quantities[slot] += quantity;
+        this.orders[slot] += orderCount;
+    }
+
+    /**
+     * Entrega ao visitante os totais de uma chave
+     *
+     * @param key     a chave
+     * @param visitor o visitante da entrada
+     * @return true se a chave existir
+     */
+    public boolean get(long key, Visitor visitor) {
+        int slot = slotOf(key);
+        if (keys[slot] == EMPTY) {
+            return false;
+        }
+        visitor.visit(key, revenueCents[slot], quantities[slot], orders[slot]);
+        return true;
+    }
+
+    /**
+     * Percorre todas as entradas da tabela, em ordem indefinida
+     *
+     * @param visitor o visitante de cada entrada
+     */
+    public void forEach(Visitor visitor) {
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                visitor.visit(keys[slot], revenueCents[slot], quantities[slot], orders[slot]);
+            }
+        }
+    }
+
+    /**
+     * Retorna o número de chaves da tabela
+     *
+     * @return o número de chaves
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Encontra a posição de uma chave, ou a posição livre onde ela seria inserida
+     *
+     * @param key a chave
+     * @return a posição nos arrays
+     */
+    private int slotOf(long key) {
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Espalha os bits da chave, para que IDs sequenciais não se agrupem na tabela
+     *
+     * @param key a chave
+     * @return o hash da chave
+     */
+    private static int mix(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Dobra a capacidade da tabela, reinserindo as chaves existentes
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        long[] oldRevenue = revenueCents;
+        long[] oldQuantities = quantities;
+        long[] oldOrders = orders;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                revenueCents[slot] = oldRevenue[i];
+                quantities[slot] = oldQuantities[i];
+                orders[slot] = oldOrders[i];
+            }
+        }
+    }
+
+    /**
+     * Cria arrays vazios com a capacidade informada
+     *
+     * @param capacity a capacidade, potência de dois
+     */
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        revenueCents = new long[capacity];
+        quantities = new long[capacity];
+        orders = new long[capacity];
+    }
+}
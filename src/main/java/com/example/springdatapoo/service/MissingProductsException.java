@@ -0,0 +1,32 @@
+package com.example.springdatapoo.service;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exceção lançada quando um ou mais Produtos referenciados não existem
+ * Carrega os IDs ausentes para que a mensagem de validação possa indicá-los.
+ */
+public class MissingProductsException extends IllegalArgumentException {
+
+    private final List<Long> missingIds;
+
+    /**
+     * Construtor da classe MissingProductsException
+     *
+     * @param missingIds os IDs dos Produtos que não foram encontrados
+     */
+    public MissingProductsException(Collection<Long> missingIds) {
+        super("Products not found: " + missingIds);
+        this.missingIds = List.copyOf(missingIds);
+    }
+
+    /**
+     * Recupera os IDs dos Produtos que não foram encontrados
+     *
+     * @return a lista de IDs ausentes
+     */
+    public List<Long> getMissingIds() {
+        return missingIds;
+    }
+}
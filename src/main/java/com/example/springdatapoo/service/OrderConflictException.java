@@ -0,0 +1,17 @@
+package com.example.springdatapoo.service;
+
+/**
+ * Exceção lançada quando um Pedido editado no formulário foi alterado por outro usuário
+ * e as alterações dos dois não puderam ser mescladas
+ */
+public class OrderConflictException extends RuntimeException {
+
+    /**
+     * Construtor da classe OrderConflictException
+     *
+     * @param message a descrição das alterações conflitantes
+     */
+    public OrderConflictException(String message) {
+        super(message);
+    }
+}
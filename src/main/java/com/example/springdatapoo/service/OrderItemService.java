@@ -2,17 +2,15 @@ package com.example.springdatapoo.service;
 
 import com.example.springdatapoo.model.OrderItem;
 import com.example.springdatapoo.repository.OrderItemRepository;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.data.jpa.repository.Modifying;
 
 import java.util.List;
 
 /**
  * Classe de Serviço para gerenciar a Entidade OrderItem
  * Contém métodos para efetuar operações CRUD em Itens de um Pedido
+ * As consultas são executadas em transações somente leitura
  */
 @Service
 @Transactional
@@ -33,10 +31,22 @@ public class OrderItemService {
      *
      * @return uma lista de Itens de Pedido
      */
+    @Transactional(readOnly = true)
     public List<OrderItem> findAll() {
         return orderItemRepository.findAll();
     }
 
+    /**
+     * Recupera os Itens de um Pedido específico
+     *
+     * @param orderId o ID do Pedido
+     * @return uma lista com os Itens do Pedido
+     */
+    @Transactional(readOnly = true)
+    public List<OrderItem> findByOrderId(long orderId) {
+        return orderItemRepository.findByOrderId(orderId);
+    }
+
     /**
      * Salva um Item de Pedido no banco de dados
      *
@@ -54,4 +64,14 @@ public class OrderItemService {
     public void delete(long id) {
         orderItemRepository.deleteById(id);
     }
+
+    /**
+     * Exclui todos os Itens de um Pedido com uma única instrução
+     *
+     * @param orderId o ID do Pedido cujos Itens serão excluídos
+     * @return o número de Itens excluídos
+     */
+    public int deleteByOrderId(long orderId) {
+        return orderItemRepository.deleteByOrderId(orderId);
+    }
 }
@@ -0,0 +1,327 @@
+package com.example.springdatapoo.service;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Armazenamento colunar, em memória, das linhas de Pedido
+ * Cada coluna (Pedido, Cliente, Produto, dia, quantidade e preço) é um array primitivo,
+ * e a linha i é formada pela posição i de todos eles. Uma agregação percorre só as colunas
+ * de que precisa, em paralelo, dividindo as linhas entre as threads de um ForkJoinPool.
+ * As linhas de um Pedido são sempre gravadas juntas; quando o Pedido muda, as linhas antigas
+ * são marcadas como removidas e as novas são acrescentadas ao final.
+ * As linhas removidas são descartadas quando passam de um quarto do total.
+ * Não é segura para uso concorrente: alterações precisam de acesso exclusivo
+ * e agregações não podem ocorrer durante uma alteração.
+ */
+public class OrderLineColumns {
+
+    /**
+     * Valor da coluna de dia para Pedidos sem data de criação
+     */
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final int SCAN_THRESHOLD = 1 << 16;
+    private static final int MIN_REMOVED_TO_COMPACT = 1 << 16;
+
+    private long[] orderIds = new long[1024];
+    private long[] clientIds = new long[1024];
+    private long[] productIds = new long[1024];
+    private int[] days = new int[1024];
+    private int[] quantities = new int[1024];
+    private int[] priceCents = new int[1024];
+    private BitSet removed = new BitSet();
+    private int size;
+    private int removedCount;
+
+    private OrderPositions positions = new OrderPositions(1024);
+    private long lastOrderId = Long.MIN_VALUE;
+
+    /**
+     * Acrescenta uma linha de um Pedido
+     * As linhas de um Pedido devem ser acrescentadas em sequência, sem linhas de outros Pedidos entre elas,
+     * e um Pedido já presente deve ser removido antes de ter as novas linhas acrescentadas.
+     *
+     * @param orderId    o ID do Pedido
+     * @param clientId   o ID do Cliente, ou 0 se não houver
+     * @param day        o dia de criação do Pedido em dias desde 1970-01-01, ou NO_DAY
+     * @param productId  o ID do Produto
+     * @param quantity   a quantidade
+     * @param priceCents o preço unitário, em centavos
+     */
+    public void append(long orderId, long clientId, int day, long productId, int quantity, int priceCents) {
+        if (size == orderIds.length) {
+            int capacity = size + (size >> 1);
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            clientIds = Arrays.copyOf(clientIds, capacity);
+            productIds = Arrays.copyOf(productIds, capacity);
+            days = Arrays.copyOf(days, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            this.priceCents = Arrays.copyOf(this.priceCents, capacity);
+        }
+        int line = size++;
+        orderIds[line] = orderId;
+        clientIds[line] = clientId;
+        productIds[line] = productId;
+        days[line] = day;
+        quantities[line] = quantity;
+        this.priceCents[line] = priceCents;
+        index(line);
+    }
+
+    /**
+     * Marca como removidas todas as linhas de um Pedido
+     *
+     * @param orderId o ID do Pedido
+     */
+    public void removeOrder(long orderId) {
+        int slot = positions.slotOf(orderId);
+        int count = positions.counts[slot];
+        if (positions.keys[slot] != orderId || count == 0) {
+            return;
+        }
+        int start = positions.starts[slot];
+        removed.set(start, start + count);
+        removedCount += count;
+        positions.counts[slot] = 0;
+        if (orderId == lastOrderId) {
+            lastOrderId = Long.MIN_VALUE;
+        }
+        if (removedCount >= MIN_REMOVED_TO_COMPACT && removedCount * 4L >= size) {
+            compact();
+        }
+    }
+
+    /**
+     * Retorna o número de linhas válidas
+     *
+     * @return o número de linhas
+     */
+    public int size() {
+        return size - removedCount;
+    }
+
+    /**
+     * Agrega as linhas que atendem aos filtros da consulta, em paralelo
+     *
+     * @param query a consulta
+     * @param pool  o pool de threads da varredura
+     * @return os totais de cada grupo: receita em centavos, quantidade e número de linhas
+     */
+    public LongKeyedTotals aggregate(OrderLineQuery query, ForkJoinPool pool) {
+        return pool.invoke(new ScanTask(query, 0, size));
+    }
+
+    /**
+     * Descarta as linhas removidas, movendo as demais para o início dos arrays
+     */
+    private void compact() {
+        int kept = 0;
+        for (int line = 0; line < size; line++) {
+            if (!removed.get(line)) {
+                orderIds[kept] = orderIds[line];
+                clientIds[kept] = clientIds[line];
+                productIds[kept] = productIds[line];
+                days[kept] = days[line];
+                quantities[kept] = quantities[line];
+                priceCents[kept] = priceCents[line];
+                kept++;
+            }
+        }
+        size = kept;
+        removed = new BitSet();
+        removedCount = 0;
+
+        positions = new OrderPositions(Math.max(1024, positions.keys.length));
+        lastOrderId = Long.MIN_VALUE;
+        for (int line = 0; line < size; line++) {
+            index(line);
+        }
+    }
+
+    /**
+     * Registra no índice de Pedidos uma linha já gravada nos arrays
+     *
+     * @param line a posição da linha
+     */
+    private void index(int line) {
+        long orderId = orderIds[line];
+        if (orderId == lastOrderId) {
+            positions.extend(orderId);
+        } else {
+            positions.put(orderId, line, 1);
+            lastOrderId = orderId;
+        }
+    }
+
+    /**
+     * Varredura paralela de um intervalo de linhas
+     * Intervalos grandes são divididos ao meio até ficarem abaixo do limite,
+     * e os totais parciais são somados na volta.
+     */
+    private final class ScanTask extends RecursiveTask<LongKeyedTotals> {
+
+        private final OrderLineQuery query;
+        private final int from;
+        private final int to;
+
+        /**
+         * Construtor da classe ScanTask
+         *
+         * @param query a consulta
+         * @param from  a primeira linha do intervalo
+         * @param to    a posição após a última linha do intervalo
+         */
+        ScanTask(OrderLineQuery query, int from, int to) {
+            this.query = query;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected LongKeyedTotals compute() {
+            if (to - from > SCAN_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                ScanTask left = new ScanTask(query, from, middle);
+                left.fork();
+                LongKeyedTotals right = new ScanTask(query, middle, to).compute();
+                LongKeyedTotals totals = left.join();
+                right.forEach(totals::add);
+                return totals;
+            }
+            return scan();
+        }
+
+        /**
+         * Percorre o intervalo sequencialmente, somando as linhas que atendem aos filtros
+         *
+         * @return os totais de cada grupo no intervalo
+         */
+        private LongKeyedTotals scan() {
+            boolean byClient = query.clientId() != null;
+            long client = byClient ? query.clientId() : 0;
+            boolean byProduct = query.productId() != null;
+            long product = byProduct ? query.productId() : 0;
+            int fromDay = query.from() == null ? Integer.MIN_VALUE : (int) query.from().toEpochDay();
+            int toDay = query.to() == null ? Integer.MAX_VALUE : (int) query.to().toEpochDay();
+            boolean byDay = query.from() != null || query.to() != null;
+
+            LongKeyedTotals totals = new LongKeyedTotals();
+            for (int line = removed.nextClearBit(from); line < to; line = removed.nextClearBit(line + 1)) {
+                if (byClient && clientIds[line] != client) {
+                    continue;
+                }
+                if (byProduct && productIds[line] != product) {
+                    continue;
+                }
+                if (byDay && (days[line] == NO_DAY || days[line] < fromDay || days[line] > toDay)) {
+                    continue;
+                }
+                long key = switch (query.groupBy()) {
+                    case NONE -> 0;
+                    case CLIENT -> clientIds[line];
+                    case PRODUCT -> productIds[line];
+                    case DAY -> days[line];
+                    case QUANTITY -> quantities[line];
+                };
+                totals.add(key, (long) priceCents[line] * quantities[line], quantities[line], 1);
+            }
+            return totals;
+        }
+    }
+
+    /**
+     * Índice da primeira linha e do número de linhas de cada Pedido
+     * Endereçamento aberto sobre arrays primitivos; Pedidos removidos ficam com zero linhas.
+     */
+    private static final class OrderPositions {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private int[] starts;
+        private int[] counts;
+        private int size;
+
+        /**
+         * Construtor da classe OrderPositions
+         *
+         * @param capacity a capacidade inicial, potência de dois
+         */
+        OrderPositions(int capacity) {
+            keys = new long[capacity];
+            Arrays.fill(keys, EMPTY);
+            starts = new int[capacity];
+            counts = new int[capacity];
+        }
+
+        /**
+         * Define a posição das linhas de um Pedido
+         *
+         * @param orderId o ID do Pedido
+         * @param start   a posição da primeira linha
+         * @param count   o número de linhas
+         */
+        void put(long orderId, int start, int count) {
+            int slot = slotOf(orderId);
+            if (keys[slot] == EMPTY) {
+                if ((size + 1) * 4L > keys.length * 3L) {
+                    grow();
+                    slot = slotOf(orderId);
+                }
+                keys[slot] = orderId;
+                size++;
+            }
+            starts[slot] = start;
+            counts[slot] = count;
+        }
+
+        /**
+         * Acrescenta uma linha ao final das linhas de um Pedido já indexado
+         *
+         * @param orderId o ID do Pedido
+         */
+        void extend(long orderId) {
+            counts[slotOf(orderId)]++;
+        }
+
+        /**
+         * Encontra a posição de um Pedido, ou a posição livre onde ele seria inserido
+         *
+         * @param orderId o ID do Pedido
+         * @return a posição nos arrays
+         */
+        int slotOf(long orderId) {
+            int mask = keys.length - 1;
+            long hash = orderId * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != orderId) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Dobra a capacidade do índice, reinserindo os Pedidos existentes
+         */
+        private void grow() {
+            long[] oldKeys = keys;
+            int[] oldStarts = starts;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            Arrays.fill(keys, EMPTY);
+            starts = new int[keys.length];
+            counts = new int[keys.length];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = slotOf(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    starts[slot] = oldStarts[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+    }
+}
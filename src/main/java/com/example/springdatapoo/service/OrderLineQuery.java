@@ -0,0 +1,22 @@
+package com.example.springdatapoo.service;
+
+import java.time.LocalDate;
+
+/**
+ * Consulta de agregação sobre as linhas de Pedido do snapshot colunar
+ * Os filtros nulos não restringem o resultado.
+ *
+ * @param groupBy   o critério de agrupamento
+ * @param clientId  apenas linhas de Pedidos deste Cliente, se informado
+ * @param productId apenas linhas deste Produto, se informado
+ * @param from      apenas linhas de Pedidos criados a partir deste dia, se informado
+ * @param to        apenas linhas de Pedidos criados até este dia, inclusive, se informado
+ */
+public record OrderLineQuery(GroupBy groupBy, Long clientId, Long productId, LocalDate from, LocalDate to) {
+
+    /**
+     * Critérios de agrupamento das linhas
+     * NONE agrupa todas as linhas em uma única chave 0; QUANTITY produz um histograma de quantidades.
+     */
+    public enum GroupBy { NONE, CLIENT, PRODUCT, DAY, QUANTITY }
+}
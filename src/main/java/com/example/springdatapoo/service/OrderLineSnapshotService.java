@@ -0,0 +1,196 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.dto.SalesTotal;
+import com.example.springdatapoo.event.OrderChangeEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Classe de Serviço que mantém um snapshot colunar, somente leitura, das linhas de Pedido
+ * O snapshot é carregado na inicialização por uma leitura JDBC em streaming, sem criar entidades,
+ * e atualizado pelos eventos de alteração de Pedidos após a confirmação da transação.
+ * A carga monta um snapshot novo sem bloqueio e só o troca pelo atual sob um bloqueio de escrita curto;
+ * os eventos recebidos durante a carga são aplicados ao snapshot atual e reaplicados ao novo antes da troca.
+ * Até a primeira carga terminar, as agregações refletem apenas as alterações recebidas desde a inicialização.
+ * Atende a agregações ad hoc (filtros por Cliente, Produto e período, agrupamento e soma)
+ * com varreduras paralelas sobre arrays primitivos, sem consultar o banco.
+ */
+@Service
+public class OrderLineSnapshotService {
+
+    private static final String LOAD_SQL = "select i.order_id, o.client_id, o.created_at, i.product_id, i.quantity, coalesce(i.unit_price, p.price) "
+            + "from order_item i join table_order o on o.id = i.order_id join product p on p.id = i.product_id "
+            + "order by i.order_id";
+    private static final int FETCH_SIZE = 10000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ForkJoinPool pool = ForkJoinPool.commonPool();
+    private OrderLineColumns columns = new OrderLineColumns();
+    private List<OrderChangeEvent> eventsDuringLoad;
+
+    /**
+     * Construtor da classe OrderLineSnapshotService
+     *
+     * @param jdbcTemplate o acesso JDBC usado na carga inicial
+     */
+    public OrderLineSnapshotService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Carrega o snapshot com todas as linhas de Pedido quando a aplicação termina de iniciar
+     * As linhas são lidas em lotes pelo cursor do banco e gravadas diretamente nas colunas de um snapshot novo,
+     * sem bloquear as agregações nem os eventos de alteração, que continuam sendo aplicados ao snapshot atual.
+     * Ao final, os eventos recebidos durante a leitura são reaplicados ao snapshot novo, que substitui o atual.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            eventsDuringLoad = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        OrderLineColumns loaded = new OrderLineColumns();
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(LOAD_SQL);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, resultSet -> {
+                Timestamp createdAt = resultSet.getTimestamp(3);
+                loaded.append(resultSet.getLong(1), resultSet.getLong(2),
+                        createdAt == null ? OrderLineColumns.NO_DAY : (int) createdAt.toLocalDateTime().toLocalDate().toEpochDay(),
+                        resultSet.getLong(4), resultSet.getInt(5),
+                        resultSet.getBigDecimal(6).movePointRight(2).intValueExact());
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                eventsDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (OrderChangeEvent event : eventsDuringLoad) {
+                apply(loaded, event);
+            }
+            eventsDuringLoad = null;
+            columns = loaded;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Substitui as linhas de um Pedido alterado, após a confirmação da transação
+     * Durante uma carga, o evento também é guardado para ser reaplicado ao snapshot em construção,
+     * que pode ter lido o Pedido antes ou depois da alteração.
+     *
+     * @param event o evento com o novo estado do Pedido
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChange(OrderChangeEvent event) {
+        lock.writeLock().lock();
+        try {
+            apply(columns, event);
+            if (eventsDuringLoad != null) {
+                eventsDuringLoad.add(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Substitui, em um snapshot, as linhas de um Pedido pelas do seu novo estado
+     *
+     * @param target o snapshot
+     * @param event  o evento com o novo estado do Pedido
+     */
+    private static void apply(OrderLineColumns target, OrderChangeEvent event) {
+        target.removeOrder(event.orderId());
+        OrderChangeEvent.Snapshot after = event.after();
+        if (after == null) {
+            return;
+        }
+        long clientId = after.clientId() == null ? 0 : after.clientId();
+        int day = after.day() == null ? OrderLineColumns.NO_DAY : (int) after.day().toEpochDay();
+        for (OrderChangeEvent.Line line : after.lines()) {
+            target.append(event.orderId(), clientId, day, line.productId(), line.quantity(),
+                    Math.toIntExact(line.unitPriceCents()));
+        }
+    }
+
+    /**
+     * Agrega as linhas de Pedido segundo a consulta
+     *
+     * @param query a consulta, com filtros e agrupamento
+     * @param limit o número máximo de grupos retornados
+     * @return os totais de cada grupo, da maior para a menor receita; no agrupamento por dia ou por quantidade,
+     *         em ordem crescente de chave
+     */
+    public List<SalesTotal> aggregate(OrderLineQuery query, int limit) {
+        LongKeyedTotals totals;
+        lock.readLock().lock();
+        try {
+            totals = columns.aggregate(query, pool);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<SalesTotal> groups = new ArrayList<>(totals.size());
+        totals.forEach((key, revenue, quantity, lines) -> groups.add(new SalesTotal(key, label(query, key), revenue, quantity, lines)));
+        boolean ordered = query.groupBy() == OrderLineQuery.GroupBy.DAY || query.groupBy() == OrderLineQuery.GroupBy.QUANTITY;
+        groups.sort(ordered ? Comparator.comparingLong(SalesTotal::getKey)
+                : Comparator.comparingLong(SalesTotal::getRevenueCents).reversed());
+        return groups.size() > limit ? new ArrayList<>(groups.subList(0, limit)) : groups;
+    }
+
+    /**
+     * Retorna o número de linhas do snapshot
+     *
+     * @return o número de linhas
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return columns.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Monta o nome de um grupo: a data no agrupamento por dia, ou a própria chave nos demais
+     *
+     * @param query a consulta
+     * @param key   a chave do grupo
+     * @return o nome do grupo
+     */
+    private static String label(OrderLineQuery query, long key) {
+        if (query.groupBy() == OrderLineQuery.GroupBy.DAY) {
+            return key == OrderLineColumns.NO_DAY ? "-" : LocalDate.ofEpochDay(key).toString();
+        }
+        return Long.toString(key);
+    }
+}
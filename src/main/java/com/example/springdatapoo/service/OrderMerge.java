@@ -0,0 +1,164 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Mescla em três vias das alterações de um Pedido
+ * Compara o Pedido como estava quando o formulário foi aberto (base), como foi enviado (mine)
+ * e como está gravado agora (theirs): cada campo e os itens de cada Produto ficam com a versão
+ * de quem os alterou, e há conflito apenas quando os dois alteraram o mesmo campo ou Produto de formas diferentes.
+ */
+public final class OrderMerge {
+
+    /**
+     * Estado de um Pedido comparado na mescla
+     *
+     * @param clientId     o ID do Cliente, ou null
+     * @param deliveryDays o prazo de entrega em dias
+     * @param lines        as quantidades dos itens de cada Produto, em ordem crescente, por ID do Produto
+     */
+    record State(Long clientId, long deliveryDays, Map<Long, List<Integer>> lines) {
+    }
+
+    private OrderMerge() {
+    }
+
+    /**
+     * Codifica o estado de um Pedido para ser enviado de volta pelo formulário de edição
+     * Formato: idDoCliente;diasDeEntrega;idDoProduto:quantidade,...
+     *
+     * @param order o Pedido, com os seus itens
+     * @return o estado codificado
+     */
+    public static String encode(Order order) {
+        State state = of(order.getClient(), order.getDeliveryDays(), order.getOrderItemList());
+        StringBuilder text = new StringBuilder()
+                .append(state.clientId() == null ? "" : state.clientId()).append(';')
+                .append(state.deliveryDays()).append(';');
+        boolean first = true;
+        for (Map.Entry<Long, List<Integer>> entry : state.lines().entrySet()) {
+            for (Integer quantity : entry.getValue()) {
+                text.append(first ? "" : ",").append(entry.getKey()).append(':').append(quantity);
+                first = false;
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Decodifica o estado enviado pelo formulário de edição
+     *
+     * @param text o estado codificado por encode
+     * @return o estado
+     * @throws IllegalArgumentException se o texto não estiver no formato esperado
+     */
+    static State decode(String text) {
+        String[] parts = text.split(";", -1);
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid order base state: " + text);
+        }
+        try {
+            Map<Long, List<Integer>> lines = new TreeMap<>();
+            if (!parts[2].isEmpty()) {
+                for (String line : parts[2].split(",")) {
+                    int separator = line.indexOf(':');
+                    if (separator < 0) {
+                        throw new IllegalArgumentException("Invalid order base state: " + text);
+                    }
+                    lines.computeIfAbsent(Long.parseLong(line.substring(0, separator)), key -> new ArrayList<>())
+                            .add(Integer.parseInt(line.substring(separator + 1)));
+                }
+            }
+            lines.values().forEach(quantities -> quantities.sort(null));
+            return new State(parts[0].isEmpty() ? null : Long.parseLong(parts[0]), Long.parseLong(parts[1]), lines);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid order base state: " + text, e);
+        }
+    }
+
+    /**
+     * Monta o estado de um Pedido a partir do Cliente, do prazo e dos itens
+     * Itens sem Produto são ignorados, como na gravação.
+     *
+     * @param client       o Cliente, ou null
+     * @param deliveryDays o prazo de entrega em dias
+     * @param items        os itens
+     * @return o estado
+     */
+    static State of(Client client, long deliveryDays, List<OrderItem> items) {
+        Map<Long, List<Integer>> lines = new TreeMap<>();
+        for (OrderItem item : items) {
+            if (item.getProduct() != null && item.getProduct().getId() != null) {
+                lines.computeIfAbsent(item.getProduct().getId(), key -> new ArrayList<>()).add(item.getQuantity());
+            }
+        }
+        lines.values().forEach(quantities -> quantities.sort(null));
+        return new State(client == null ? null : client.getId(), deliveryDays, lines);
+    }
+
+    /**
+     * Mescla as alterações enviadas com as alterações gravadas por outro usuário
+     *
+     * @param base   o estado quando o formulário foi aberto
+     * @param mine   o estado enviado pelo formulário
+     * @param theirs o estado gravado agora
+     * @return o estado mesclado
+     * @throws OrderConflictException se os dois alteraram o mesmo campo ou os itens do mesmo Produto
+     */
+    static State merge(State base, State mine, State theirs) {
+        List<String> conflicts = new ArrayList<>();
+        Long clientId = pick(base.clientId(), mine.clientId(), theirs.clientId(), "client", conflicts);
+        Long deliveryDays = pick(base.deliveryDays(), mine.deliveryDays(), theirs.deliveryDays(),
+                "delivery days", conflicts);
+
+        TreeSet<Long> productIds = new TreeSet<>(base.lines().keySet());
+        productIds.addAll(mine.lines().keySet());
+        productIds.addAll(theirs.lines().keySet());
+        Map<Long, List<Integer>> lines = new TreeMap<>();
+        for (Long productId : productIds) {
+            List<Integer> merged = pick(base.lines().getOrDefault(productId, List.of()),
+                    mine.lines().getOrDefault(productId, List.of()),
+                    theirs.lines().getOrDefault(productId, List.of()),
+                    "items of product " + productId, conflicts);
+            if (merged != null && !merged.isEmpty()) {
+                lines.put(productId, merged);
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new OrderConflictException("This order was changed by another user at the same time: "
+                    + String.join(", ", conflicts) + ". Reload the order to see the latest version.");
+        }
+        return new State(clientId, deliveryDays, lines);
+    }
+
+    /**
+     * Escolhe o valor de um campo na mescla
+     *
+     * @param base      o valor original
+     * @param mine      o valor enviado
+     * @param theirs    o valor gravado
+     * @param field     o nome do campo, para a mensagem de conflito
+     * @param conflicts a lista onde o conflito é registrado
+     * @param <T>       o tipo do valor
+     * @return o valor escolhido, ou null se houver conflito
+     */
+    private static <T> T pick(T base, T mine, T theirs, String field, List<String> conflicts) {
+        if (Objects.equals(mine, base) || Objects.equals(mine, theirs)) {
+            return theirs;
+        }
+        if (Objects.equals(theirs, base)) {
+            return mine;
+        }
+        conflicts.add(field);
+        return null;
+    }
+}
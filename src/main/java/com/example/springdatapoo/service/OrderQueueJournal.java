@@ -0,0 +1,250 @@
+package com.example.springdatapoo.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arquivo local, apenas de acréscimo, com os Pedidos aceitos pela fila de gravação e ainda não gravados no banco
+ * Cada linha é um Pedido aceito ("O"), um grupo de Pedidos gravados ("D") ou um Pedido descartado ("X"),
+ * e termina com um ponto, para que uma linha cortada por uma queda seja reconhecida e ignorada;
+ * um Pedido está pendente enquanto não houver uma linha "D" ou "X" com a sua sequência.
+ * Toda escrita é forçada para o disco antes de retornar.
+ * O arquivo é truncado quando não há mais Pedidos pendentes e ele passa do tamanho máximo.
+ */
+class OrderQueueJournal implements AutoCloseable {
+
+    private static final String END = ".";
+
+    private final Path path;
+    private final long maxBytes;
+    private FileChannel channel;
+    private long pending;
+
+    /**
+     * Abre o arquivo, criando-o e o diretório se necessário
+     *
+     * @param path     o caminho do arquivo
+     * @param maxBytes o tamanho a partir do qual o arquivo é truncado, quando não houver Pedidos pendentes
+     * @throws IOException se o arquivo não puder ser aberto
+     */
+    OrderQueueJournal(Path path, long maxBytes) throws IOException {
+        this.path = path;
+        this.maxBytes = maxBytes;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        this.channel = open(path);
+    }
+
+    /**
+     * Lê os Pedidos pendentes e reescreve o arquivo apenas com eles
+     *
+     * @return os Pedidos pendentes, na ordem em que foram aceitos
+     * @throws IOException se o arquivo não puder ser lido ou reescrito
+     */
+    synchronized List<OrderWriteBehindService.PendingOrder> recover() throws IOException {
+        Map<Long, OrderWriteBehindService.PendingOrder> orders = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(" ");
+                if (!fields[fields.length - 1].equals(END)) {
+                    // Linha cortada por uma queda durante a escrita: o Pedido não chegou a ser aceito
+                    continue;
+                }
+                switch (fields[0]) {
+                    case "O" -> {
+                        OrderWriteBehindService.PendingOrder order = decode(fields);
+                        orders.put(order.sequence(), order);
+                    }
+                    case "D", "X" -> {
+                        for (int i = 1; i < fields.length - 1; i++) {
+                            orders.remove(Long.parseLong(fields[i]));
+                        }
+                    }
+                    default -> throw new IOException("Invalid journal line: " + line);
+                }
+            }
+        }
+
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        StringBuilder content = new StringBuilder();
+        for (OrderWriteBehindService.PendingOrder order : orders.values()) {
+            content.append(encode(order));
+        }
+        channel.close();
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(content.toString());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(path);
+        pending = orders.size();
+        return new ArrayList<>(orders.values());
+    }
+
+    /**
+     * Registra um Pedido aceito
+     *
+     * @param order o Pedido aceito
+     * @throws IOException se o registro não puder ser gravado
+     */
+    synchronized void append(OrderWriteBehindService.PendingOrder order) throws IOException {
+        write(encode(order));
+        pending++;
+    }
+
+    /**
+     * Registra que Pedidos foram gravados no banco
+     * Trunca o arquivo se não restar nenhum Pedido pendente e ele tiver passado do tamanho máximo.
+     *
+     * @param sequences as sequências dos Pedidos gravados
+     * @throws IOException se o registro não puder ser gravado
+     */
+    synchronized void markDone(Collection<Long> sequences) throws IOException {
+        mark("D", sequences);
+    }
+
+    /**
+     * Registra que um Pedido aceito foi descartado antes de entrar na fila
+     *
+     * @param sequence a sequência do Pedido descartado
+     * @throws IOException se o registro não puder ser gravado
+     */
+    synchronized void markCancelled(long sequence) throws IOException {
+        mark("X", List.of(sequence));
+    }
+
+    /**
+     * Retorna o tamanho atual do arquivo
+     *
+     * @return o tamanho em bytes
+     * @throws IOException se o tamanho não puder ser lido
+     */
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Grava uma linha de Pedidos concluídos e trunca o arquivo quando possível
+     *
+     * @param type      o tipo da linha, "D" ou "X"
+     * @param sequences as sequências dos Pedidos
+     * @throws IOException se a linha não puder ser gravada
+     */
+    private void mark(String type, Collection<Long> sequences) throws IOException {
+        if (sequences.isEmpty()) {
+            return;
+        }
+        StringBuilder line = new StringBuilder(type);
+        for (Long sequence : sequences) {
+            line.append(' ').append(sequence);
+        }
+        write(line.append(' ').append(END).append('\n'));
+        pending -= sequences.size();
+        if (pending == 0 && channel.size() > maxBytes) {
+            channel.truncate(0);
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Acrescenta uma linha ao arquivo e a força para o disco
+     *
+     * @param line a linha, terminada por uma quebra de linha
+     * @throws IOException se a linha não puder ser gravada
+     */
+    private void write(CharSequence line) throws IOException {
+        ByteBuffer buffer = StandardCharsets.UTF_8.encode(line.toString());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    /**
+     * Codifica um Pedido aceito como linha do arquivo
+     * Formato: O sequência idDoPedido versão estadoBase idDoCliente diasDeEntrega idDoProduto:quantidade,... .
+     * O estado base, validado na aceitação do Pedido, não contém espaços.
+     *
+     * @param order o Pedido aceito
+     * @return a linha, terminada por uma quebra de linha
+     */
+    private static String encode(OrderWriteBehindService.PendingOrder order) {
+        StringBuilder line = new StringBuilder("O ")
+                .append(order.sequence()).append(' ')
+                .append(order.orderId() == null ? "-" : order.orderId()).append(' ')
+                .append(order.version() == null ? "-" : order.version()).append(' ')
+                .append(order.base() == null ? "-" : order.base()).append(' ')
+                .append(order.clientId() == null ? "-" : order.clientId()).append(' ')
+                .append(order.deliveryDays()).append(' ');
+        if (order.lines().isEmpty()) {
+            line.append('-');
+        }
+        for (int i = 0; i < order.lines().size(); i++) {
+            OrderWriteBehindService.Line item = order.lines().get(i);
+            line.append(i == 0 ? "" : ",").append(item.productId()).append(':').append(item.quantity());
+        }
+        return line.append(' ').append(END).append('\n').toString();
+    }
+
+    /**
+     * Decodifica uma linha de Pedido aceito
+     *
+     * @param fields os campos da linha
+     * @return o Pedido aceito
+     * @throws IOException se a linha não estiver no formato esperado
+     */
+    private static OrderWriteBehindService.PendingOrder decode(String[] fields) throws IOException {
+        if (fields.length != 9) {
+            throw new IOException("Invalid journal line: " + String.join(" ", fields));
+        }
+        List<OrderWriteBehindService.Line> lines = new ArrayList<>();
+        if (!fields[7].equals("-")) {
+            for (String item : fields[7].split(",")) {
+                int separator = item.indexOf(':');
+                lines.add(new OrderWriteBehindService.Line(Long.parseLong(item.substring(0, separator)),
+                        Integer.parseInt(item.substring(separator + 1))));
+            }
+        }
+        return new OrderWriteBehindService.PendingOrder(Long.parseLong(fields[1]),
+                fields[2].equals("-") ? null : Long.parseLong(fields[2]),
+                fields[3].equals("-") ? null : Long.parseLong(fields[3]),
+                fields[4].equals("-") ? null : fields[4],
+                fields[5].equals("-") ? null : Long.parseLong(fields[5]),
+                Long.parseLong(fields[6]), lines);
+    }
+
+    /**
+     * Abre o arquivo para acréscimo
+     *
+     * @param path o caminho do arquivo
+     * @return o canal aberto
+     * @throws IOException se o arquivo não puder ser aberto
+     */
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+}
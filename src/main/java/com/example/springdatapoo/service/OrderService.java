@@ -1,107 +1,421 @@
 package com.example.springdatapoo.service;
 
 
+import com.example.springdatapoo.config.ReadFromPrimary;
+import com.example.springdatapoo.dto.OrderSummary;
+import com.example.springdatapoo.event.EntityChangeEvent;
+import com.example.springdatapoo.event.OrderChangeEvent;
 import com.example.springdatapoo.model.Client;
 import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
 import com.example.springdatapoo.model.Product;
-import com.example.springdatapoo.repository.ClientRepository;
+import com.example.springdatapoo.repository.OrderItemRepository;
 import com.example.springdatapoo.repository.OrderRepository;
-import com.example.springdatapoo.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Classe de Serviço para gerenciar a Entidade Order
  * Contém métodos para efetuar operações CRUD, Paginação e Ordenação em Pedidos
  * Recupera Produtos e Clientes associados
+ * As consultas são executadas em transações somente leitura; as listagens podem ser atendidas pela réplica de leitura
  */
 @Service
 @Transactional
 public class OrderService {
 
+    private static final int MAX_SAVE_ATTEMPTS = 3;
+
+    /**
+     * Pedido enviado pelo formulário e gravado depois, pela fila de gravação posterior
+     *
+     * @param order o pedido, com a versão em que o formulário foi aberto se for uma edição
+     * @param base  o estado do pedido quando o formulário de edição foi aberto, codificado por OrderMerge.encode, ou null
+     */
+    public record SubmittedOrder(Order order, String base) {
+    }
+
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
-    private final ClientRepository clientRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductService productService;
+    private final ClientService clientService;
+    private final KeysetPaginator keysetPaginator;
+    private final EntityCountService entityCountService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
 
     /**
      * Construtor da classe OrderService
      *
      * @param orderRepository  o repositório para acesso aos dados de Pedido
-     * @param productRepository o repositório para acesso aos dados de Produto
-     * @param clientRepository  o repositório para acesso aos dados de Cliente
+     * @param orderItemRepository o repositório para acesso aos dados de Item de Pedido
+     * @param productService    o serviço de Produtos, usado para buscar os Produtos dos itens em lote
+     * @param clientService     o serviço de Clientes, usado para buscar o Cliente exibido no formulário de edição
+     * @param keysetPaginator   o paginador por chave
+     * @param entityCountService o serviço de contagem de registros
+     * @param eventPublisher    o publicador dos eventos de alteração de Pedidos
+     * @param transactionTemplate o template para repetir a gravação de um pedido editado em uma nova transação
+     * @param pageSize          o número de Pedidos por página
      */
     public OrderService(OrderRepository orderRepository,
-                        ProductRepository productRepository,
-                        ClientRepository clientRepository) {
+                        OrderItemRepository orderItemRepository,
+                        ProductService productService,
+                        ClientService clientService,
+                        KeysetPaginator keysetPaginator,
+                        EntityCountService entityCountService,
+                        ApplicationEventPublisher eventPublisher,
+                        TransactionTemplate transactionTemplate,
+                        @Value("${app.pagination.page-size:5}") int pageSize) {
         this.orderRepository = orderRepository;
-        this.productRepository = productRepository;
-        this.clientRepository = clientRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productService = productService;
+        this.clientService = clientService;
+        this.keysetPaginator = keysetPaginator;
+        this.entityCountService = entityCountService;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.pageSize = pageSize;
     }
 
     /**
      * Recupera uma lista paginada e ordenada de todos os Pedidos
+     * O total de Pedidos vem da contagem mantida em memória, sem um COUNT(*) por página
      *
      * @param pageNum   o número da página a ser recuperada
      * @param sortField o campo pelo qual ordenar
      * @param sortDir   a direção da ordenação (ascendente ou decrescente)
      * @return uma Página de Pedidos
      */
+    @Transactional(readOnly = true)
     public Page<Order> listAllOrders(int pageNum, String sortField, String sortDir) {
-        int pageSize = 5;
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize,
                 sortDir.equals("asc") ? Sort.by(sortField).ascending()
                         : Sort.by(sortField).descending());
-        return orderRepository.findAll(pageable);
+        Slice<Order> slice = orderRepository.findAllBy(pageable);
+        return entityCountService.toPage(slice, Order.class);
+    }
+
+    /**
+     * Recupera uma página da listagem de Pedidos como projeção
+     * O nome do Cliente é lido na mesma consulta, sem uma consulta extra por Pedido,
+     * e o total vem da contagem mantida em memória
+     *
+     * @param pageNum   o número da página a ser recuperada
+     * @param sortField o campo pelo qual ordenar
+     * @param sortDir   a direção da ordenação (ascendente ou decrescente)
+     * @return uma Página de resumos de Pedidos
+     */
+    @Transactional(readOnly = true)
+    public Page<OrderSummary> listOrderSummaries(int pageNum, String sortField, String sortDir) {
+        Pageable pageable = PageRequest.of(pageNum - 1, pageSize,
+                sortDir.equals("asc") ? Sort.by(sortField).ascending()
+                        : Sort.by(sortField).descending());
+        Slice<OrderSummary> slice = orderRepository.findSummariesBy(pageable);
+        return entityCountService.toPage(slice, Order.class);
     }
 
     /**
-     * Recupera uma lista de todos os Produtos
+     * Recupera a página de Pedidos posterior ao último Pedido exibido (paginação por chave)
+     * O Cliente de cada Pedido é carregado na mesma consulta
      *
-     * @return a lista de Produtos
+     * @param sortField o campo pelo qual ordenar
+     * @param sortDir   a direção da ordenação (ascendente ou decrescente)
+     * @param after     o valor do campo de ordenação do último Pedido exibido
+     * @param afterId   o ID do último Pedido exibido
+     * @return uma fatia de resumos de Pedidos com o cursor para a próxima
      */
-    public List<Product> findAllProducts() {
-        return productRepository.findAll();
+    @Transactional(readOnly = true)
+    public KeysetSlice<OrderSummary> listOrderSummariesAfter(String sortField, String sortDir,
+                                                             String after, Long afterId) {
+        KeysetSlice<Order> slice = keysetPaginator.seek(Order.class, sortField, sortDir, after, afterId,
+                pageSize, "client");
+        List<OrderSummary> summaries = slice.content().stream()
+                .map(order -> new OrderSummary(order.getId(),
+                        order.getClient() == null ? null : order.getClient().getId(),
+                        order.getClient() == null ? null : order.getClient().getName(),
+                        order.getTotalPrice(), order.getDeliveryDays()))
+                .toList();
+        return new KeysetSlice<>(summaries, slice.hasNext(), slice.nextAfter(), slice.nextAfterId());
     }
 
     /**
-     * Recupera uma lista de todos os Clientes
+     * Calcula o cursor para a página seguinte a uma página de Pedidos
      *
-     * @return a lista de Clientes
+     * @param page      a página de Pedidos exibida
+     * @param sortField o campo pelo qual a página foi ordenada
+     * @return uma fatia com os Pedidos da página e o cursor para a próxima
      */
-    public List<Client> findAllClients() {
-        return clientRepository.findAll();
+    public KeysetSlice<OrderSummary> toSlice(Page<OrderSummary> page, String sortField) {
+        return keysetPaginator.sliceOf(page.getContent(), page.hasNext(),
+                summary -> summary.sortValue(sortField), OrderSummary::getId);
     }
 
     /**
-     * Salva um pedido no banco de dados
-     * após recalcular o novo preço total do pedido
+     * Salva um pedido e os itens da sua lista no banco de dados
+     * Equivale a saveWithItems com os itens do próprio pedido
      *
      * @param order o pedido a ser salvo
      */
     public void save(Order order) {
-        order.recalculateTotalPrice();
-        orderRepository.save(order);
+        saveWithItems(order, order.getOrderItemList());
+    }
+
+    /**
+     * Salva vários pedidos enviados pelo formulário, com os itens das suas listas, em uma única transação
+     * Os pedidos editados são verificados e mesclados como em saveEdited, sem repetir a gravação.
+     * Os inserts e updates de todos os pedidos são enviados em lotes pelo JDBC na confirmação.
+     * Cada pedido editado pode aparecer uma única vez: a versão só é incrementada na confirmação,
+     * e uma segunda edição na mesma transação sobrescreveria a primeira sem mesclá-la.
+     *
+     * @param orders os pedidos a serem salvos
+     * @throws IllegalArgumentException se um pedido editado aparecer mais de uma vez; nenhum pedido é salvo
+     * @throws MissingProductsException se algum item referenciar um Produto inexistente; nenhum pedido é salvo
+     * @throws OrderConflictException se as alterações de algum pedido se sobrepõem às de outro usuário; nenhum pedido é salvo
+     */
+    public void saveAll(List<SubmittedOrder> orders) {
+        Set<Long> orderIds = new HashSet<>();
+        for (SubmittedOrder submitted : orders) {
+            Long orderId = submitted.order().getId();
+            if (orderId != null && !orderIds.add(orderId)) {
+                throw new IllegalArgumentException("Order " + orderId + " is edited more than once in the same transaction");
+            }
+        }
+        for (SubmittedOrder submitted : orders) {
+            Order order = submitted.order();
+            saveWithItems(order, order.getOrderItemList(), submitted.base(), order.getId() != null);
+        }
+    }
+
+    /**
+     * Salva um pedido e seus itens em uma única transação
+     * Os itens recebidos são comparados com os itens já persistidos, pelo Produto,
+     * e apenas as diferenças são gravadas: quantidades alteradas são atualizadas,
+     * itens novos são inseridos e itens ausentes são excluídos.
+     * O preço total é recalculado uma única vez.
+     * Os Produtos dos itens novos vêm do cache de Produtos, e os ausentes do cache são carregados juntos,
+     * com uma única consulta; o preço unitário de cada item novo é fixado com o preço atual do Produto,
+     * e o item é associado a uma referência ao Produto, sem outra consulta.
+     *
+     * @param order o pedido a ser salvo
+     * @param items os itens do pedido enviados pelo formulário
+     * @return o pedido persistido
+     * @throws MissingProductsException se algum item referenciar um Produto inexistente
+     */
+    public Order saveWithItems(Order order, List<OrderItem> items) {
+        return saveWithItems(order, items, null, false);
+    }
+
+    /**
+     * Salva um pedido editado no formulário, verificando se ele foi alterado por outro usuário desde que foi aberto
+     * Se a versão enviada for diferente da versão gravada, as alterações do formulário são mescladas com as gravadas,
+     * a partir do estado em que o formulário foi aberto, e a mescla é aceita se as alterações não se sobrepõem.
+     * Se outro usuário gravar o pedido durante a gravação, ela é repetida em uma nova transação, sem bloquear o registro.
+     *
+     * @param order o pedido enviado pelo formulário, com a versão em que foi aberto
+     * @param items os itens do pedido enviados pelo formulário
+     * @param base  o estado do pedido quando o formulário foi aberto, codificado por OrderMerge.encode, ou null
+     * @return o pedido persistido
+     * @throws OrderConflictException se as alterações se sobrepõem às de outro usuário, se o pedido foi excluído
+     *                                  ou se o estado enviado não puder ser lido
+     * @throws MissingProductsException se algum item referenciar um Produto inexistente
+     */
+    @Transactional(propagation = Propagation.NEVER)
+    public Order saveEdited(Order order, List<OrderItem> items, String base) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> saveWithItems(order, items, base, true));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt == MAX_SAVE_ATTEMPTS) {
+                    throw new OrderConflictException("This order is being changed by other users. Please try again.");
+                }
+            }
+        }
+    }
+
+    /**
+     * Salva um pedido e seus itens, opcionalmente verificando a versão enviada
+     *
+     * @param order        o pedido a ser salvo
+     * @param items        os itens do pedido enviados pelo formulário
+     * @param base         o estado do pedido quando o formulário foi aberto, ou null
+     * @param checkVersion se a versão enviada deve ser comparada com a gravada
+     * @return o pedido persistido
+     * @throws OrderConflictException se o pedido foi excluído, se as alterações se sobrepõem às de outro usuário
+     *                                ou se o estado enviado não puder ser lido
+     */
+    private Order saveWithItems(Order order, List<OrderItem> items, String base, boolean checkVersion) {
+        boolean created = order.getId() == null;
+        Order target = order;
+        List<OrderItem> persisted = new ArrayList<>();
+        OrderChangeEvent.Snapshot before = null;
+        if (order.getId() != null) {
+            target = orderRepository.findForUpdateById(order.getId())
+                    .orElseThrow(() -> new OrderConflictException("This order was deleted by another user."));
+            persisted = orderItemRepository.findByOrderId(order.getId());
+            before = OrderChangeEvent.Snapshot.of(target, persisted);
+            Client client = order.getClient();
+            long deliveryDays = order.getDeliveryDays();
+            if (checkVersion && order.getVersion() != target.getVersion()) {
+                if (base == null) {
+                    throw new OrderConflictException("This order was changed by another user. "
+                            + "Reload the order to see the latest version.");
+                }
+                OrderMerge.State baseState;
+                try {
+                    baseState = OrderMerge.decode(base);
+                } catch (IllegalArgumentException e) {
+                    throw new OrderConflictException("This order was changed by another user. "
+                            + "Reload the order to see the latest version.");
+                }
+                OrderMerge.State merged = OrderMerge.merge(baseState,
+                        OrderMerge.of(order.getClient(), order.getDeliveryDays(), items),
+                        OrderMerge.of(target.getClient(), target.getDeliveryDays(), persisted));
+                if (!Objects.equals(merged.clientId(), client == null ? null : client.getId())) {
+                    client = target.getClient();
+                }
+                deliveryDays = merged.deliveryDays();
+                items = toItems(merged);
+            }
+            target.setClient(client);
+            target.setDeliveryDays(deliveryDays);
+        }
+
+        Map<Long, Deque<OrderItem>> persistedByProduct = new HashMap<>();
+        for (OrderItem item : persisted) {
+            persistedByProduct.computeIfAbsent(item.getProduct().getId(), key -> new ArrayDeque<>()).add(item);
+        }
+
+        List<OrderItem> result = new ArrayList<>();
+        List<OrderItem> inserted = new ArrayList<>();
+        Set<Long> insertedProductIds = new HashSet<>();
+        for (OrderItem incoming : items) {
+            if (incoming.getProduct() == null || incoming.getProduct().getId() == null) {
+                continue;
+            }
+            Long productId = incoming.getProduct().getId();
+            Deque<OrderItem> candidates = persistedByProduct.get(productId);
+            OrderItem existing = candidates == null ? null : candidates.poll();
+            if (existing != null) {
+                if (existing.getQuantity() != incoming.getQuantity()) {
+                    existing.setQuantity(incoming.getQuantity());
+                }
+                result.add(existing);
+            } else {
+                OrderItem item = new OrderItem();
+                item.setOrder(target);
+                item.setProduct(incoming.getProduct());
+                item.setQuantity(incoming.getQuantity());
+                inserted.add(item);
+                insertedProductIds.add(productId);
+                result.add(item);
+            }
+        }
+
+        Map<Long, Product> products = productService.findAllByIds(insertedProductIds);
+        for (OrderItem item : inserted) {
+            Long productId = item.getProduct().getId();
+            item.setProduct(productService.getReference(productId));
+            item.setUnitPrice(products.get(productId).getPrice());
+        }
+
+        List<OrderItem> removed = new ArrayList<>();
+        persistedByProduct.values().forEach(removed::addAll);
+
+        target.setOrderItemList(result);
+        target.recalculateTotalPrice();
+        target = orderRepository.save(target);
+
+        orderItemRepository.deleteAllInBatch(removed);
+        orderItemRepository.saveAll(inserted);
+        eventPublisher.publishEvent(EntityChangeEvent.saved(Order.class, target.getId(), target, created));
+        eventPublisher.publishEvent(new OrderChangeEvent(target.getId(), before, OrderChangeEvent.Snapshot.of(target, result)));
+        return target;
+    }
+
+    /**
+     * Monta os itens de um pedido mesclado, com os Produtos identificados apenas pelo ID
+     *
+     * @param state o estado mesclado
+     * @return os itens
+     */
+    private static List<OrderItem> toItems(OrderMerge.State state) {
+        List<OrderItem> items = new ArrayList<>();
+        state.lines().forEach((productId, quantities) -> {
+            for (Integer quantity : quantities) {
+                Product product = new Product();
+                product.setId(productId);
+                OrderItem item = new OrderItem();
+                item.setProduct(product);
+                item.setQuantity(quantity);
+                items.add(item);
+            }
+        });
+        return items;
     }
 
     /**
-     * Procura um pedido por seu ID
+     * Procura um pedido por seu ID, para o formulário de edição
+     * O Pedido e os seus itens são carregados em uma única consulta; o Cliente e os Produtos exibidos
+     * vêm dos caches de Clientes e Produtos, como cópias desanexadas.
      * @param id o ID do pedido a ser procurado
-     * @return o pedido encontrado com esse ID
+     * @return o pedido encontrado com esse ID, desanexado
+     * @throws java.util.NoSuchElementException se não houver pedido com esse ID
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @ReadFromPrimary
     public Order findById(long id) {
-        return orderRepository.findById(id).get();
+        Order order = orderRepository.findWithItemsById(id).orElseThrow();
+        if (order.getClient() != null) {
+            order.setClient(clientService.findById(order.getClient().getId()));
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (OrderItem item : order.getOrderItemList()) {
+            if (item.getProduct() != null) {
+                productIds.add(item.getProduct().getId());
+            }
+        }
+        Map<Long, Product> products = productService.findAllByIds(productIds);
+        for (OrderItem item : order.getOrderItemList()) {
+            if (item.getProduct() != null) {
+                item.setProduct(products.get(item.getProduct().getId()));
+            }
+        }
+        return order;
     }
 
     /**
-     * Exclui um pedido por seu ID
+     * Exclui um pedido por seu ID, junto com todos os seus itens
      * @param id o ID do pedido a ser excluído
      */
     public void delete(long id) {
-        orderRepository.deleteById(id);
+        Order order = orderRepository.findById(id).orElse(null);
+        if (order != null) {
+            OrderChangeEvent.Snapshot before = OrderChangeEvent.Snapshot.of(order, orderItemRepository.findByOrderId(id));
+            orderItemRepository.deleteByOrderId(id);
+            orderRepository.deleteById(id);
+            eventPublisher.publishEvent(EntityChangeEvent.deleted(Order.class, id));
+            eventPublisher.publishEvent(new OrderChangeEvent(id, before, null));
+        }
     }
 }
@@ -0,0 +1,401 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.dto.WriteBehindStatus;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+import com.example.springdatapoo.model.Product;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fila de gravação posterior (write-behind) dos Pedidos enviados pelo formulário
+ * Quando habilitada, os Pedidos validados são registrados em um arquivo local e colocados em uma fila limitada;
+ * uma única thread retira os Pedidos em lotes e grava cada lote em uma transação, com os inserts em lote do JDBC;
+ * um lote com mais de uma edição do mesmo Pedido é dividido, para que cada edição seja mesclada com a anterior.
+ * Com a fila cheia, o envio espera até o tempo máximo configurado e é recusado, aplicando contrapressão.
+ * Pedidos aceitos e ainda não gravados são recuperados do arquivo ao iniciar a aplicação.
+ * Os Pedidos editados levam a versão e o estado em que o formulário foi aberto, e são verificados e mesclados
+ * na gravação como em OrderService.saveEdited; os que conflitam com as alterações de outro usuário são descartados.
+ */
+@Service
+public class OrderWriteBehindService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderWriteBehindService.class);
+    private static final long RETRY_DELAY_MILLIS = 1000;
+
+    private final OrderService orderService;
+    private final boolean enabled;
+    private final int capacity;
+    private final int batchSize;
+    private final long offerTimeoutNanos;
+    private final Path journalPath;
+    private final long journalMaxBytes;
+    private final BlockingQueue<PendingOrder> queue;
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong saved = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile int lastBatchSize;
+    private volatile String lastError;
+    private volatile boolean running;
+    private OrderQueueJournal journal;
+    private Thread consumer;
+
+    /**
+     * Pedido aceito pela fila, apenas com os IDs enviados pelo formulário
+     *
+     * @param sequence     o número sequencial do Pedido na fila
+     * @param orderId      o ID do Pedido editado, ou null para um Pedido novo
+     * @param version      a versão do Pedido editado quando o formulário foi aberto, ou null para um Pedido novo
+     * @param base         o estado do Pedido editado quando o formulário foi aberto, codificado por OrderMerge.encode, ou null
+     * @param clientId     o ID do Cliente
+     * @param deliveryDays o prazo de entrega em dias
+     * @param lines        os itens do Pedido
+     */
+    record PendingOrder(long sequence, Long orderId, Long version, String base, Long clientId, long deliveryDays,
+                        List<Line> lines) {
+    }
+
+    /**
+     * Item de um Pedido aceito pela fila
+     *
+     * @param productId o ID do Produto
+     * @param quantity  a quantidade
+     */
+    record Line(long productId, int quantity) {
+    }
+
+    /**
+     * Construtor da classe OrderWriteBehindService
+     *
+     * @param orderService    o serviço de Pedidos, usado para gravar cada lote em uma transação
+     * @param enabled         se a gravação posterior está habilitada
+     * @param capacity        o número máximo de Pedidos na fila
+     * @param batchSize       o número máximo de Pedidos gravados por transação
+     * @param offerTimeout    o tempo máximo de espera por espaço na fila
+     * @param journalPath     o caminho do arquivo com os Pedidos pendentes
+     * @param journalMaxBytes o tamanho a partir do qual o arquivo é truncado, quando não houver Pedidos pendentes
+     */
+    public OrderWriteBehindService(OrderService orderService,
+                                   @Value("${app.orders.write-behind.enabled:false}") boolean enabled,
+                                   @Value("${app.orders.write-behind.capacity:10000}") int capacity,
+                                   @Value("${app.orders.write-behind.batch-size:100}") int batchSize,
+                                   @Value("${app.orders.write-behind.offer-timeout:PT2S}") Duration offerTimeout,
+                                   @Value("${app.orders.write-behind.journal:data/order-queue.journal}") Path journalPath,
+                                   @Value("${app.orders.write-behind.journal-max-bytes:67108864}") long journalMaxBytes) {
+        this.orderService = orderService;
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.journalPath = journalPath;
+        this.journalMaxBytes = journalMaxBytes;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    /**
+     * Recupera os Pedidos pendentes do arquivo e inicia a thread de gravação, se habilitada
+     *
+     * @throws IOException se o arquivo não puder ser aberto ou lido
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        journal = new OrderQueueJournal(journalPath, journalMaxBytes);
+        List<PendingOrder> recovered = journal.recover();
+        for (PendingOrder order : recovered) {
+            sequence.accumulateAndGet(order.sequence(), Math::max);
+        }
+        running = true;
+        consumer = Thread.ofPlatform().name("order-write-behind").start(() -> consume(recovered));
+        if (!recovered.isEmpty()) {
+            log.info("Recovered {} pending orders from {}", recovered.size(), journalPath);
+        }
+    }
+
+    /**
+     * Indica se os Pedidos do formulário devem passar pela fila
+     *
+     * @return verdadeiro se a gravação posterior está habilitada
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Registra um Pedido no arquivo e o coloca na fila de gravação
+     *
+     * @param order o Pedido enviado pelo formulário, já validado, com a versão em que foi aberto se for uma edição
+     * @param base  o estado do Pedido quando o formulário de edição foi aberto, codificado por OrderMerge.encode, ou null
+     * @return verdadeiro se o Pedido foi aceito, falso se a fila continuou cheia até o tempo máximo
+     * @throws IllegalStateException se a gravação posterior não estiver habilitada
+     * @throws OrderConflictException se o estado enviado não puder ser lido
+     * @throws UncheckedIOException se o Pedido não puder ser registrado no arquivo
+     */
+    public boolean submit(Order order, String base) {
+        if (!running) {
+            throw new IllegalStateException("Order write-behind is not running");
+        }
+        boolean edited = order.getId() != null;
+        if (edited && base != null) {
+            try {
+                OrderMerge.decode(base);
+            } catch (IllegalArgumentException e) {
+                throw new OrderConflictException("This order was changed by another user. "
+                        + "Reload the order to see the latest version.");
+            }
+        }
+        List<Line> lines = new ArrayList<>();
+        for (OrderItem item : order.getOrderItemList()) {
+            if (item.getProduct() != null && item.getProduct().getId() != null) {
+                lines.add(new Line(item.getProduct().getId(), item.getQuantity()));
+            }
+        }
+        PendingOrder pending = new PendingOrder(sequence.incrementAndGet(), order.getId(),
+                edited ? order.getVersion() : null, edited ? base : null,
+                order.getClient() == null ? null : order.getClient().getId(), order.getDeliveryDays(), lines);
+        try {
+            journal.append(pending);
+            if (queue.offer(pending, offerTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                submitted.incrementAndGet();
+                return true;
+            }
+            journal.markCancelled(pending.sequence());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * Retorna a situação atual da fila
+     *
+     * @return os contadores e o tamanho atual da fila
+     */
+    public WriteBehindStatus status() {
+        long journalBytes = 0;
+        if (journal != null) {
+            try {
+                journalBytes = journal.size();
+            } catch (IOException e) {
+                journalBytes = -1;
+            }
+        }
+        return new WriteBehindStatus(enabled, running, queue.size(), capacity, batchSize,
+                submitted.get(), rejected.get(), saved.get(), failed.get(), batches.get(),
+                lastBatchSize, lastError, journalBytes);
+    }
+
+    /**
+     * Encerra a thread de gravação ao desligar a aplicação
+     * Os Pedidos que ficarem na fila continuam no arquivo e são gravados no próximo início.
+     *
+     * @throws InterruptedException se a espera pelo fim do lote em andamento for interrompida
+     * @throws IOException se o arquivo não puder ser fechado
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException, IOException {
+        running = false;
+        if (consumer != null) {
+            consumer.interrupt();
+            consumer.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * Grava os Pedidos recuperados e depois os Pedidos da fila, em lotes, até o desligamento
+     *
+     * @param recovered os Pedidos recuperados do arquivo
+     */
+    private void consume(List<PendingOrder> recovered) {
+        for (int start = 0; start < recovered.size() && running; start += batchSize) {
+            saveBatch(recovered.subList(start, Math.min(recovered.size(), start + batchSize)));
+        }
+        List<PendingOrder> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingOrder first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                saveBatch(batch);
+                batch.clear();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Grava um lote de Pedidos, em uma única transação sempre que possível
+     * Se o lote falhar, cada Pedido é gravado na sua própria transação, para isolar os Pedidos inválidos,
+     * que são contados como falhas e descartados.
+     * Falhas temporárias, como o banco indisponível, são repetidas até o desligamento,
+     * e os Pedidos não gravados permanecem no arquivo.
+     *
+     * @param batch os Pedidos do lote
+     */
+    private void saveBatch(List<PendingOrder> batch) {
+        List<Long> done = new ArrayList<>(batch.size());
+        for (List<PendingOrder> transaction : transactions(batch)) {
+            List<OrderService.SubmittedOrder> orders = new ArrayList<>(transaction.size());
+            for (PendingOrder pending : transaction) {
+                orders.add(new OrderService.SubmittedOrder(toOrder(pending), pending.base()));
+            }
+            try {
+                orderService.saveAll(orders);
+                saved.addAndGet(transaction.size());
+                for (PendingOrder pending : transaction) {
+                    done.add(pending.sequence());
+                }
+            } catch (RuntimeException e) {
+                for (PendingOrder pending : transaction) {
+                    if (saveAlone(pending)) {
+                        done.add(pending.sequence());
+                    }
+                }
+            }
+        }
+        batches.incrementAndGet();
+        lastBatchSize = batch.size();
+
+        try {
+            journal.markDone(done);
+        } catch (IOException e) {
+            lastError = "Journal: " + e.getMessage();
+            log.error("Could not mark queued orders as saved in {}", journalPath, e);
+        }
+    }
+
+    /**
+     * Divide um lote em transações consecutivas nas quais cada Pedido editado aparece uma única vez
+     * Na mesma transação, a segunda edição de um Pedido seria comparada com a versão anterior à primeira,
+     * que só é incrementada na confirmação, e a sobrescreveria sem mesclá-la; em uma transação seguinte,
+     * ela encontra a versão gravada pela primeira e é mesclada com ela.
+     *
+     * @param batch os Pedidos do lote, na ordem da fila
+     * @return as transações, na ordem da fila
+     */
+    static List<List<PendingOrder>> transactions(List<PendingOrder> batch) {
+        List<List<PendingOrder>> transactions = new ArrayList<>();
+        List<PendingOrder> current = new ArrayList<>(batch.size());
+        Set<Long> orderIds = new HashSet<>();
+        for (PendingOrder pending : batch) {
+            if (pending.orderId() != null && !orderIds.add(pending.orderId())) {
+                transactions.add(current);
+                current = new ArrayList<>();
+                orderIds.clear();
+                orderIds.add(pending.orderId());
+            }
+            current.add(pending);
+        }
+        if (!current.isEmpty()) {
+            transactions.add(current);
+        }
+        return transactions;
+    }
+
+    /**
+     * Grava um Pedido na sua própria transação, repetindo as falhas temporárias
+     * Um Pedido editado é gravado por OrderService.saveEdited, que mescla as alterações de outros usuários;
+     * se elas conflitarem, ou se o Pedido tiver sido excluído, o Pedido é descartado.
+     *
+     * @param pending o Pedido aceito
+     * @return verdadeiro se o Pedido foi gravado ou descartado, falso se a aplicação foi desligada antes
+     */
+    private boolean saveAlone(PendingOrder pending) {
+        while (true) {
+            try {
+                Order order = toOrder(pending);
+                if (order.getId() == null) {
+                    orderService.save(order);
+                } else {
+                    orderService.saveEdited(order, order.getOrderItemList(), pending.base());
+                }
+                saved.incrementAndGet();
+                return true;
+            } catch (IllegalArgumentException | OrderConflictException | DataIntegrityViolationException e) {
+                failed.incrementAndGet();
+                lastError = "Order " + (pending.orderId() == null ? "(new)" : pending.orderId())
+                        + ": " + e.getMessage();
+                log.warn("Discarding queued order {}: {}", pending.sequence(), e.getMessage());
+                return true;
+            } catch (RuntimeException e) {
+                lastError = "Order " + (pending.orderId() == null ? "(new)" : pending.orderId())
+                        + ": " + e.getMessage();
+                try {
+                    Thread.sleep(RETRY_DELAY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+                if (!running || Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Monta o Pedido do formulário a partir do Pedido aceito pela fila
+     *
+     * @param pending o Pedido aceito
+     * @return o Pedido com Cliente e Produtos identificados apenas pelo ID, e a versão enviada se for uma edição
+     */
+    private static Order toOrder(PendingOrder pending) {
+        Order order = new Order();
+        order.setId(pending.orderId());
+        if (pending.version() != null) {
+            order.setVersion(pending.version());
+        }
+        order.setDeliveryDays(pending.deliveryDays());
+        if (pending.clientId() != null) {
+            Client client = new Client();
+            client.setId(pending.clientId());
+            order.setClient(client);
+        }
+        for (Line line : pending.lines()) {
+            Product product = new Product();
+            product.setId(line.productId());
+            OrderItem item = new OrderItem();
+            item.setProduct(product);
+            item.setQuantity(line.quantity());
+            order.getOrderItemList().add(item);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.springdatapoo.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Índice em memória para busca por prefixo
+ * Cada termo é guardado normalizado (minúsculo e sem acentos) em um mapa ordenado,
+ * de modo que os termos que começam com um prefixo formam um intervalo contíguo do mapa.
+ * Para um nome, são indexados o nome inteiro e o trecho que começa em cada palavra,
+ * o que permite encontrar "caneta azul" tanto por "can" quanto por "azu".
+ * Leituras e atualizações podem ocorrer ao mesmo tempo.
+ *
+ * @param <T> o tipo dos valores indexados
+ */
+public class PrefixIndex<T> {
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ConcurrentSkipListMap<String, T> entries = new ConcurrentSkipListMap<>();
+    private final Map<Long, List<String>> keysById = new ConcurrentHashMap<>();
+
+    /**
+     * Indexa um valor, substituindo o que estiver indexado com o mesmo ID
+     *
+     * @param id    o ID da entidade
+     * @param value o valor retornado pela busca
+     * @param terms os textos pelos quais o valor pode ser encontrado
+     */
+    public void put(long id, T value, String... terms) {
+        List<String> keys = new ArrayList<>();
+        for (String term : terms) {
+            String normalized = normalize(term);
+            if (normalized.isEmpty()) {
+                continue;
+            }
+            for (int start = 0; start < normalized.length(); start++) {
+                if (start == 0 || normalized.charAt(start - 1) == ' ') {
+                    keys.add(normalized.substring(start) + KEY_SEPARATOR + id);
+                }
+            }
+        }
+        List<String> previous;
+        synchronized (this) {
+            previous = keysById.put(id, keys);
+            if (previous != null) {
+                previous.forEach(entries::remove);
+            }
+            keys.forEach(key -> entries.put(key, value));
+        }
+    }
+
+    /**
+     * Remove um valor do índice
+     *
+     * @param id o ID da entidade
+     */
+    public synchronized void remove(long id) {
+        List<String> previous = keysById.remove(id);
+        if (previous != null) {
+            previous.forEach(entries::remove);
+        }
+    }
+
+    /**
+     * Busca os valores com algum termo iniciado pelo prefixo, em ordem alfabética
+     *
+     * @param prefix o prefixo digitado
+     * @param limit  o número máximo de valores retornados
+     * @return os valores encontrados, sem repetição
+     */
+    public List<T> search(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<String, T> matches = entries.subMap(normalized, true, normalized + Character.MAX_VALUE, false);
+        Map<Long, T> found = new LinkedHashMap<>();
+        for (Map.Entry<String, T> entry : matches.entrySet()) {
+            String key = entry.getKey();
+            found.putIfAbsent(Long.parseLong(key.substring(key.lastIndexOf(KEY_SEPARATOR) + 1)), entry.getValue());
+            if (found.size() == limit) {
+                break;
+            }
+        }
+        return new ArrayList<>(found.values());
+    }
+
+    /**
+     * Retorna o número de entidades indexadas
+     *
+     * @return o número de entidades
+     */
+    public int size() {
+        return keysById.size();
+    }
+
+    /**
+     * Normaliza um texto para comparação: minúsculo, sem acentos e com espaços simples
+     *
+     * @param text o texto original
+     * @return o texto normalizado
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD).replaceAll("\\p{M}", "");
+        return decomposed.toLowerCase(Locale.ROOT).trim().replaceAll("\\s+", " ");
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.event.EntityChangeEvent;
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Classe de Serviço para a busca textual no catálogo de Produtos
+ * Mantém em memória um índice invertido do nome e da descrição dos Produtos,
+ * carregado na inicialização e atualizado pelos eventos de alteração publicados pelos serviços.
+ * A busca e a ordenação por relevância são feitas no índice;
+ * o banco é consultado apenas para carregar, pela chave primária, os Produtos da página exibida.
+ */
+@Service
+public class ProductSearchService {
+
+    private static final int NAME_WEIGHT = 3;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int pageSize;
+    private final InvertedIndex index = new InvertedIndex(NAME_WEIGHT, DESCRIPTION_WEIGHT);
+
+    /**
+     * Construtor da classe ProductSearchService
+     *
+     * @param productRepository  o repositório para acesso aos dados de Produto
+     * @param entityManager      o gerenciador de entidades, usado para liberar os Produtos já indexados
+     * @param transactionManager o gerenciador de transações da carga inicial
+     * @param pageSize           o número de resultados por página
+     */
+    public ProductSearchService(ProductRepository productRepository,
+                                EntityManager entityManager,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${app.search.page-size:20}") int pageSize) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Carrega o índice com todos os Produtos quando a aplicação termina de iniciar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> stream = productRepository.streamAll()) {
+                stream.forEach(product -> {
+                    indexProduct(product);
+                    entityManager.detach(product);
+                });
+            }
+        });
+    }
+
+    /**
+     * Busca os Produtos que contêm todas as palavras da consulta no nome ou na descrição
+     * Palavras encontradas no nome pesam mais na relevância do que as encontradas na descrição.
+     *
+     * @param query   o texto da consulta
+     * @param pageNum o número da página a ser recuperada
+     * @return uma Página de Produtos, do mais para o menos relevante
+     */
+    public Page<Product> search(String query, int pageNum) {
+        PageRequest pageable = PageRequest.of(pageNum - 1, pageSize);
+        InvertedIndex.Result result = index.search(query, (int) pageable.getOffset(), pageSize);
+
+        Map<Long, Product> found = new HashMap<>();
+        for (Product product : productRepository.findAllById(result.ids())) {
+            found.put(product.getId(), product);
+        }
+        List<Product> content = new ArrayList<>();
+        for (Long id : result.ids()) {
+            Product product = found.get(id);
+            if (product != null) {
+                content.add(product);
+            }
+        }
+        return new PageImpl<>(content, pageable, result.total());
+    }
+
+    /**
+     * Atualiza o índice após a confirmação de uma alteração de Produto
+     *
+     * @param event o evento de alteração
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.type() != Product.class) {
+            return;
+        }
+        if (event.kind() == EntityChangeEvent.Kind.DELETED) {
+            index.remove(event.id());
+        } else {
+            indexProduct((Product) event.entity());
+        }
+    }
+
+    /**
+     * Indexa um Produto pelo nome e pela descrição
+     *
+     * @param product o Produto
+     */
+    private void indexProduct(Product product) {
+        index.put(product.getId(), product.getName(), product.getDescription());
+    }
+}
@@ -1,46 +1,113 @@
 package com.example.springdatapoo.service;
 
+import com.example.springdatapoo.config.CacheConfig;
+import com.example.springdatapoo.config.ReadFromPrimary;
+import com.example.springdatapoo.event.EntityChangeEvent;
 import com.example.springdatapoo.model.Product;
 import com.example.springdatapoo.repository.ProductRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Classe de Serviço para gerenciar a Entidade Product
  * Contém métodos para efetuar operações CRUD, Paginação e Ordenação em Produtos
+ * As consultas são executadas em transações somente leitura; as listagens podem ser atendidas pela réplica de leitura
+ * As buscas por ID passam pelo cache de Produtos, que guarda cópias desanexadas e nunca as entrega:
+ * cada chamada recebe a sua própria cópia, que pode alterar sem afetar o cache nem as outras requisições.
  */
 @Service
 @Transactional
 public class ProductService {
     private final ProductRepository productRepository;
+    private final KeysetPaginator keysetPaginator;
+    private final EntityCountService entityCountService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Cache cache;
+    private final int pageSize;
 
     /**
      * Construtor para ProductService
      *
      * @param productRepository o repositório para acessar dados dos produtos
+     * @param keysetPaginator o paginador por chave
+     * @param entityCountService o serviço de contagem de registros
+     * @param eventPublisher o publicador dos eventos de alteração de produtos
+     * @param cacheManager o gerenciador de caches, de onde vem o cache de Produtos
+     * @param pageSize o número de produtos por página
      */
-    public ProductService(ProductRepository productRepository) {
+    public ProductService(ProductRepository productRepository,
+                          KeysetPaginator keysetPaginator,
+                          EntityCountService entityCountService,
+                          ApplicationEventPublisher eventPublisher,
+                          CacheManager cacheManager,
+                          @Value("${app.pagination.page-size:5}") int pageSize) {
         this.productRepository = productRepository;
+        this.keysetPaginator = keysetPaginator;
+        this.entityCountService = entityCountService;
+        this.eventPublisher = eventPublisher;
+        this.cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        this.pageSize = pageSize;
     }
 
     /**
      * Recupera uma lista paginada e ordenada de todos os produtos
+     * O total de produtos vem da contagem mantida em memória, sem um COUNT(*) por página
      *
      * @param pageNum o numero da pagina
      * @param sortField o campo pelo qual ordenar
      * @param sortDir a direção de ordenação (ascendente ou decrescente)
      * @return uma página de produtos
      */
+    @Transactional(readOnly = true)
     public Page<Product> listAll(int pageNum, String sortField, String sortDir) {
-        int pageSize = 5;
         Pageable pageable = PageRequest.of(pageNum - 1, pageSize,
                 sortDir.equals("asc") ? Sort.by(sortField).ascending()
                         : Sort.by(sortField).descending());
-        return productRepository.findAll(pageable);
+        Slice<Product> slice = productRepository.findAllBy(pageable);
+        return entityCountService.toPage(slice, Product.class);
+    }
+
+    /**
+     * Recupera a página de produtos posterior ao último produto exibido (paginação por chave)
+     *
+     * @param sortField o campo pelo qual ordenar
+     * @param sortDir a direção de ordenação (ascendente ou decrescente)
+     * @param after o valor do campo de ordenação do último produto exibido
+     * @param afterId o ID do último produto exibido
+     * @return uma fatia de produtos com o cursor para a próxima
+     */
+    @Transactional(readOnly = true)
+    public KeysetSlice<Product> listAfter(String sortField, String sortDir, String after, Long afterId) {
+        return keysetPaginator.seek(Product.class, sortField, sortDir, after, afterId, pageSize);
+    }
+
+    /**
+     * Calcula o cursor para a página seguinte a uma página de produtos
+     *
+     * @param page a página de produtos exibida
+     * @param sortField o campo pelo qual a página foi ordenada
+     * @return uma fatia com os produtos da página e o cursor para a próxima
+     */
+    public KeysetSlice<Product> toSlice(Page<Product> page, String sortField) {
+        return keysetPaginator.sliceOf(Product.class, page.getContent(), page.hasNext(), sortField);
     }
 
     /**
@@ -49,17 +116,89 @@ public class ProductService {
      * @param product o produto a ser salvo
      */
     public void save(Product product) {
-        productRepository.save(product);
+        boolean created = product.getId() == null;
+        Product saved = productRepository.save(product);
+        eventPublisher.publishEvent(EntityChangeEvent.saved(Product.class, saved.getId(), saved, created));
     }
 
     /**
-     * Procura um produto por seu ID
+     * Procura um produto por seu ID, primeiro no cache de Produtos
+     * Sem transação aberta, um acerto no cache não ocupa nenhuma conexão; uma falta é lida do primário.
      *
      * @param id o ID do produto a ser procurado
-     * @return o produto encontrado com esse ID
+     * @return uma cópia desanexada do produto encontrado com esse ID
+     * @throws java.util.NoSuchElementException se não houver produto com esse ID
      */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @ReadFromPrimary
     public Product findById(long id) {
-        return productRepository.findById(id).get();
+        Product cached = cache.get(id, Product.class);
+        if (cached == null) {
+            cached = copyOf(productRepository.findById(id).orElseThrow());
+            cache.put(id, cached);
+        }
+        return copyOf(cached);
+    }
+
+    /**
+     * Procura vários produtos por seus IDs, primeiro no cache de Produtos
+     * Os que não estiverem no cache são lidos do primário com uma única consulta IN e guardados no cache.
+     * As cópias devolvidas não são gerenciadas; para associá-las a uma entidade, use getReference.
+     *
+     * @param ids os IDs dos produtos a serem procurados
+     * @return cópias desanexadas dos produtos encontrados, indexadas pelo ID
+     * @throws MissingProductsException se algum dos IDs não corresponder a um produto
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    @ReadFromPrimary
+    public Map<Long, Product> findAllByIds(Collection<Long> ids) {
+        Map<Long, Product> products = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        for (Long id : ids) {
+            Product cached = cache.get(id, Product.class);
+            if (cached != null) {
+                products.put(id, copyOf(cached));
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!misses.isEmpty()) {
+            for (Product product : productRepository.findAllById(misses)) {
+                cache.put(product.getId(), copyOf(product));
+                products.put(product.getId(), copyOf(product));
+            }
+        }
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (!products.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new MissingProductsException(missing);
+        }
+        return products;
+    }
+
+    /**
+     * Retorna uma referência a um produto, para associá-lo a outra entidade sem consultar o banco
+     *
+     * @param id o ID do produto
+     * @return a referência, carregada apenas se algum campo além do ID for lido
+     */
+    public Product getReference(long id) {
+        return productRepository.getReferenceById(id);
+    }
+
+    /**
+     * Copia um produto para uma instância nova, não gerenciada
+     *
+     * @param product o produto
+     * @return a cópia
+     */
+    private static Product copyOf(Product product) {
+        return new Product(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getWeight(), product.getVersion());
     }
 
     /**
@@ -68,7 +207,10 @@ public class ProductService {
      * @param id o ID do produto a ser Excluído
      */
     public void delete(long id) {
-        productRepository.deleteById(id);
+        if (productRepository.existsById(id)) {
+            productRepository.deleteById(id);
+            eventPublisher.publishEvent(EntityChangeEvent.deleted(Product.class, id));
+        }
     }
 
 }
@@ -0,0 +1,272 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.dto.SalesLine;
+import com.example.springdatapoo.dto.SalesSummary;
+import com.example.springdatapoo.dto.SalesTotal;
+import com.example.springdatapoo.event.OrderChangeEvent;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.repository.ClientRepository;
+import com.example.springdatapoo.repository.OrderRepository;
+import com.example.springdatapoo.repository.ProductRepository;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Classe de Serviço que mantém em memória os agregados de vendas
+ * Guarda a receita, a quantidade vendida e o número de Pedidos por Cliente, por Produto e por dia,
+ * além dos totais gerais, para que os relatórios não precisem percorrer a tabela order_item.
+ * Os agregados são calculados uma vez na inicialização e depois atualizados pela diferença
+ * entre o estado anterior e o novo de cada Pedido alterado, após a confirmação da transação.
+ * A receita de um item usa o preço unitário gravado no item quando ele foi adicionado ao Pedido,
+ * e não o preço atual do Produto: o valor subtraído quando o Pedido é alterado ou excluído é o mesmo que foi somado,
+ * e as mudanças de preço dos Produtos não afetam a receita dos Pedidos já gravados.
+ */
+@Service
+public class SalesAnalyticsService {
+
+    private final OrderRepository orderRepository;
+    private final ClientRepository clientRepository;
+    private final ProductRepository productRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private final LongKeyedTotals byClient = new LongKeyedTotals();
+    private final LongKeyedTotals byProduct = new LongKeyedTotals();
+    private final LongKeyedTotals byDay = new LongKeyedTotals();
+    private long orderCount;
+    private long revenueCents;
+    private long quantity;
+
+    /**
+     * Construtor da classe SalesAnalyticsService
+     *
+     * @param orderRepository    o repositório para acesso aos dados de Pedido
+     * @param clientRepository   o repositório para acesso aos dados de Cliente, usado para os nomes nos relatórios
+     * @param productRepository  o repositório para acesso aos dados de Produto, usado para os nomes nos relatórios
+     * @param transactionManager o gerenciador de transações da carga inicial
+     */
+    public SalesAnalyticsService(OrderRepository orderRepository,
+                                 ClientRepository clientRepository,
+                                 ProductRepository productRepository,
+                                 PlatformTransactionManager transactionManager) {
+        this.orderRepository = orderRepository;
+        this.clientRepository = clientRepository;
+        this.productRepository = productRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Calcula os agregados a partir de todos os Pedidos quando a aplicação termina de iniciar
+     * Os itens são lidos em uma única consulta, ordenada por Pedido, sem carregar entidades.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadAggregates() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<SalesLine> stream = orderRepository.streamSalesLines()) {
+                Long currentOrder = null;
+                Long clientId = null;
+                LocalDate day = null;
+                List<OrderChangeEvent.Line> lines = new ArrayList<>();
+                for (SalesLine row : (Iterable<SalesLine>) stream::iterator) {
+                    if (!row.getOrderId().equals(currentOrder)) {
+                        if (currentOrder != null) {
+                            apply(new OrderChangeEvent.Snapshot(clientId, day, lines), 1);
+                        }
+                        currentOrder = row.getOrderId();
+                        clientId = row.getClientId();
+                        day = row.getCreatedAt() == null ? null : row.getCreatedAt().toLocalDate();
+                        lines = new ArrayList<>();
+                    }
+                    if (row.getProductId() != null) {
+                        lines.add(new OrderChangeEvent.Line(row.getProductId(), row.getQuantity(),
+                                row.getPrice().getCents()));
+                    }
+                }
+                if (currentOrder != null) {
+                    apply(new OrderChangeEvent.Snapshot(clientId, day, lines), 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Aplica aos agregados a diferença de um Pedido alterado, após a confirmação da transação
+     *
+     * @param event o evento com o estado anterior e o novo do Pedido
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onOrderChange(OrderChangeEvent event) {
+        if (event.before() != null) {
+            apply(event.before(), -1);
+        }
+        if (event.after() != null) {
+            apply(event.after(), 1);
+        }
+    }
+
+    /**
+     * Retorna os totais gerais de vendas
+     *
+     * @return os totais gerais
+     */
+    public synchronized SalesSummary summary() {
+        return new SalesSummary(orderCount, revenueCents, quantity);
+    }
+
+    /**
+     * Retorna os Clientes com maior receita
+     *
+     * @param limit o número máximo de Clientes
+     * @return os totais dos Clientes, da maior para a menor receita
+     */
+    public List<SalesTotal> topClients(int limit) {
+        List<SalesTotal> top;
+        synchronized (this) {
+            top = top(byClient, limit);
+        }
+        return withLabels(top, clientRepository.findAllById(keys(top)), Client::getId, Client::getName);
+    }
+
+    /**
+     * Retorna os Produtos com maior receita
+     *
+     * @param limit o número máximo de Produtos
+     * @return os totais dos Produtos, da maior para a menor receita
+     */
+    public List<SalesTotal> topProducts(int limit) {
+        List<SalesTotal> top;
+        synchronized (this) {
+            top = top(byProduct, limit);
+        }
+        return withLabels(top, productRepository.findAllById(keys(top)), Product::getId, Product::getName);
+    }
+
+    /**
+     * Retorna a receita de cada dia de um período, incluindo os dias sem vendas
+     *
+     * @param from o primeiro dia
+     * @param to   o último dia
+     * @return os totais de cada dia, em ordem cronológica
+     */
+    public synchronized List<SalesTotal> dailyRevenue(LocalDate from, LocalDate to) {
+        List<SalesTotal> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            String label = day.toString();
+            boolean found = byDay.get(day.toEpochDay(), (key, revenue, sold, orders) ->
+                    days.add(new SalesTotal(key, label, revenue, sold, orders)));
+            if (!found) {
+                days.add(new SalesTotal(day.toEpochDay(), label, 0, 0, 0));
+            }
+        }
+        return days;
+    }
+
+    /**
+     * Soma ou subtrai dos agregados a contribuição de um Pedido
+     *
+     * @param snapshot o estado do Pedido
+     * @param sign     1 para somar, -1 para subtrair
+     */
+    private void apply(OrderChangeEvent.Snapshot snapshot, int sign) {
+        long orderRevenue = 0;
+        long orderQuantity = 0;
+        Set<Long> products = new HashSet<>();
+        for (OrderChangeEvent.Line line : snapshot.lines()) {
+            long lineRevenue = line.unitPriceCents() * line.quantity();
+            byProduct.add(line.productId(), sign * lineRevenue, (long) sign * line.quantity(),
+                    products.add(line.productId()) ? sign : 0);
+            orderRevenue += lineRevenue;
+            orderQuantity += line.quantity();
+        }
+        if (snapshot.clientId() != null) {
+            byClient.add(snapshot.clientId(), sign * orderRevenue, sign * orderQuantity, sign);
+        }
+        if (snapshot.day() != null) {
+            byDay.add(snapshot.day().toEpochDay(), sign * orderRevenue, sign * orderQuantity, sign);
+        }
+        orderCount += sign;
+        revenueCents += sign * orderRevenue;
+        quantity += sign * orderQuantity;
+    }
+
+    /**
+     * Seleciona as chaves de maior receita de uma tabela, ignorando as que não têm mais Pedidos
+     *
+     * @param totals a tabela de totais
+     * @param limit  o número máximo de chaves
+     * @return os totais selecionados, sem nome, da maior para a menor receita
+     */
+    private static List<SalesTotal> top(LongKeyedTotals totals, int limit) {
+        Comparator<SalesTotal> byRevenue = Comparator.comparingLong(SalesTotal::getRevenueCents);
+        PriorityQueue<SalesTotal> heap = new PriorityQueue<>(byRevenue);
+        totals.forEach((key, revenue, sold, orders) -> {
+            if (orders <= 0) {
+                return;
+            }
+            if (heap.size() < limit) {
+                heap.offer(new SalesTotal(key, null, revenue, sold, orders));
+            } else if (limit > 0 && revenue > heap.peek().getRevenueCents()) {
+                heap.poll();
+                heap.offer(new SalesTotal(key, null, revenue, sold, orders));
+            }
+        });
+        List<SalesTotal> top = new ArrayList<>(heap);
+        top.sort(byRevenue.reversed());
+        return top;
+    }
+
+    /**
+     * Retorna as chaves de uma lista de totais
+     *
+     * @param totals os totais
+     * @return as chaves, na mesma ordem
+     */
+    private static List<Long> keys(List<SalesTotal> totals) {
+        List<Long> keys = new ArrayList<>(totals.size());
+        for (SalesTotal total : totals) {
+            keys.add(total.getKey());
+        }
+        return keys;
+    }
+
+    /**
+     * Preenche o nome de cada linha a partir das entidades correspondentes
+     *
+     * @param totals   os totais sem nome
+     * @param entities as entidades das chaves
+     * @param idOf     a função que retorna o ID de uma entidade
+     * @param labelOf  a função que retorna o nome de uma entidade
+     * @param <T>      o tipo das entidades
+     * @return os totais com nome, na mesma ordem
+     */
+    private static <T> List<SalesTotal> withLabels(List<SalesTotal> totals, List<T> entities,
+                                                   Function<T, Long> idOf, Function<T, String> labelOf) {
+        Map<Long, String> labels = new HashMap<>();
+        for (T entity : entities) {
+            labels.put(idOf.apply(entity), labelOf.apply(entity));
+        }
+        List<SalesTotal> labeled = new ArrayList<>(totals.size());
+        for (SalesTotal total : totals) {
+            String label = labels.getOrDefault(total.getKey(), "#" + total.getKey());
+            labeled.add(new SalesTotal(total.getKey(), label, total.getRevenueCents(), total.getQuantity(), total.getOrders()));
+        }
+        return labeled;
+    }
+}
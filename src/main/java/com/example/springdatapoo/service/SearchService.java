@@ -0,0 +1,144 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.dto.SearchOption;
+import com.example.springdatapoo.event.EntityChangeEvent;
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Product;
+import com.example.springdatapoo.repository.ClientRepository;
+import com.example.springdatapoo.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Classe de Serviço para a busca de Produtos e Clientes por prefixo
+ * Mantém em memória um índice por nome de Produto e por nome e email de Cliente,
+ * carregado na inicialização e atualizado pelos eventos de alteração publicados pelos serviços,
+ * para que o formulário de Pedidos busque as opções sob demanda sem consultar o banco.
+ */
+@Service
+public class SearchService {
+
+    /**
+     * Número máximo de resultados de uma busca
+     */
+    public static final int MAX_LIMIT = 50;
+
+    private final ProductRepository productRepository;
+    private final ClientRepository clientRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final PrefixIndex<SearchOption> products = new PrefixIndex<>();
+    private final PrefixIndex<SearchOption> clients = new PrefixIndex<>();
+
+    /**
+     * Construtor da classe SearchService
+     *
+     * @param productRepository  o repositório para acesso aos dados de Produto
+     * @param clientRepository   o repositório para acesso aos dados de Cliente
+     * @param entityManager      o gerenciador de entidades, usado para liberar as entidades já indexadas
+     * @param transactionManager o gerenciador de transações da carga inicial
+     */
+    public SearchService(ProductRepository productRepository,
+                         ClientRepository clientRepository,
+                         EntityManager entityManager,
+                         PlatformTransactionManager transactionManager) {
+        this.productRepository = productRepository;
+        this.clientRepository = clientRepository;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Carrega os índices com todos os Produtos e Clientes quando a aplicação termina de iniciar
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<Product> stream = productRepository.streamAll()) {
+                stream.forEach(product -> {
+                    indexProduct(product);
+                    entityManager.detach(product);
+                });
+            }
+            try (Stream<Client> stream = clientRepository.streamAll()) {
+                stream.forEach(client -> {
+                    indexClient(client);
+                    entityManager.detach(client);
+                });
+            }
+        });
+    }
+
+    /**
+     * Busca Produtos cujo nome contenha uma palavra iniciada pelo texto digitado
+     *
+     * @param query o texto digitado
+     * @param limit o número máximo de resultados
+     * @return as opções encontradas, em ordem alfabética
+     */
+    public List<SearchOption> searchProducts(String query, int limit) {
+        return products.search(query, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Busca Clientes cujo nome ou email contenha uma palavra iniciada pelo texto digitado
+     *
+     * @param query o texto digitado
+     * @param limit o número máximo de resultados
+     * @return as opções encontradas, em ordem alfabética
+     */
+    public List<SearchOption> searchClients(String query, int limit) {
+        return clients.search(query, Math.min(limit, MAX_LIMIT));
+    }
+
+    /**
+     * Atualiza os índices após a confirmação de uma alteração de Produto ou Cliente
+     *
+     * @param event o evento de alteração
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        if (event.type() == Product.class) {
+            if (event.kind() == EntityChangeEvent.Kind.DELETED) {
+                products.remove(event.id());
+            } else {
+                indexProduct((Product) event.entity());
+            }
+        } else if (event.type() == Client.class) {
+            if (event.kind() == EntityChangeEvent.Kind.DELETED) {
+                clients.remove(event.id());
+            } else {
+                indexClient((Client) event.entity());
+            }
+        }
+    }
+
+    /**
+     * Indexa um Produto pelo nome
+     *
+     * @param product o Produto
+     */
+    private void indexProduct(Product product) {
+        SearchOption option = new SearchOption(product.getId(), product.getName(), product.getPrice().toString());
+        products.put(product.getId(), option, product.getName());
+    }
+
+    /**
+     * Indexa um Cliente pelo nome e pelo email
+     *
+     * @param client o Cliente
+     */
+    private void indexClient(Client client) {
+        SearchOption option = new SearchOption(client.getId(), client.getName(), client.getEmail());
+        clients.put(client.getId(), option, client.getName(), client.getEmail());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.event.EntityChangeEvent;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantém em memória uma versão por tabela de entidade, incrementada a cada gravação ou exclusão confirmada
+ * As gravações e exclusões dos serviços de Produtos, Clientes e Pedidos publicam um EntityChangeEvent,
+ * e a versão da tabela é incrementada depois da confirmação da transação.
+ * As versões recomeçam a cada inicialização; por isso as ETags incluem o instante de inicialização,
+ * para que as de uma execução anterior nunca coincidam com as atuais.
+ */
+@Service
+public class TableVersionService {
+
+    private final long startedAt = System.currentTimeMillis();
+    private final Map<Class<?>, TableVersion> versions = new ConcurrentHashMap<>();
+
+    /**
+     * Versão de uma tabela e o instante da sua última alteração
+     *
+     * @param version      o número de alterações desde a inicialização
+     * @param lastModified o instante da última alteração, em milissegundos
+     */
+    public record TableVersion(long version, long lastModified) {
+    }
+
+    /**
+     * Retorna a versão atual de uma tabela
+     *
+     * @param type a classe da entidade
+     * @return a versão da tabela; sem alterações desde a inicialização, a versão 0 no instante da inicialização
+     */
+    public TableVersion version(Class<?> type) {
+        return versions.getOrDefault(type, new TableVersion(0, startedAt));
+    }
+
+    /**
+     * Monta a ETag do estado atual de um conjunto de tabelas
+     *
+     * @param types as classes das entidades exibidas
+     * @return a ETag, entre aspas
+     */
+    public String etag(Class<?>... types) {
+        StringBuilder etag = new StringBuilder("\"").append(Long.toString(startedAt, 36));
+        for (Class<?> type : types) {
+            etag.append('-').append(Long.toString(version(type).version(), 36));
+        }
+        return etag.append('"').toString();
+    }
+
+    /**
+     * Retorna o instante da alteração mais recente de um conjunto de tabelas
+     *
+     * @param types as classes das entidades exibidas
+     * @return o instante, em milissegundos
+     */
+    public long lastModified(Class<?>... types) {
+        long lastModified = startedAt;
+        for (Class<?> type : types) {
+            lastModified = Math.max(lastModified, version(type).lastModified());
+        }
+        return lastModified;
+    }
+
+    /**
+     * Incrementa a versão da tabela da entidade alterada
+     *
+     * @param event o evento de alteração
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEntityChange(EntityChangeEvent event) {
+        long now = System.currentTimeMillis();
+        versions.compute(event.type(), (type, current) -> current == null
+                ? new TableVersion(1, now)
+                : new TableVersion(current.version() + 1, now));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Campos de busca do formulário de Pedidos.
+ * Cada elemento .typeahead tem um campo oculto com o ID escolhido, um campo de texto
+ * e uma lista de sugestões buscadas na URL de data-typeahead enquanto o usuário digita.
+ */
+(function () {
+    const DEBOUNCE_MS = 150;
+    const LIMIT = 10;
+
+    function close(box) {
+        box.querySelector('.typeahead-options').replaceChildren();
+    }
+
+    function render(box, options) {
+        const list = box.querySelector('.typeahead-options');
+        list.replaceChildren();
+        options.forEach(function (option) {
+            const button = document.createElement('button');
+            button.type = 'button';
+            button.classList.add('list-group-item', 'list-group-item-action');
+            button.textContent = option.label;
+            if (option.detail) {
+                const detail = document.createElement('small');
+                detail.classList.add('text-muted', 'ms-2');
+                detail.textContent = option.detail;
+                button.appendChild(detail);
+            }
+            button.addEventListener('mousedown', function (event) {
+                event.preventDefault();
+                box.querySelector('input[type="hidden"]').value = option.id;
+                box.querySelector('.typeahead-input').value = option.label;
+                close(box);
+            });
+            list.appendChild(button);
+        });
+    }
+
+    function search(box, query) {
+        if (box.pending) {
+            box.pending.abort();
+        }
+        if (query.trim() === '') {
+            close(box);
+            return;
+        }
+        box.pending = new AbortController();
+        const url = box.dataset.typeahead + '?limit=' + LIMIT + '&q=' + encodeURIComponent(query);
+        fetch(url, {signal: box.pending.signal})
+            .then(function (response) { return response.json(); })
+            .then(function (options) { render(box, options); })
+            .catch(function (error) {
+                if (error.name !== 'AbortError') {
+                    close(box);
+                }
+            });
+    }
+
+    document.addEventListener('input', function (event) {
+        if (!event.target.classList.contains('typeahead-input')) {
+            return;
+        }
+        const box = event.target.closest('.typeahead');
+        box.querySelector('input[type="hidden"]').value = '';
+        clearTimeout(box.timer);
+        box.timer = setTimeout(function () { search(box, event.target.value); }, DEBOUNCE_MS);
+    });
+
+    document.addEventListener('focusout', function (event) {
+        if (event.target.classList.contains('typeahead-input')) {
+            close(event.target.closest('.typeahead'));
+        }
+    });
+})();
@@ -0,0 +1,89 @@
+package com.example.springdatapoo.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BulkheadDataSourceTest {
+
+    private final AtomicInteger open = new AtomicInteger();
+
+    @Test
+    void givesANestedConnectionWithoutAPermit() throws SQLException {
+        BulkheadDataSource bulkhead = bulkhead(1);
+
+        try (Connection outer = bulkhead.getConnection()) {
+            try (Connection nested = bulkhead.getConnection()) {
+                assertEquals(2, open.get());
+            }
+            try (Connection nested = bulkhead.getConnection()) {
+                assertEquals(2, open.get());
+            }
+        }
+        assertEquals(0, open.get());
+
+        try (Connection again = bulkhead.getConnection()) {
+            assertEquals(1, open.get());
+        }
+    }
+
+    @Test
+    void makesOtherThreadsWaitForThePermitUntilTheOuterConnectionIsClosed() throws SQLException {
+        BulkheadDataSource bulkhead = bulkhead(1);
+
+        Connection outer = bulkhead.getConnection();
+        Connection nested = bulkhead.getConnection();
+        CompletionException blocked = assertThrows(CompletionException.class,
+                () -> CompletableFuture.runAsync(() -> connectAndClose(bulkhead)).join());
+        assertEquals(ResponseStatusException.class, blocked.getCause().getClass());
+        nested.close();
+        blocked = assertThrows(CompletionException.class,
+                () -> CompletableFuture.runAsync(() -> connectAndClose(bulkhead)).join());
+        assertEquals(ResponseStatusException.class, blocked.getCause().getClass());
+        outer.close();
+
+        CompletableFuture.runAsync(() -> connectAndClose(bulkhead)).join();
+        assertEquals(0, open.get());
+    }
+
+    private BulkheadDataSource bulkhead(int permits) {
+        return new BulkheadDataSource(pool(), "test", permits, Duration.ofMillis(100), new SimpleMeterRegistry());
+    }
+
+    private static void connectAndClose(DataSource dataSource) {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.isClosed();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private DataSource pool() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("getConnection")) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    open.incrementAndGet();
+                    return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                            (connection, call, callArgs) -> {
+                                if (call.getName().equals("close")) {
+                                    open.decrementAndGet();
+                                }
+                                return call.getReturnType() == boolean.class ? false : null;
+                            });
+                });
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.springdatapoo.config;
+
+import com.example.springdatapoo.model.Money;
+import org.junit.jupiter.api.Test;
+
+import java.text.ParseException;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyFormatterTest {
+
+    private static final Locale PT_BR = Locale.forLanguageTag("pt-BR");
+
+    private final MoneyFormatter formatter = new MoneyFormatter();
+
+    @Test
+    void printsWithTheSeparatorsOfTheLocale() {
+        assertEquals("1.234,50", formatter.print(Money.ofCents(123450), PT_BR));
+        assertEquals("1,234.50", formatter.print(Money.ofCents(123450), Locale.US));
+        assertEquals("0,05", formatter.print(Money.ofCents(5), PT_BR));
+        assertEquals("-1.000.000,00", formatter.print(Money.ofCents(-100000000), PT_BR));
+    }
+
+    @Test
+    void parsesWithTheSeparatorsOfTheLocale() throws ParseException {
+        assertEquals(Money.ofCents(123450), formatter.parse("1.234,50", PT_BR));
+        assertEquals(Money.ofCents(123450), formatter.parse("1234,5", PT_BR));
+        assertEquals(Money.ofCents(123450), formatter.parse("1,234.50", Locale.US));
+        assertEquals(Money.ofCents(1000), formatter.parse(" 10 ", PT_BR));
+        assertEquals(Money.ofCents(-250), formatter.parse("-2,50", PT_BR));
+    }
+
+    @Test
+    void roundsExtraDecimalPlacesHalfUp() throws ParseException {
+        assertEquals(Money.ofCents(1), formatter.parse("0,005", PT_BR));
+        assertEquals(Money.ZERO, formatter.parse("0,0049", PT_BR));
+        assertEquals(Money.ofCents(123457), formatter.parse("1.234,565", PT_BR));
+    }
+
+    @Test
+    void rejectsTextThatIsNotEntirelyAnAmount() {
+        assertThrows(ParseException.class, () -> formatter.parse("", PT_BR));
+        assertThrows(ParseException.class, () -> formatter.parse("abc", PT_BR));
+        assertThrows(ParseException.class, () -> formatter.parse("12,50abc", PT_BR));
+        assertThrows(ParseException.class, () -> formatter.parse("R$ 12,50", PT_BR));
+        assertThrows(ParseException.class, () -> formatter.parse("1.234,56", Locale.US));
+    }
+
+    @Test
+    void parsesWhatItPrints() throws ParseException {
+        for (long cents : new long[]{0, 1, 99, 100, 123456789, -42}) {
+            Money money = Money.ofCents(cents);
+            assertEquals(money, formatter.parse(formatter.print(money, PT_BR), PT_BR));
+            assertEquals(money, formatter.parse(formatter.print(money, Locale.US), Locale.US));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.springdatapoo.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+    @Test
+    void readsPlainFieldsAndEmptyFields() throws IOException {
+        CsvReader reader = reader("a;b;;c\n;;\n");
+
+        assertEquals(List.of("a", "b", "", "c"), reader.readRow());
+        assertEquals(List.of("", "", ""), reader.readRow());
+        assertNull(reader.readRow());
+    }
+
+    @Test
+    void readsQuotedFieldsWithSeparatorsAndEscapedQuotes() throws IOException {
+        CsvReader reader = reader("\"a;b\";\"say \"\"hi\"\"\";\"\"\n");
+
+        assertEquals(List.of("a;b", "say \"hi\"", ""), reader.readRow());
+        assertNull(reader.readRow());
+    }
+
+    @Test
+    void readsLineBreaksInsideQuotedFieldsAndCountsLines() throws IOException {
+        CsvReader reader = reader("1;\"first\nsecond\"\n2;third\n");
+
+        assertEquals(List.of("1", "first\nsecond"), reader.readRow());
+        assertEquals(1, reader.getRowLineNumber());
+        assertEquals(List.of("2", "third"), reader.readRow());
+        assertEquals(3, reader.getRowLineNumber());
+    }
+
+    @Test
+    void ignoresCarriageReturnsOutsideQuotes() throws IOException {
+        CsvReader reader = reader("a;b\r\n\"c\r\";d\r\n");
+
+        assertEquals(List.of("a", "b"), reader.readRow());
+        assertEquals(List.of("c\r", "d"), reader.readRow());
+        assertNull(reader.readRow());
+    }
+
+    @Test
+    void readsLastRowWithoutTrailingLineBreak() throws IOException {
+        CsvReader reader = reader("a;b\nc;\"d\"");
+
+        assertEquals(List.of("a", "b"), reader.readRow());
+        assertEquals(List.of("c", "d"), reader.readRow());
+        assertNull(reader.readRow());
+    }
+
+    @Test
+    void rejectsUnterminatedQuotedField() throws IOException {
+        CsvReader reader = reader("a;b\nc;\"unterminated\n");
+        reader.readRow();
+
+        IOException e = assertThrows(IOException.class, reader::readRow);
+        assertEquals("Unterminated quoted field starting at line 2", e.getMessage());
+    }
+
+    private static CsvReader reader(String content) {
+        return new CsvReader(new StringReader(content), ';');
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.springdatapoo.io;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CsvWriterTest {
+
+    @Test
+    void writesPlainFieldsWithoutQuotesAndNullsAsEmptyFields() throws IOException {
+        assertEquals("a;1;;2.5\n", write(Arrays.asList("a", 1, null, 2.5)));
+    }
+
+    @Test
+    void quotesFieldsWithSeparatorsQuotesAndLineBreaks() throws IOException {
+        assertEquals("\"a;b\";\"say \"\"hi\"\"\";\"x\ny\";\"r\r\"\n",
+                write(List.of("a;b", "say \"hi\"", "x\ny", "r\r")));
+    }
+
+    @Test
+    void quotesOnlyTheConfiguredSeparator() throws IOException {
+        StringWriter out = new StringWriter();
+        new CsvWriter(out, ',').writeRow(List.of("a;b", "c,d"));
+
+        assertEquals("a;b,\"c,d\"\n", out.toString());
+    }
+
+    @Test
+    void rowsWrittenAreReadBackUnchanged() throws IOException {
+        List<String> row = List.of("plain", "with;separator", "with \"quotes\"", "multi\nline", "", "\"");
+
+        CsvReader reader = new CsvReader(new StringReader(write(row)), ';');
+
+        assertEquals(row, reader.readRow());
+    }
+
+    private static String write(List<?> values) throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out, ';');
+        writer.writeRow(values);
+        writer.flush();
+        return out.toString();
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springdatapoo.journal;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JournalReplayRunnerTest {
+
+    private static final MutationRecord ORDER = new MutationRecord(3, 1_700_000_000_000L, MutationType.ORDER_SAVED, 9,
+            new MutationRecord.OrderState(8, 5, 800, 0,
+                    List.of(new MutationRecord.Item(1, 7, 2, 250), new MutationRecord.Item(2, 70, 1, 300))));
+
+    @Test
+    void rebuildInsertsTheJournaledUnitPriceOfEachItem() {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+
+        runner(jdbcTemplate).rebuild(List.of(ORDER));
+
+        List<Object[]> items = jdbcTemplate.batch("insert into order_item");
+        assertEquals(2, items.size());
+        assertEquals(List.of(1L, 9L, 7L, 2, new BigDecimal("2.50")), Arrays.asList(items.get(0)));
+        assertEquals(List.of(2L, 9L, 70L, 1, new BigDecimal("3.00")), Arrays.asList(items.get(1)));
+    }
+
+    @Test
+    void verifyComparesTheUnitPriceOfEachItem() {
+        RecordingJdbcTemplate jdbcTemplate = new RecordingJdbcTemplate();
+        jdbcTemplate.row = Map.of("client_id", 8L, "delivery_days", 5L, "total_price", new BigDecimal("8.00"));
+        JournalReplayRunner runner = runner(jdbcTemplate);
+
+        jdbcTemplate.items = List.of(new MutationRecord.Item(1, 7, 2, 250), new MutationRecord.Item(2, 70, 1, 300));
+        assertNull(runner.difference(ORDER));
+
+        jdbcTemplate.items = List.of(new MutationRecord.Item(1, 7, 2, 260), new MutationRecord.Item(2, 70, 1, 300));
+        assertNotNull(runner.difference(ORDER));
+    }
+
+    private static JournalReplayRunner runner(JdbcTemplate jdbcTemplate) {
+        return new JournalReplayRunner(null, jdbcTemplate, null, null, null, "");
+    }
+
+    private static class RecordingJdbcTemplate extends JdbcTemplate {
+
+        private final Map<String, List<Object[]>> batches = new LinkedHashMap<>();
+        private Map<String, Object> row;
+        private List<MutationRecord.Item> items;
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            batches.put(sql, new ArrayList<>(batchArgs));
+            return new int[batchArgs.size()];
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            return List.of(row);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> List<T> query(String sql, RowMapper<T> rowMapper, Object... args) {
+            return (List<T>) items;
+        }
+
+        private List<Object[]> batch(String prefix) {
+            return batches.entrySet().stream()
+                    .filter(entry -> entry.getKey().startsWith(prefix))
+                    .map(Map.Entry::getValue)
+                    .findFirst()
+                    .orElseThrow();
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.springdatapoo.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JournalSegmentTest {
+
+    private static final int SIZE = 4096;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void reopensWithTheRecordsWrittenAndContinuesAfterThem() throws IOException {
+        Path path;
+        int end;
+        try (JournalSegment segment = JournalSegment.create(directory, 1, SIZE)) {
+            assertTrue(segment.append(record(1)));
+            assertTrue(segment.append(record(2)));
+            segment.force();
+            path = segment.path();
+            end = segment.position();
+        }
+        assertEquals(SIZE, Files.size(path));
+        assertEquals(1, JournalSegment.baseSequenceOf(path));
+
+        List<MutationRecord> read = new ArrayList<>();
+        try (JournalSegment segment = JournalSegment.open(path, true, read::add)) {
+            assertEquals(List.of(record(1), record(2)), read);
+            assertEquals(end, segment.position());
+            assertEquals(2, segment.lastSequence());
+            assertTrue(segment.append(record(3)));
+        }
+
+        assertEquals(List.of(record(1), record(2), record(3)), readAll(path));
+    }
+
+    @Test
+    void discardsARecordTornByACrash() throws IOException {
+        Path path;
+        int second;
+        int end;
+        try (JournalSegment segment = JournalSegment.create(directory, 10, SIZE)) {
+            segment.append(record(10));
+            second = segment.position();
+            segment.append(record(11));
+            end = segment.position();
+            path = segment.path();
+        }
+        // Queda no meio da escrita do segundo registro: o fim do conteúdo não chegou ao disco
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), end - 4);
+        }
+
+        List<MutationRecord> read = new ArrayList<>();
+        try (JournalSegment segment = JournalSegment.open(path, true, read::add)) {
+            assertEquals(List.of(record(10)), read);
+            assertEquals(second, segment.position());
+            assertEquals(10, segment.lastSequence());
+            assertTrue(segment.append(record(12)));
+        }
+
+        assertEquals(List.of(record(10), record(12)), readAll(path));
+    }
+
+    @Test
+    void zeroesTheBytesAfterTheLastIntactRecord() throws IOException {
+        Path path;
+        int end;
+        try (JournalSegment segment = JournalSegment.create(directory, 1, SIZE)) {
+            segment.append(record(1));
+            end = segment.position();
+            path = segment.path();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9}), end + 100);
+        }
+
+        try (JournalSegment segment = JournalSegment.open(path, true, record -> {
+        })) {
+            assertEquals(end, segment.position());
+        }
+        byte[] bytes = Files.readAllBytes(path);
+        for (int i = end; i < bytes.length; i++) {
+            assertEquals(0, bytes[i]);
+        }
+    }
+
+    @Test
+    void refusesARecordThatDoesNotFitAndKeepsTheSegmentReadable() throws IOException {
+        Path path;
+        int appended = 0;
+        try (JournalSegment segment = JournalSegment.create(directory, 1, 256)) {
+            while (segment.append(record(appended + 1))) {
+                appended++;
+            }
+            int end = segment.position();
+            assertFalse(segment.append(record(appended + 1)));
+            assertEquals(end, segment.position());
+            assertEquals(appended, segment.lastSequence());
+
+            List<MutationRecord> read = new ArrayList<>();
+            segment.read(end, read::add);
+            assertEquals(appended, read.size());
+            path = segment.path();
+        }
+        assertTrue(appended > 0);
+        assertEquals(appended, readAll(path).size());
+    }
+
+    private static List<MutationRecord> readAll(Path path) throws IOException {
+        List<MutationRecord> read = new ArrayList<>();
+        try (JournalSegment segment = JournalSegment.open(path, false, read::add)) {
+            return read;
+        }
+    }
+
+    private static MutationRecord record(long sequence) {
+        return new MutationRecord(sequence, 1_700_000_000_000L + sequence, MutationType.CLIENT_SAVED, sequence,
+                new MutationRecord.ClientState("Cliente " + sequence, "c" + sequence + "@example.com", "Rua A", "01001-000"));
+    }
+}
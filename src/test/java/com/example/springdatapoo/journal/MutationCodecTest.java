@@ -0,0 +1,122 @@
+package com.example.springdatapoo.journal;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MutationCodecTest {
+
+    private static final MutationRecord PRODUCT = new MutationRecord(1, 1_700_000_000_000L, MutationType.PRODUCT_SAVED, 7,
+            new MutationRecord.ProductState("Caneta", "Azul, ponta fina — 0,7 mm", -250, 0.015));
+    private static final MutationRecord CLIENT = new MutationRecord(2, 1_700_000_000_001L, MutationType.CLIENT_SAVED, 8,
+            new MutationRecord.ClientState("João", "joao@example.com", "Rua A, 1", "01001-000"));
+    private static final MutationRecord ORDER = new MutationRecord(300, 1_700_000_000_002L, MutationType.ORDER_SAVED, 9,
+            new MutationRecord.OrderState(8, 5, 123_456, 1_699_999_999_000L,
+                    List.of(new MutationRecord.Item(1, 7, 3, 250), new MutationRecord.Item(2, 70_000, 1, 99_999))));
+    private static final MutationRecord DELETION = new MutationRecord(Long.MAX_VALUE, 0, MutationType.ORDER_DELETED, 9, null);
+
+    @Test
+    void decodesWhatItEncodes() {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        for (MutationRecord record : List.of(PRODUCT, CLIENT, ORDER, DELETION)) {
+            MutationCodec.encode(record, buffer);
+        }
+        int end = buffer.position();
+
+        buffer.flip();
+        assertEquals(List.of(PRODUCT, CLIENT, ORDER, DELETION), decodeAll(buffer));
+        assertEquals(end, buffer.position());
+    }
+
+    @Test
+    void keepsTheUnitPriceOfEachItem() {
+        MutationRecord order = new MutationRecord(4, 1_700_000_000_003L, MutationType.ORDER_SAVED, 10,
+                new MutationRecord.OrderState(8, 0, 0, 0,
+                        List.of(new MutationRecord.Item(3, 7, 2, 0), new MutationRecord.Item(4, 7, 1, -1),
+                                new MutationRecord.Item(5, 7, 1, Long.MAX_VALUE))));
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        MutationCodec.encode(order, buffer);
+
+        buffer.flip();
+        MutationRecord.OrderState decoded = (MutationRecord.OrderState) MutationCodec.decode(buffer).state();
+        assertEquals(List.of(0L, -1L, Long.MAX_VALUE),
+                decoded.items().stream().map(MutationRecord.Item::unitPriceCents).toList());
+    }
+
+    @Test
+    void stopsAtAZeroedHeader() {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        MutationCodec.encode(PRODUCT, buffer);
+        int end = buffer.position();
+
+        buffer.position(0);
+        assertEquals(List.of(PRODUCT), decodeAll(buffer));
+        assertEquals(end, buffer.position());
+    }
+
+    @Test
+    void rejectsARecordWhoseContentDoesNotMatchItsCrc() {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        MutationCodec.encode(PRODUCT, buffer);
+        int second = buffer.position();
+        MutationCodec.encode(CLIENT, buffer);
+        MutationCodec.encode(ORDER, buffer);
+        int flipped = second + MutationCodec.HEADER_BYTES + 5;
+        buffer.put(flipped, (byte) (buffer.get(flipped) ^ 0x01));
+
+        buffer.position(0);
+        assertEquals(List.of(PRODUCT), decodeAll(buffer));
+        assertEquals(second, buffer.position());
+    }
+
+    @Test
+    void rejectsARecordTornBeforeItsEnd() {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        MutationCodec.encode(CLIENT, buffer);
+        int second = buffer.position();
+        MutationCodec.encode(ORDER, buffer);
+        int end = buffer.position();
+
+        for (int cut = second; cut < end; cut++) {
+            ByteBuffer torn = buffer.duplicate().position(0).limit(cut);
+            assertEquals(List.of(CLIENT), decodeAll(torn));
+            assertEquals(second, torn.position());
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownTypeEvenWithAValidCrc() {
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        MutationCodec.encode(DELETION, buffer);
+        buffer.put(MutationCodec.HEADER_BYTES, (byte) 0x7F);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(MutationCodec.HEADER_BYTES, buffer.getInt(0)));
+        buffer.putInt(4, (int) crc.getValue());
+
+        buffer.position(0);
+        assertNull(MutationCodec.decode(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void failsWhenTheRecordDoesNotFit() {
+        ByteBuffer buffer = ByteBuffer.allocate(MutationCodec.HEADER_BYTES + 10);
+        assertThrows(RuntimeException.class, () -> MutationCodec.encode(ORDER, buffer));
+    }
+
+    private static List<MutationRecord> decodeAll(ByteBuffer buffer) {
+        List<MutationRecord> records = new ArrayList<>();
+        MutationRecord record;
+        while ((record = MutationCodec.decode(buffer)) != null) {
+            records.add(record);
+        }
+        return records;
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.springdatapoo.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MutationJournalTest {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int CLIENTS = 50;
+    private static final int WRITES = 20_000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readsWhileSegmentsAreCompactedAndKeepsTheLatestStateOfEachEntity() throws Exception {
+        MutationJournal journal = new MutationJournal(true, false, directory, SEGMENT_SIZE, Duration.ofMillis(1), 2);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread reader = new Thread(() -> {
+            try {
+                while (writing.get()) {
+                    journal.forEach(record -> {
+                        if (record.state() == null) {
+                            throw new IllegalStateException("Unexpected deletion " + record);
+                        }
+                    });
+                }
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        reader.start();
+        try {
+            for (int i = 0; i < WRITES; i++) {
+                journal.append(MutationType.CLIENT_SAVED, i % CLIENTS, state(i));
+            }
+        } finally {
+            writing.set(false);
+            reader.join();
+        }
+        assertNull(failure.get());
+
+        Map<Long, MutationRecord> latest = latest(journal);
+        assertEquals(CLIENTS, latest.size());
+        for (int i = WRITES - CLIENTS; i < WRITES; i++) {
+            assertEquals(state(i), latest.get((long) i % CLIENTS).state());
+        }
+        journal.close();
+    }
+
+    @Test
+    void reopensWithTheRecordsOfEveryClosedSegment() throws IOException {
+        MutationJournal journal = new MutationJournal(true, true, directory, SEGMENT_SIZE, Duration.ofMillis(1), 1_000);
+        for (int i = 0; i < 500; i++) {
+            journal.awaitDurable(journal.append(MutationType.CLIENT_SAVED, i % CLIENTS, state(i)));
+        }
+        journal.append(MutationType.CLIENT_DELETED, 3, null);
+        journal.close();
+
+        MutationJournal reopened = new MutationJournal(true, true, directory, SEGMENT_SIZE, Duration.ofMillis(1), 1_000);
+        Map<Long, MutationRecord> latest = latest(reopened);
+        assertEquals(CLIENTS, latest.size());
+        assertEquals(MutationType.CLIENT_DELETED, latest.get(3L).type());
+        assertEquals(state(499), latest.get(49L).state());
+        assertEquals(502, reopened.append(MutationType.CLIENT_SAVED, 1, state(500)));
+        reopened.close();
+    }
+
+    private static Map<Long, MutationRecord> latest(MutationJournal journal) {
+        Map<Long, MutationRecord> latest = new HashMap<>();
+        journal.forEach(record -> latest.merge(record.id(), record,
+                (current, next) -> next.sequence() >= current.sequence() ? next : current));
+        return latest;
+    }
+
+    private static MutationRecord.ClientState state(int i) {
+        return new MutationRecord.ClientState("Cliente " + i, "cliente" + i + "@example.com", "Rua " + i, "01001-000");
+    }
+}
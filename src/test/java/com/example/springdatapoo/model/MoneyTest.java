@@ -0,0 +1,67 @@
+package com.example.springdatapoo.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MoneyTest {
+
+    @Test
+    void roundsHalfUpToTwoDecimalPlaces() {
+        assertEquals(Money.ofCents(1), Money.of(new BigDecimal("0.005")));
+        assertEquals(Money.ZERO, Money.of(new BigDecimal("0.004")));
+        assertEquals(Money.ofCents(123457), Money.of(new BigDecimal("1234.565")));
+        assertEquals(Money.ofCents(-101), Money.of(new BigDecimal("-1.005")));
+        assertEquals(Money.ofCents(1000), Money.of(new BigDecimal("10")));
+    }
+
+    @Test
+    void parsesPlainDecimalText() {
+        assertEquals(Money.ofCents(123456), Money.valueOf("1234.56"));
+        assertEquals(Money.ofCents(1050), Money.valueOf(" 10.5 "));
+        assertEquals(Money.ofCents(10000), Money.valueOf("1e2"));
+        assertEquals(Money.ofCents(-5), Money.valueOf("-0.05"));
+        assertThrows(NumberFormatException.class, () -> Money.valueOf("12,50"));
+        assertThrows(NumberFormatException.class, () -> Money.valueOf(""));
+    }
+
+    @Test
+    void printsTwoDecimalPlacesAndRoundTrips() {
+        assertEquals("0.05", Money.ofCents(5).toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals("1234.00", Money.ofCents(123400).toString());
+        assertEquals(new BigDecimal("12.30"), Money.ofCents(1230).toBigDecimal());
+        for (long cents : new long[]{0, 1, -1, 99, 100, 123456789, Long.MAX_VALUE, Long.MIN_VALUE}) {
+            assertEquals(Money.ofCents(cents), Money.valueOf(Money.ofCents(cents).toString()));
+        }
+    }
+
+    @Test
+    void addsAndMultipliesExactly() {
+        assertEquals(Money.ofCents(30), Money.ofCents(10).plus(Money.ofCents(20)));
+        assertEquals(Money.ofCents(30), Money.valueOf("0.1").times(3));
+        assertEquals(Money.ofCents(30), Money.valueOf("0.1").plus(Money.valueOf("0.2")));
+        assertEquals(Money.ofCents(-300), Money.ofCents(100).times(-3));
+        assertSame(Money.ZERO, Money.ofCents(100).times(0));
+        assertSame(Money.ZERO, Money.of(new BigDecimal("0.00")));
+    }
+
+    @Test
+    void failsOnOverflow() {
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE).plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MAX_VALUE / 2 + 1).times(2));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("1e17")));
+    }
+
+    @Test
+    void comparesByValue() {
+        assertEquals(Money.ofCents(150), Money.valueOf("1.50"));
+        assertEquals(Money.valueOf("1.5").hashCode(), Money.valueOf("1.50").hashCode());
+        assertEquals(-1, Integer.signum(Money.ofCents(-1).compareTo(Money.ZERO)));
+        assertEquals(1, Integer.signum(Money.ofCents(2).compareTo(Money.ofCents(1))));
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.springdatapoo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class InvertedIndexTest {
+
+    @Test
+    void findsDocumentsContainingAllTerms() {
+        InvertedIndex index = new InvertedIndex(1);
+        index.put(1, "caneta azul");
+        index.put(2, "caneta vermelha");
+        index.put(3, "lápis azul");
+
+        assertEquals(new InvertedIndex.Result(1, List.of(1L)), index.search("Azul caneta", 0, 10));
+        assertEquals(2, index.search("caneta", 0, 10).total());
+        assertEquals(new InvertedIndex.Result(1, List.of(3L)), index.search("LAPIS", 0, 10));
+        assertEquals(new InvertedIndex.Result(0, List.of()), index.search("caneta preta", 0, 10));
+        assertEquals(new InvertedIndex.Result(0, List.of()), index.search("  ", 0, 10));
+    }
+
+    @Test
+    void ranksByFieldWeightAndPages() {
+        InvertedIndex index = new InvertedIndex(3, 1);
+        index.put(1, "caderno", "capa de caneta");
+        index.put(2, "caneta", "tinta azul");
+        index.put(3, "estojo", "para caneta e lápis");
+
+        InvertedIndex.Result all = index.search("caneta", 0, 10);
+        assertEquals(3, all.total());
+        assertEquals(List.of(2L), all.ids().subList(0, 1));
+
+        InvertedIndex.Result page = index.search("caneta", 1, 1);
+        assertEquals(3, page.total());
+        assertEquals(List.of(all.ids().get(1)), page.ids());
+        assertEquals(List.of(), index.search("caneta", 3, 1).ids());
+    }
+
+    @Test
+    void putReplacesAndRemoveDeletes() {
+        InvertedIndex index = new InvertedIndex(1);
+        index.put(1, "old name");
+        index.put(1, "new name");
+        index.put(2, "other name");
+
+        assertEquals(0, index.search("old", 0, 10).total());
+        assertEquals(List.of(1L), index.search("new", 0, 10).ids());
+
+        index.remove(1);
+        index.remove(99);
+
+        assertEquals(List.of(2L), index.search("name", 0, 10).ids());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void documentWithoutTermsIsNotIndexed() {
+        InvertedIndex index = new InvertedIndex(1);
+        index.put(1, "word");
+        index.put(1, "--");
+
+        assertEquals(0, index.size());
+        assertEquals(0, index.search("word", 0, 10).total());
+    }
+
+    @Test
+    void compactionRenumbersDocumentsSoRepeatedUpdatesDoNotGrowTheIndex() {
+        InvertedIndex index = new InvertedIndex(1);
+        for (long id = 0; id < 100; id++) {
+            index.put(id, "product " + id);
+        }
+        for (int round = 0; round < 200; round++) {
+            for (long id = 0; id < 100; id++) {
+                index.put(id, "product " + id + " round " + round);
+            }
+        }
+
+        assertEquals(100, index.size());
+        assertTrue(index.slots() < 100 + 2048, "slots: " + index.slots());
+        assertEquals(100, index.search("product round 199", 0, 1000).total());
+        assertEquals(0, index.search("round 198", 0, 1000).total());
+        assertEquals(List.of(42L), index.search("product 42", 0, 10).ids());
+    }
+
+    @Test
+    void searchStaysCorrectAcrossCompactionWithDeletes() {
+        InvertedIndex index = new InvertedIndex(1);
+        for (long id = 0; id < 5000; id++) {
+            index.put(id, "item " + id + " " + (id % 2 == 0 ? "even" : "odd"));
+        }
+        for (long id = 0; id < 5000; id += 2) {
+            index.remove(id);
+        }
+
+        assertEquals(2500, index.size());
+        assertEquals(0, index.search("even", 0, 10).total());
+        InvertedIndex.Result odd = index.search("odd item", 0, 5000);
+        assertEquals(2500, odd.total());
+        assertTrue(odd.ids().stream().allMatch(id -> id % 2 == 1));
+        assertEquals(List.of(4999L), index.search("4999", 0, 10).ids());
+    }
+
+    @Test
+    void tokenizeSplitsOnNonAlphanumericCharacters() {
+        assertEquals(List.of("acao", "rapida", "42"), InvertedIndex.tokenize("Ação-rápida, 42!"));
+        assertEquals(List.of(), InvertedIndex.tokenize(null));
+    }
+}
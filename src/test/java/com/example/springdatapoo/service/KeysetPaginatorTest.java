@@ -0,0 +1,140 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect")
+@Import(KeysetPaginator.class)
+class KeysetPaginatorTest {
+
+    private static final int SIZE = 2;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private KeysetPaginator keysetPaginator;
+
+    private final List<Order> orders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        Client first = client("First");
+        Client second = client("Second");
+        Client[] clients = {null, second, null, first, second, null, first};
+        long[] deliveryDays = {3, 1, 3, 2, 1, 3, 2};
+        for (int i = 0; i < clients.length; i++) {
+            Order order = new Order();
+            order.setClient(clients[i]);
+            order.setDeliveryDays(deliveryDays[i]);
+            entityManager.persist(order);
+            orders.add(order);
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void visitsEveryRowOnceWithTiesInTheSortField() {
+        Comparator<Order> byDays = Comparator.comparingLong(Order::getDeliveryDays).thenComparing(Order::getId);
+
+        assertEquals(ids(orders, byDays), collect("deliveryDays", "asc"));
+        assertEquals(ids(orders, byDays.reversed()), collect("deliveryDays", "desc"));
+    }
+
+    @Test
+    void visitsEveryRowOnceWithNullSortValuesAscending() {
+        Comparator<Order> byClient = Comparator.comparing(KeysetPaginatorTest::clientId,
+                Comparator.nullsFirst(Comparator.<Long>naturalOrder())).thenComparing(Order::getId);
+
+        List<Long> ids = collect("client", "asc");
+
+        assertEquals(ids(orders, byClient), ids);
+        assertNull(clientId(find(ids.get(0))));
+    }
+
+    @Test
+    void visitsEveryRowOnceWithNullSortValuesDescending() {
+        Comparator<Order> byClient = Comparator.comparing(KeysetPaginatorTest::clientId,
+                Comparator.nullsFirst(Comparator.<Long>naturalOrder())).thenComparing(Order::getId);
+
+        List<Long> ids = collect("client", "desc");
+
+        assertEquals(ids(orders, byClient.reversed()), ids);
+        assertNull(clientId(find(ids.get(ids.size() - 1))));
+    }
+
+    @Test
+    void cursorOnNullValueMovesPastIt() {
+        KeysetSlice<Order> first = keysetPaginator.seek(Order.class, "client", "asc", null, null, SIZE);
+        assertTrue(first.hasNext());
+        assertNull(first.nextAfter());
+
+        KeysetSlice<Order> next = keysetPaginator.seek(Order.class, "client", "asc",
+                first.nextAfter(), first.nextAfterId(), SIZE);
+
+        assertFalse(next.content().stream().anyMatch(order -> first.content().stream()
+                .anyMatch(seen -> seen.getId().equals(order.getId()))));
+    }
+
+    @Test
+    void sliceOfReturnsNoCursorOnLastPage() {
+        KeysetSlice<Order> slice = keysetPaginator.sliceOf(Order.class, List.of(orders.get(0)), false, "client");
+
+        assertFalse(slice.hasNext());
+        assertNull(slice.nextAfterId());
+    }
+
+    private List<Long> collect(String sortField, String sortDir) {
+        List<Long> ids = new ArrayList<>();
+        String after = null;
+        Long afterId = null;
+        for (int pages = 0; pages <= orders.size(); pages++) {
+            KeysetSlice<Order> slice = keysetPaginator.seek(Order.class, sortField, sortDir, after, afterId, SIZE);
+            slice.content().forEach(order -> ids.add(order.getId()));
+            if (!slice.hasNext()) {
+                return ids;
+            }
+            after = slice.nextAfter();
+            afterId = slice.nextAfterId();
+        }
+        throw new AssertionError("Keyset pagination did not finish, visited " + ids);
+    }
+
+    private Order find(Long id) {
+        return entityManager.find(Order.class, id);
+    }
+
+    private Client client(String name) {
+        Client client = new Client();
+        client.setName(name);
+        client.setEmail(name.toLowerCase() + "@test.com");
+        client.setAddress("Street");
+        client.setCep("01001000");
+        entityManager.persist(client);
+        return client;
+    }
+
+    private static Long clientId(Order order) {
+        return order.getClient() == null ? null : order.getClient().getId();
+    }
+
+    private static List<Long> ids(List<Order> orders, Comparator<Order> comparator) {
+        return orders.stream().sorted(comparator).map(Order::getId).toList();
+    }
+}
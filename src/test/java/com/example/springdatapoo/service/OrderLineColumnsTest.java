@@ -0,0 +1,116 @@
+package com.example.springdatapoo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderLineColumnsTest {
+
+    private static final int DAY_1 = (int) LocalDate.of(2024, 1, 1).toEpochDay();
+    private static final int DAY_2 = (int) LocalDate.of(2024, 1, 2).toEpochDay();
+
+    @Test
+    void groupsRevenueQuantityAndLines() {
+        OrderLineColumns columns = sample();
+
+        assertEquals(Map.of(0L, List.of(5800L, 9L, 5L)), totals(columns, query(OrderLineQuery.GroupBy.NONE)));
+        assertEquals(Map.of(1L, List.of(2500L, 6L, 3L), 2L, List.of(3300L, 3L, 2L)),
+                totals(columns, query(OrderLineQuery.GroupBy.CLIENT)));
+        assertEquals(Map.of(10L, List.of(4200L, 6L, 3L), 20L, List.of(1600L, 3L, 2L)),
+                totals(columns, query(OrderLineQuery.GroupBy.PRODUCT)));
+        assertEquals(Map.of((long) DAY_1, List.of(2500L, 6L, 3L), (long) DAY_2, List.of(2100L, 1L, 1L),
+                        (long) OrderLineColumns.NO_DAY, List.of(1200L, 2L, 1L)),
+                totals(columns, query(OrderLineQuery.GroupBy.DAY)));
+        assertEquals(Map.of(1L, List.of(3000L, 3L, 3L), 2L, List.of(1200L, 2L, 1L), 4L, List.of(1600L, 4L, 1L)),
+                totals(columns, query(OrderLineQuery.GroupBy.QUANTITY)));
+    }
+
+    @Test
+    void filtersByClientProductAndPeriod() {
+        OrderLineColumns columns = sample();
+
+        assertEquals(Map.of(0L, List.of(2500L, 6L, 3L)),
+                totals(columns, new OrderLineQuery(OrderLineQuery.GroupBy.NONE, 1L, null, null, null)));
+        assertEquals(Map.of(0L, List.of(1600L, 3L, 2L)),
+                totals(columns, new OrderLineQuery(OrderLineQuery.GroupBy.NONE, null, 20L, null, null)));
+        assertEquals(Map.of(0L, List.of(2100L, 1L, 1L)),
+                totals(columns, new OrderLineQuery(OrderLineQuery.GroupBy.NONE, 2L, 10L, null, null)));
+        assertEquals(Map.of(0L, List.of(2100L, 1L, 1L)),
+                totals(columns, new OrderLineQuery(OrderLineQuery.GroupBy.NONE, null, null, LocalDate.of(2024, 1, 2), null)));
+        assertEquals(Map.of(0L, List.of(2500L, 6L, 3L)),
+                totals(columns, new OrderLineQuery(OrderLineQuery.GroupBy.NONE, null, null, null, LocalDate.of(2024, 1, 1))));
+        assertEquals(Map.of(), totals(columns,
+                new OrderLineQuery(OrderLineQuery.GroupBy.NONE, null, null, LocalDate.of(2024, 2, 1), null)));
+    }
+
+    @Test
+    void replacesTheLinesOfARemovedOrder() {
+        OrderLineColumns columns = sample();
+
+        columns.removeOrder(1);
+        assertEquals(3, columns.size());
+        assertEquals(Map.of(1L, List.of(1600L, 4L, 1L), 2L, List.of(3300L, 3L, 2L)),
+                totals(columns, query(OrderLineQuery.GroupBy.CLIENT)));
+
+        columns.append(1, 2, DAY_1, 20, 1, 5000);
+        assertEquals(4, columns.size());
+        assertEquals(Map.of(1L, List.of(1600L, 4L, 1L), 2L, List.of(8300L, 4L, 3L)),
+                totals(columns, query(OrderLineQuery.GroupBy.CLIENT)));
+
+        columns.removeOrder(1);
+        columns.removeOrder(1);
+        columns.removeOrder(99);
+        assertEquals(3, columns.size());
+    }
+
+    @Test
+    void compactsAfterManyRemovalsKeepingTheRemainingLines() {
+        OrderLineColumns columns = new OrderLineColumns();
+        int orders = 100_000;
+        for (long order = 1; order <= orders; order++) {
+            columns.append(order, order % 10, DAY_1, 10, 1, 100);
+            columns.append(order, order % 10, DAY_1, 20, 2, 50);
+        }
+        for (long order = 1; order <= orders; order += 2) {
+            columns.removeOrder(order);
+        }
+        assertEquals(orders, columns.size());
+        assertEquals(Map.of(0L, List.of(orders * 100L, orders * 3L / 2, (long) orders)),
+                totals(columns, query(OrderLineQuery.GroupBy.NONE)));
+
+        for (long order = 2; order <= orders; order += 2) {
+            columns.removeOrder(order);
+            columns.append(order, 7, DAY_2, 30, 1, 1);
+        }
+        assertEquals(orders / 2, columns.size());
+        assertEquals(Map.of(7L, List.of(orders / 2L, orders / 2L, orders / 2L)),
+                totals(columns, query(OrderLineQuery.GroupBy.CLIENT)));
+    }
+
+    private static OrderLineColumns sample() {
+        OrderLineColumns columns = new OrderLineColumns();
+        columns.append(1, 1, DAY_1, 10, 1, 500);
+        columns.append(1, 1, DAY_1, 20, 1, 400);
+        columns.append(2, 1, DAY_1, 10, 4, 400);
+        columns.append(3, 2, DAY_2, 10, 1, 2100);
+        columns.append(4, 2, OrderLineColumns.NO_DAY, 20, 2, 600);
+        return columns;
+    }
+
+    private static OrderLineQuery query(OrderLineQuery.GroupBy groupBy) {
+        return new OrderLineQuery(groupBy, null, null, null, null);
+    }
+
+    private static Map<Long, List<Long>> totals(OrderLineColumns columns, OrderLineQuery query) {
+        Map<Long, List<Long>> totals = new TreeMap<>();
+        columns.aggregate(query, ForkJoinPool.commonPool())
+                .forEach((key, revenue, quantity, lines) -> totals.put(key, List.of(revenue, quantity, lines)));
+        return totals;
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.springdatapoo.service;
+
+import com.example.springdatapoo.model.Client;
+import com.example.springdatapoo.model.Order;
+import com.example.springdatapoo.model.OrderItem;
+import com.example.springdatapoo.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderMergeTest {
+
+    private static final OrderMerge.State BASE = new OrderMerge.State(1L, 5,
+            Map.of(7L, List.of(1, 2), 8L, List.of(3)));
+
+    @Test
+    void encodesTheOrderAsItWasOpened() {
+        Order order = new Order();
+        Client client = new Client();
+        client.setId(1L);
+        order.setClient(client);
+        order.setDeliveryDays(5);
+        order.getOrderItemList().add(item(8L, 3));
+        order.getOrderItemList().add(item(7L, 2));
+        order.getOrderItemList().add(item(null, 9));
+        order.getOrderItemList().add(item(7L, 1));
+
+        String encoded = OrderMerge.encode(order);
+
+        assertEquals("1;5;7:1,7:2,8:3", encoded);
+        assertEquals(BASE, OrderMerge.decode(encoded));
+        assertEquals(new OrderMerge.State(null, 0, Map.of()), OrderMerge.decode(OrderMerge.encode(new Order())));
+    }
+
+    @Test
+    void keepsTheChangesOfEachSideOnDifferentFields() {
+        OrderMerge.State mine = new OrderMerge.State(2L, 5, BASE.lines());
+        OrderMerge.State theirs = new OrderMerge.State(1L, 10, BASE.lines());
+
+        assertEquals(new OrderMerge.State(2L, 10, BASE.lines()), OrderMerge.merge(BASE, mine, theirs));
+    }
+
+    @Test
+    void acceptsTheSameChangeOnBothSides() {
+        OrderMerge.State both = new OrderMerge.State(null, 7, Map.of(7L, List.of(1, 2)));
+
+        assertEquals(both, OrderMerge.merge(BASE, both, both));
+    }
+
+    @Test
+    void reportsDifferentChangesToTheSameField() {
+        OrderMerge.State mine = new OrderMerge.State(2L, 6, BASE.lines());
+        OrderMerge.State theirs = new OrderMerge.State(3L, 7, BASE.lines());
+
+        OrderConflictException conflict = assertThrows(OrderConflictException.class,
+                () -> OrderMerge.merge(BASE, mine, theirs));
+        assertTrue(conflict.getMessage().contains("client, delivery days"));
+    }
+
+    @Test
+    void mergesTheItemsOfEachProductSeparately() {
+        OrderMerge.State mine = new OrderMerge.State(1L, 5,
+                Map.of(7L, List.of(1, 4), 8L, List.of(3), 9L, List.of(1)));
+        OrderMerge.State theirs = new OrderMerge.State(1L, 5, Map.of(7L, List.of(1, 2)));
+
+        assertEquals(new OrderMerge.State(1L, 5, Map.of(7L, List.of(1, 4), 9L, List.of(1))),
+                OrderMerge.merge(BASE, mine, theirs));
+    }
+
+    @Test
+    void comparesTheWholeListOfItemsOfAProduct() {
+        OrderMerge.State mine = new OrderMerge.State(1L, 5, Map.of(7L, List.of(1, 2, 2), 8L, List.of(3)));
+        OrderMerge.State theirs = new OrderMerge.State(1L, 5, Map.of(7L, List.of(2), 8L, List.of(3)));
+
+        OrderConflictException conflict = assertThrows(OrderConflictException.class,
+                () -> OrderMerge.merge(BASE, mine, theirs));
+        assertTrue(conflict.getMessage().contains("items of product 7"));
+        assertFalse(conflict.getMessage().contains("product 8"));
+    }
+
+    @Test
+    void ignoresTheOrderOfTheItemsOfAProduct() {
+        assertEquals(OrderMerge.decode("1;5;7:1,8:3,7:2"), OrderMerge.decode("1;5;7:2,7:1,8:3"));
+    }
+
+    @Test
+    void rejectsAMalformedBase() {
+        for (String base : List.of("", "1;5", "1;5;7:1;8", "x;5;", "1;;", "1;5;7", "1;5;7:x", "1;5;x:1",
+                "1;5;7:1,,8:3", "1;5; 7:1", "1;5;99999999999:1:2")) {
+            assertThrows(IllegalArgumentException.class, () -> OrderMerge.decode(base), base);
+        }
+    }
+
+    private static OrderItem item(Long productId, int quantity) {
+        OrderItem item = new OrderItem();
+        if (productId != null) {
+            Product product = new Product();
+            product.setId(productId);
+            item.setProduct(product);
+        }
+        item.setQuantity(quantity);
+        return item;
+    }
+}
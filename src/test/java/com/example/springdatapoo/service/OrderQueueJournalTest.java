@@ -0,0 +1,135 @@
+package com.example.springdatapoo.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderQueueJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void recoversOnlyTheOrdersNotMarkedDoneOrCancelled() throws IOException {
+        Path path = directory.resolve("queue/orders.journal");
+        OrderWriteBehindService.PendingOrder first = order(1, 10L, 100L, 3, List.of(line(7, 2), line(8, 1)));
+        OrderWriteBehindService.PendingOrder second = order(2, null, null, 0, List.of());
+        OrderWriteBehindService.PendingOrder third = order(3, null, 101L, 5, List.of(line(9, 4)));
+        OrderWriteBehindService.PendingOrder fourth = order(4, 11L, 102L, 1, List.of(line(7, 1)));
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            journal.append(first);
+            journal.append(second);
+            journal.append(third);
+            journal.append(fourth);
+            journal.markDone(List.of(1L, 4L));
+            journal.markCancelled(3);
+        }
+
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            assertEquals(List.of(second), journal.recover());
+        }
+    }
+
+    @Test
+    void rewritesTheFileWithThePendingOrdersOnly() throws IOException {
+        Path path = directory.resolve("orders.journal");
+        OrderWriteBehindService.PendingOrder pending = order(2, null, 100L, 2, List.of(line(7, 3)));
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            journal.append(order(1, null, 100L, 2, List.of(line(7, 1))));
+            journal.append(pending);
+            journal.markDone(List.of(1L));
+        }
+
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            assertEquals(List.of(pending), journal.recover());
+            assertEquals(List.of("O 2 - - - 100 2 7:3 ."), Files.readAllLines(path));
+
+            OrderWriteBehindService.PendingOrder next = order(3, 12L, 100L, 1, List.of(line(8, 1)));
+            journal.append(next);
+            assertEquals(List.of(pending, next), journal.recover());
+        }
+        assertTrue(Files.notExists(directory.resolve("orders.journal.tmp")));
+    }
+
+    @Test
+    void keepsAnOrderPendingWhenItsDoneLineWasTorn() throws IOException {
+        Path path = directory.resolve("orders.journal");
+        OrderWriteBehindService.PendingOrder first = order(1, null, 100L, 2, List.of(line(7, 1)));
+        OrderWriteBehindService.PendingOrder second = order(2, null, 100L, 2, List.of(line(8, 1)));
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            journal.append(first);
+            journal.append(second);
+        }
+        // Queda no meio da escrita da marca de conclusão dos Pedidos 1 e 2
+        Files.writeString(path, "D 1 2", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            assertEquals(List.of(first, second), journal.recover());
+        }
+    }
+
+    @Test
+    void ignoresATornLastLineAndKeepsAppending() throws IOException {
+        Path path = directory.resolve("orders.journal");
+        OrderWriteBehindService.PendingOrder accepted = order(1, null, 100L, 2, List.of(line(7, 1)));
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            journal.append(accepted);
+        }
+        Files.writeString(path, "O 2 - - - 100 2 8:1", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            assertEquals(List.of(accepted), journal.recover());
+            OrderWriteBehindService.PendingOrder next = order(3, null, 100L, 1, List.of(line(9, 1)));
+            journal.append(next);
+            assertEquals(List.of(accepted, next), journal.recover());
+        }
+    }
+
+    @Test
+    void rejectsAnUnknownLine() throws IOException {
+        Path path = directory.resolve("orders.journal");
+        Files.writeString(path, "Z 1 .\n", StandardCharsets.UTF_8);
+
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 1 << 20)) {
+            assertThrows(IOException.class, journal::recover);
+        }
+    }
+
+    @Test
+    void truncatesWhenNothingIsPendingAndTheFileIsTooLarge() throws IOException {
+        Path path = directory.resolve("orders.journal");
+        try (OrderQueueJournal journal = new OrderQueueJournal(path, 32)) {
+            journal.append(order(1, null, 100L, 2, List.of(line(7, 1))));
+            journal.append(order(2, null, 100L, 2, List.of(line(8, 1))));
+            journal.markDone(List.of(1L));
+            assertTrue(journal.size() > 32);
+
+            journal.markDone(List.of(2L));
+            assertEquals(0, journal.size());
+
+            OrderWriteBehindService.PendingOrder next = order(3, null, 100L, 1, List.of(line(9, 1)));
+            journal.append(next);
+            assertEquals(List.of(next), journal.recover());
+        }
+    }
+
+    private static OrderWriteBehindService.PendingOrder order(long sequence, Long orderId, Long clientId,
+                                                              long deliveryDays, List<OrderWriteBehindService.Line> lines) {
+        return new OrderWriteBehindService.PendingOrder(sequence, orderId, orderId == null ? null : 3L,
+                orderId == null ? null : clientId + ";" + deliveryDays + ";7:1,7:2", clientId, deliveryDays, lines);
+    }
+
+    private static OrderWriteBehindService.Line line(long productId, int quantity) {
+        return new OrderWriteBehindService.Line(productId, quantity);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.springdatapoo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class OrderWriteBehindServiceTest {
+
+    @Test
+    void savesTwoEditsOfTheSameOrderInSeparateTransactions() {
+        OrderWriteBehindService.PendingOrder first = edit(1, 9);
+        OrderWriteBehindService.PendingOrder created = created(2);
+        OrderWriteBehindService.PendingOrder second = edit(3, 9);
+        OrderWriteBehindService.PendingOrder other = edit(4, 10);
+
+        assertEquals(List.of(List.of(first, created), List.of(second, other)),
+                OrderWriteBehindService.transactions(List.of(first, created, second, other)));
+    }
+
+    @Test
+    void keepsABatchWithoutRepeatedEditsInOneTransaction() {
+        List<OrderWriteBehindService.PendingOrder> batch = List.of(edit(1, 9), created(2), created(3), edit(4, 10));
+
+        assertEquals(List.of(batch), OrderWriteBehindService.transactions(batch));
+        assertEquals(List.of(), OrderWriteBehindService.transactions(List.of()));
+    }
+
+    @Test
+    void startsANewTransactionForEachRepeatedEdit() {
+        OrderWriteBehindService.PendingOrder first = edit(1, 9);
+        OrderWriteBehindService.PendingOrder second = edit(2, 9);
+        OrderWriteBehindService.PendingOrder third = edit(3, 9);
+
+        assertEquals(List.of(List.of(first), List.of(second), List.of(third)),
+                OrderWriteBehindService.transactions(List.of(first, second, third)));
+    }
+
+    private static OrderWriteBehindService.PendingOrder edit(long sequence, long orderId) {
+        return new OrderWriteBehindService.PendingOrder(sequence, orderId, 3L, "1;5;7:" + sequence, 1L, 5,
+                List.of(new OrderWriteBehindService.Line(7, (int) sequence)));
+    }
+
+    private static OrderWriteBehindService.PendingOrder created(long sequence) {
+        return new OrderWriteBehindService.PendingOrder(sequence, null, null, null, 1L, 5,
+                List.of(new OrderWriteBehindService.Line(7, 1)));
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.springdatapoo.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PrefixIndexTest {
+
+    @Test
+    void findsByPrefixOfAnyWordIgnoringCaseAndAccents() {
+        PrefixIndex<String> index = new PrefixIndex<>();
+        index.put(1, "Caneta Azul", "Caneta Azul");
+        index.put(2, "Lápis Preto", "Lápis Preto");
+
+        assertEquals(List.of("Caneta Azul"), index.search("can", 10));
+        assertEquals(List.of("Caneta Azul"), index.search("AZU", 10));
+        assertEquals(List.of("Lápis Preto"), index.search("lapis", 10));
+        assertEquals(List.of("Lápis Preto"), index.search("  Lá  ", 10));
+        assertEquals(List.of(), index.search("neta", 10));
+    }
+
+    @Test
+    void matchesPhrasesAcrossWords() {
+        PrefixIndex<String> index = new PrefixIndex<>();
+        index.put(1, "Caneta Azul", "Caneta   Azul Escuro");
+
+        assertEquals(List.of("Caneta Azul"), index.search("azul esc", 10));
+        assertEquals(List.of(), index.search("azul c", 10));
+    }
+
+    @Test
+    void returnsEachValueOnceInAlphabeticalOrderUpToTheLimit() {
+        PrefixIndex<String> index = new PrefixIndex<>();
+        index.put(1, "banana", "banana", "bananada");
+        index.put(2, "bala", "bala");
+        index.put(3, "batata", "batata");
+
+        assertEquals(List.of("bala", "banana", "batata"), index.search("ba", 10));
+        assertEquals(List.of("bala", "banana"), index.search("ba", 2));
+        assertEquals(List.of(), index.search("ba", 0));
+    }
+
+    @Test
+    void putReplacesThePreviousTermsOfTheSameId() {
+        PrefixIndex<String> index = new PrefixIndex<>();
+        index.put(1, "old", "Old Name");
+        index.put(1, "new", "New Name");
+
+        assertEquals(List.of(), index.search("old", 10));
+        assertEquals(List.of("new"), index.search("name", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void removeDropsAllTermsOfTheId() {
+        PrefixIndex<String> index = new PrefixIndex<>();
+        index.put(1, "first", "Shared Word");
+        index.put(2, "second", "Shared Term");
+
+        index.remove(1);
+        index.remove(3);
+
+        assertEquals(List.of("second"), index.search("shared", 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void ignoresBlankTermsAndPrefixes() {
+        PrefixIndex<String> index = new PrefixIndex<>();
+        index.put(1, "value", null, " ", "Word");
+
+        assertEquals(List.of(), index.search(" ", 10));
+        assertEquals(List.of(), index.search(null, 10));
+        assertEquals(List.of("value"), index.search("w", 10));
+    }
+
+    @Test
+    void normalizeLowercasesStripsAccentsAndCollapsesSpaces() {
+        assertEquals("acao rapida", PrefixIndex.normalize("  AÇÃO \t Rápida "));
+        assertEquals("", PrefixIndex.normalize(null));
+    }
+}